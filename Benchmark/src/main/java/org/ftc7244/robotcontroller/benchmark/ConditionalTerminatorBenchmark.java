@@ -0,0 +1,77 @@
+package org.ftc7244.robotcontroller.benchmark;
+
+import android.support.annotation.NonNull;
+
+import org.ftc7244.robotcontroller.autonomous.terminators.ConditionalTerminator;
+import org.ftc7244.robotcontroller.autonomous.terminators.TerminationContext;
+import org.ftc7244.robotcontroller.autonomous.terminators.TerminationMode;
+import org.ftc7244.robotcontroller.autonomous.terminators.Terminator;
+import org.ftc7244.robotcontroller.autonomous.terminators.TimerTerminator;
+import org.ftc7244.robotcontroller.sensor.RobotState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a ${@link ConditionalTerminator} shaped like the one used by the drive until line
+ * routine: a distance check OR'ed with a line check AND'ed with a minimum distance, plus a timeout.
+ * Every terminator reads the same ${@link TerminationContext} the way the control loop hands it out.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConditionalTerminatorBenchmark {
+
+    private ConditionalTerminator terminator;
+    private TerminationContext context;
+    private int position;
+
+    @Setup
+    public void setup() {
+        terminator = new ConditionalTerminator(
+                new Terminator() {
+                    @Override
+                    public boolean shouldTerminate(@NonNull TerminationContext context) {
+                        return position >= 5000;
+                    }
+                },
+                new ConditionalTerminator(TerminationMode.AND,
+                        new Terminator() {
+                            @Override
+                            public boolean shouldTerminate(@NonNull TerminationContext context) {
+                                return (position & 0xFF) == 0;
+                            }
+                        },
+                        new Terminator() {
+                            @Override
+                            public boolean shouldTerminate(@NonNull TerminationContext context) {
+                                return position > 1000;
+                            }
+                        }
+                ),
+                new TimerTerminator(60000)
+        );
+        context = new TerminationContext(new RobotState());
+        position = 0;
+    }
+
+    @Benchmark
+    public boolean shouldTerminate() {
+        position = position >= 4000 ? 0 : position + 1;
+        terminator.terminated(false);
+        context.set(position, 0, System.nanoTime() / 1000000);
+        return terminator.shouldTerminate(context);
+    }
+}
@@ -0,0 +1,61 @@
+package org.ftc7244.robotcontroller.benchmark;
+
+import org.ftc7244.robotcontroller.sensor.gyroscope.GyroscopeIntegrator;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+
+/**
+ * Feeds the ${@link GyroscopeSamples} through a ${@link GyroscopeIntegrator} the same way the phone
+ * gyroscope does and counts the bytes the thread allocated. It exits with an error if any sample
+ * allocated memory once the code has been warmed up.
+ */
+public class GyroscopeAllocationCheck {
+
+    private static final int WARMUP_LAPS = 200, MEASURED_LAPS = 100;
+
+    public static void main(String[] args) throws Exception {
+        GyroscopeSamples samples = new GyroscopeSamples();
+        GyroscopeIntegrator integrator = new GyroscopeIntegrator();
+        integrator.setEpsilon(0.001f);
+
+        //the allocation counter is only available on HotSpot so look it up reflectively
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Method allocatedBytes = Class.forName("com.sun.management.ThreadMXBean").getMethod("getThreadAllocatedBytes", long.class);
+        long thread = Thread.currentThread().getId();
+
+        double sink = 0;
+        for (int lap = 0; lap < WARMUP_LAPS; lap++) sink += replay(samples, integrator, lap);
+
+        long before = (Long) allocatedBytes.invoke(threads, thread);
+        for (int lap = WARMUP_LAPS; lap < WARMUP_LAPS + MEASURED_LAPS; lap++)
+            sink += replay(samples, integrator, lap);
+        long after = (Long) allocatedBytes.invoke(threads, thread);
+
+        //the second reading boxes a Long which is the only allocation expected
+        long baseline = measureBaseline(threads, allocatedBytes, thread);
+        long events = (long) MEASURED_LAPS * GyroscopeSamples.COUNT;
+        long allocated = Math.max(0, after - before - baseline);
+        System.out.println("Events: " + events + " Allocated: " + allocated + " bytes (" + ((double) allocated / events) + " bytes/event) Checksum: " + sink);
+        if (allocated > 0) {
+            System.err.println("Gyroscope integration allocated memory");
+            System.exit(1);
+        }
+    }
+
+    private static double replay(GyroscopeSamples samples, GyroscopeIntegrator integrator, int lap) {
+        double sum = 0;
+        for (int i = 0; i < GyroscopeSamples.COUNT; i++) {
+            integrator.integrate(samples.getX(i), samples.getY(i), samples.getZ(i), samples.getTimestamp(i, lap));
+            sum += integrator.getRoll();
+        }
+        return sum;
+    }
+
+    private static long measureBaseline(ThreadMXBean threads, Method allocatedBytes, long thread) throws Exception {
+        long before = (Long) allocatedBytes.invoke(threads, thread);
+        long after = (Long) allocatedBytes.invoke(threads, thread);
+        return after - before;
+    }
+}
@@ -0,0 +1,51 @@
+package org.ftc7244.robotcontroller.benchmark;
+
+import org.ftc7244.robotcontroller.sensor.gyroscope.GyroscopeIntegrator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of one phone gyroscope event through ${@link GyroscopeIntegrator}. Running it
+ * with the GC profiler should report a normalized allocation rate of zero bytes per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GyroscopeIntegratorBenchmark {
+
+    private GyroscopeSamples samples;
+    private GyroscopeIntegrator integrator;
+    private int index, lap;
+
+    @Setup
+    public void setup() {
+        samples = new GyroscopeSamples();
+        integrator = new GyroscopeIntegrator();
+        integrator.setEpsilon(0.001f);
+        index = 0;
+        lap = 0;
+    }
+
+    @Benchmark
+    public double integrate() {
+        if (++index == GyroscopeSamples.COUNT) {
+            index = 0;
+            lap++;
+        }
+        integrator.integrate(samples.getX(index), samples.getY(index), samples.getZ(index), samples.getTimestamp(index, lap));
+        return integrator.getRoll();
+    }
+}
@@ -0,0 +1,86 @@
+package org.ftc7244.robotcontroller.benchmark;
+
+import com.qualcomm.robotcore.hardware.HardwareMap;
+
+import org.ftc7244.robotcontroller.sensor.gyroscope.GyroscopeProvider;
+import org.ftc7244.robotcontroller.sensor.gyroscope.OrientationSample;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the offset math and the snapshot read of ${@link GyroscopeProvider} that run on every
+ * cycle of the gyroscope drive.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GyroscopeProviderBenchmark {
+
+    private BenchmarkGyroscopeProvider provider;
+    private OrientationSample sample;
+    private double orientation;
+
+    @Setup
+    public void setup() {
+        provider = new BenchmarkGyroscopeProvider();
+        provider.setZOffset(37);
+        provider.update(12, -3, 170, 1);
+        sample = new OrientationSample();
+        orientation = -180;
+    }
+
+    @Benchmark
+    public double offsetNumber() {
+        orientation = orientation >= 180 ? -180 : orientation + 0.5;
+        return provider.offset(orientation, 37);
+    }
+
+    @Benchmark
+    public OrientationSample readSnapshot() {
+        return provider.readSnapshot(sample);
+    }
+
+    /**
+     * Exposes the protected parts of the provider without any hardware behind it
+     */
+    public static class BenchmarkGyroscopeProvider extends GyroscopeProvider {
+
+        public double offset(double orientation, double offset) {
+            return offsetNumber(orientation, offset);
+        }
+
+        public void update(double x, double y, double z, long timestamp) {
+            publish(x, y, z, timestamp);
+        }
+
+        @Override
+        public void start(HardwareMap map) {
+        }
+
+        @Override
+        public void calibrate() {
+        }
+
+        @Override
+        public boolean isCalibrated() {
+            return true;
+        }
+
+        @Override
+        public void stop() {
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.ftc7244.robotcontroller.benchmark;
+
+import java.util.Random;
+
+/**
+ * A fixed set of gyroscope samples shaped like a turn during autonomous: a short stationary period,
+ * a rotation around z that speeds up and slows down, and sensor noise on every axis. The samples
+ * are spaced 2.5 milliseconds apart which matches the fastest rate of the phone gyroscope. A fixed
+ * seed keeps every run identical.
+ */
+public class GyroscopeSamples {
+
+    public static final int COUNT = 4096;
+    private static final long PERIOD = 2500000;
+
+    private final float[] x, y, z;
+    private final long[] timestamps;
+
+    public GyroscopeSamples() {
+        x = new float[COUNT];
+        y = new float[COUNT];
+        z = new float[COUNT];
+        timestamps = new long[COUNT];
+
+        Random random = new Random(7244);
+        for (int i = 0; i < COUNT; i++) {
+            double rate = i < COUNT / 4 ? 0 : 2.5 * Math.sin(Math.PI * (i - COUNT / 4) / (COUNT * 0.75));
+            x[i] = (float) (random.nextGaussian() * 0.01);
+            y[i] = (float) (random.nextGaussian() * 0.01);
+            z[i] = (float) (rate + random.nextGaussian() * 0.01);
+            timestamps[i] = (i + 1) * PERIOD;
+        }
+    }
+
+    public float getX(int index) {
+        return x[index];
+    }
+
+    public float getY(int index) {
+        return y[index];
+    }
+
+    public float getZ(int index) {
+        return z[index];
+    }
+
+    /**
+     * @param index which sample
+     * @param lap   how many times the samples have been replayed so time keeps moving forward
+     * @return timestamp of the sample in nanoseconds
+     */
+    public long getTimestamp(int index, int lap) {
+        return timestamps[index] + lap * COUNT * PERIOD;
+    }
+}
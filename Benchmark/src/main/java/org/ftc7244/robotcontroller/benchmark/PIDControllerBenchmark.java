@@ -0,0 +1,51 @@
+package org.ftc7244.robotcontroller.benchmark;
+
+import org.ftc7244.robotcontroller.autonomous.controllers.PIDController;
+import org.ftc7244.robotcontroller.autonomous.controllers.PIDControllerBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a single ${@link PIDController#update(double)} with the gains of the gyroscope drive
+ * while the measurement sweeps across the target so every branch of the integral is exercised.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PIDControllerBenchmark {
+
+    private PIDController controller;
+    private double measured;
+
+    @Setup
+    public void setup() {
+        controller = new PIDControllerBuilder()
+                .setProportional(0.02)
+                .setIntegral(0.00004)
+                .setDerivative(3.5)
+                .setIntegralRange(6)
+                .setOutputRange(0.8)
+                .createController();
+        controller.setTarget(0);
+        measured = -20;
+    }
+
+    @Benchmark
+    public double update() {
+        measured = measured >= 20 ? -20 : measured + 0.1;
+        return controller.update(measured);
+    }
+}
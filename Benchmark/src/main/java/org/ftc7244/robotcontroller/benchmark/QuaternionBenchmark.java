@@ -0,0 +1,59 @@
+package org.ftc7244.robotcontroller.benchmark;
+
+import org.ftc7244.robotcontroller.sensor.Quaternion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures ${@link Quaternion#multiplyByQuat(Quaternion, Quaternion)} both into a separate output
+ * and in place, along with the conversion to azimuth, pitch and roll.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuaternionBenchmark {
+
+    private Quaternion delta, orientation, output;
+    private float[] angles;
+
+    @Setup
+    public void setup() {
+        delta = new Quaternion();
+        //a small rotation around z
+        delta.setZ((float) Math.sin(0.001));
+        delta.setW((float) Math.cos(0.001));
+        orientation = new Quaternion();
+        output = new Quaternion();
+        angles = new float[3];
+    }
+
+    @Benchmark
+    public Quaternion multiply() {
+        delta.multiplyByQuat(orientation, output);
+        return output;
+    }
+
+    @Benchmark
+    public Quaternion multiplyInPlace() {
+        delta.multiplyByQuat(orientation, orientation);
+        return orientation;
+    }
+
+    @Benchmark
+    public float[] orientation() {
+        return orientation.getOrientation(angles);
+    }
+}
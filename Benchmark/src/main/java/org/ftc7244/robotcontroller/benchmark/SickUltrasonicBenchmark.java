@@ -0,0 +1,45 @@
+package org.ftc7244.robotcontroller.benchmark;
+
+import com.qualcomm.robotcore.hardware.AnalogInput;
+
+import org.ftc7244.robotcontroller.sensor.SickUltrasonic;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the conversion from voltage to distance in ${@link SickUltrasonic#getUltrasonicLevel()}
+ * with a stub analog input, which isolates the software cost from the bus read on the robot.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SickUltrasonicBenchmark {
+
+    private AnalogInput input;
+    private SickUltrasonic ultrasonic;
+
+    @Setup
+    public void setup() {
+        input = new AnalogInput();
+        ultrasonic = new SickUltrasonic(input);
+    }
+
+    @Benchmark
+    public double getUltrasonicLevel() {
+        input.setVoltage(input.getVoltage() >= 5 ? 0 : input.getVoltage() + 0.01);
+        return ultrasonic.getUltrasonicLevel();
+    }
+}
@@ -0,0 +1,8 @@
+package android.hardware;
+
+/**
+ * Desktop stand-in for the Android sensor which is only referenced from documentation.
+ */
+public class Sensor {
+    public static final int TYPE_GYROSCOPE = 4;
+}
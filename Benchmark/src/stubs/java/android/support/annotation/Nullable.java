@@ -0,0 +1,14 @@
+package android.support.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+
+import static java.lang.annotation.RetentionPolicy.CLASS;
+
+/**
+ * Desktop stand-in for the support annotation so TeamCode sources compile without the Android SDK.
+ */
+@Documented
+@Retention(CLASS)
+public @interface Nullable {
+}
@@ -0,0 +1,11 @@
+package com.qualcomm.robotcore.eventloop.opmode;
+
+/**
+ * Desktop stand-in for the FTC linear op mode used by the autonomous status.
+ */
+public abstract class LinearOpMode {
+
+    public final boolean isStopRequested() {
+        return Thread.currentThread().isInterrupted();
+    }
+}
@@ -0,0 +1,49 @@
+package com.qualcomm.robotcore.hardware;
+
+/**
+ * Desktop stand-in for the FTC analog input that returns a voltage set by the benchmark.
+ */
+public class AnalogInput implements HardwareDevice {
+
+    private double voltage;
+
+    public double getVoltage() {
+        return voltage;
+    }
+
+    public void setVoltage(double voltage) {
+        this.voltage = voltage;
+    }
+
+    public double getMaxVoltage() {
+        return 5;
+    }
+
+    @Override
+    public Manufacturer getManufacturer() {
+        return Manufacturer.Other;
+    }
+
+    @Override
+    public String getDeviceName() {
+        return "Stub Analog Input";
+    }
+
+    @Override
+    public String getConnectionInfo() {
+        return "stub";
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public void resetDeviceConfigurationForOpMode() {
+    }
+
+    @Override
+    public void close() {
+    }
+}
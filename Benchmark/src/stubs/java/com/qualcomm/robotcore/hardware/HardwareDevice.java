@@ -0,0 +1,23 @@
+package com.qualcomm.robotcore.hardware;
+
+/**
+ * Desktop stand-in for the FTC hardware device interface.
+ */
+public interface HardwareDevice {
+
+    Manufacturer getManufacturer();
+
+    String getDeviceName();
+
+    String getConnectionInfo();
+
+    int getVersion();
+
+    void resetDeviceConfigurationForOpMode();
+
+    void close();
+
+    enum Manufacturer {
+        Unknown, Other, Lego, HiTechnic, ModernRobotics, Adafruit, Matrix
+    }
+}
@@ -0,0 +1,7 @@
+package com.qualcomm.robotcore.hardware;
+
+/**
+ * Desktop stand-in for the FTC hardware map. Benchmarks never start a sensor so it is empty.
+ */
+public class HardwareMap {
+}
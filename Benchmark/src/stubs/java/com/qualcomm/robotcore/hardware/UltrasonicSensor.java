@@ -0,0 +1,11 @@
+package com.qualcomm.robotcore.hardware;
+
+/**
+ * Desktop stand-in for the FTC ultrasonic sensor interface.
+ */
+public interface UltrasonicSensor extends HardwareDevice {
+
+    double getUltrasonicLevel();
+
+    String status();
+}
@@ -0,0 +1,28 @@
+package com.qualcomm.robotcore.util;
+
+/**
+ * Desktop stand-in for the FTC logger. Logging is dropped so it does not distort measurements.
+ */
+public class RobotLog {
+
+    private RobotLog() {
+    }
+
+    public static void i(String message) {
+    }
+
+    public static void ii(String tag, String message) {
+    }
+
+    public static void w(String message) {
+    }
+
+    public static void ww(String tag, String message) {
+    }
+
+    public static void e(String message) {
+    }
+
+    public static void ee(String tag, String message) {
+    }
+}
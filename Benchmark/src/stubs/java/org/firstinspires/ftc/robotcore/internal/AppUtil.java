@@ -0,0 +1,15 @@
+package org.firstinspires.ftc.robotcore.internal;
+
+import java.io.File;
+
+/**
+ * Desktop stand-in for the FTC app utilities. Only the FIRST folder is provided, relative to the
+ * working directory.
+ */
+public class AppUtil {
+
+    public static final File FIRST_FOLDER = new File("FIRST");
+
+    private AppUtil() {
+    }
+}
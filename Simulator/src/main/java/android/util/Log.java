@@ -0,0 +1,67 @@
+package android.util;
+
+import java.io.PrintStream;
+
+/**
+ * Desktop replacement for the Android logger so that RobotLog can be used off the robot. It
+ * shadows the class from android.jar, which only throws when called outside of a phone.
+ */
+public final class Log {
+
+    public static final int VERBOSE = 2;
+    public static final int DEBUG = 3;
+    public static final int INFO = 4;
+    public static final int WARN = 5;
+    public static final int ERROR = 6;
+    public static final int ASSERT = 7;
+
+    /**
+     * Messages below this priority are dropped. Set with -Dsimulator.log=2 through 7.
+     */
+    private static final int MINIMUM = Integer.getInteger("simulator.log", WARN);
+
+    private Log() {
+    }
+
+    public static int println(int priority, String tag, String msg) {
+        if (priority < MINIMUM) return 0;
+        PrintStream out = priority >= WARN ? System.err : System.out;
+        out.println(tag + ": " + msg);
+        return msg.length();
+    }
+
+    public static int v(String tag, String msg) {
+        return println(VERBOSE, tag, msg);
+    }
+
+    public static int d(String tag, String msg) {
+        return println(DEBUG, tag, msg);
+    }
+
+    public static int i(String tag, String msg) {
+        return println(INFO, tag, msg);
+    }
+
+    public static int w(String tag, String msg) {
+        return println(WARN, tag, msg);
+    }
+
+    public static int e(String tag, String msg) {
+        return println(ERROR, tag, msg);
+    }
+
+    public static int e(String tag, String msg, Throwable tr) {
+        return println(ERROR, tag, msg + '\n' + getStackTraceString(tr));
+    }
+
+    public static boolean isLoggable(String tag, int level) {
+        return level >= MINIMUM;
+    }
+
+    public static String getStackTraceString(Throwable tr) {
+        if (tr == null) return "";
+        java.io.StringWriter writer = new java.io.StringWriter();
+        tr.printStackTrace(new java.io.PrintWriter(writer));
+        return writer.toString();
+    }
+}
@@ -0,0 +1,147 @@
+package org.ftc7244.robotcontroller.simulation;
+
+/**
+ * Two dimensional physics of a differential drive robot. Each side of the drive train is modeled as
+ * a motor with a first order lag between the commanded power and the speed of the wheel, plus a
+ * minimum power below which the wheel does not move because of friction. The pose is in inches on
+ * the field with the heading in radians counter-clockwise from the x axis.
+ */
+public class DriveTrainModel {
+
+    /**
+     * Largest step in seconds the model integrates at once so long gaps stay accurate
+     */
+    private static final double MAX_STEP = 0.001;
+
+    private final double maxSpeed, timeConstant, trackWidth, staticPower;
+    private double x, y, heading, minX, minY, maxX, maxY;
+    private double leftVelocity, rightVelocity, leftDistance, rightDistance;
+    private double leftPower, rightPower;
+
+    /**
+     * @param maxSpeed     speed of a wheel at full power in inches per second
+     * @param timeConstant time for a wheel to reach 63% of a new speed in seconds
+     * @param trackWidth   distance between the left and right wheels in inches
+     * @param staticPower  power under which a wheel does not overcome friction
+     */
+    public DriveTrainModel(double maxSpeed, double timeConstant, double trackWidth, double staticPower) {
+        this.maxSpeed = maxSpeed;
+        this.timeConstant = timeConstant;
+        this.trackWidth = trackWidth;
+        this.staticPower = staticPower;
+        this.minX = Double.NEGATIVE_INFINITY;
+        this.minY = Double.NEGATIVE_INFINITY;
+        this.maxX = Double.POSITIVE_INFINITY;
+        this.maxY = Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Move the robot and stop the wheels without changing the distance the wheels have traveled
+     *
+     * @param x       position in inches
+     * @param y       position in inches
+     * @param heading heading in radians counter-clockwise from the x axis
+     */
+    public void setPose(double x, double y, double heading) {
+        this.x = x;
+        this.y = y;
+        this.heading = heading;
+        this.leftVelocity = 0;
+        this.rightVelocity = 0;
+    }
+
+    /**
+     * Keep the center of the robot inside a rectangle which acts like the walls of the field. The
+     * wheels will keep spinning if the robot is pushed against a wall.
+     */
+    public void setBounds(double minX, double minY, double maxX, double maxY) {
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+    }
+
+    /**
+     * @param left  power of the left wheels from -1 to 1 where positive drives forward
+     * @param right power of the right wheels from -1 to 1 where positive drives forward
+     */
+    public void setPower(double left, double right) {
+        this.leftPower = Math.max(-1, Math.min(1, left));
+        this.rightPower = Math.max(-1, Math.min(1, right));
+    }
+
+    /**
+     * Integrate the model forward in time
+     *
+     * @param seconds how long to move forward
+     */
+    public void advance(double seconds) {
+        while (seconds > 0) {
+            double dt = Math.min(seconds, MAX_STEP);
+            seconds -= dt;
+
+            //move the wheels towards the speed the power asks for
+            double response = 1 - Math.exp(-dt / timeConstant);
+            leftVelocity += (targetVelocity(leftPower) - leftVelocity) * response;
+            rightVelocity += (targetVelocity(rightPower) - rightVelocity) * response;
+            leftDistance += leftVelocity * dt;
+            rightDistance += rightVelocity * dt;
+
+            //integrate the pose along the arc using the midpoint heading
+            double velocity = (leftVelocity + rightVelocity) / 2;
+            double rotation = (rightVelocity - leftVelocity) / trackWidth;
+            double midpoint = heading + rotation * dt / 2;
+            x = Math.max(minX, Math.min(maxX, x + velocity * Math.cos(midpoint) * dt));
+            y = Math.max(minY, Math.min(maxY, y + velocity * Math.sin(midpoint) * dt));
+            heading += rotation * dt;
+        }
+    }
+
+    private double targetVelocity(double power) {
+        return Math.abs(power) < staticPower ? 0 : power * maxSpeed;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * @return heading in radians counter-clockwise from the x axis without wrapping
+     */
+    public double getHeading() {
+        return heading;
+    }
+
+    /**
+     * @return total distance the left wheels have rolled in inches
+     */
+    public double getLeftDistance() {
+        return leftDistance;
+    }
+
+    /**
+     * @return total distance the right wheels have rolled in inches
+     */
+    public double getRightDistance() {
+        return rightDistance;
+    }
+
+    public double getLeftVelocity() {
+        return leftVelocity;
+    }
+
+    public double getRightVelocity() {
+        return rightVelocity;
+    }
+
+    /**
+     * @return angular velocity in radians per second counter-clockwise
+     */
+    public double getAngularVelocity() {
+        return (rightVelocity - leftVelocity) / trackWidth;
+    }
+}
@@ -0,0 +1,123 @@
+package org.ftc7244.robotcontroller.simulation;
+
+import org.ftc7244.robotcontroller.sensor.NavXHub;
+import org.ftc7244.robotcontroller.sensor.NavXSample;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Feeds blocks of NavX registers through ${@link NavXHub#update(byte[], int, long)} and compares the
+ * samples the hub delivers with the values each block should decode to. This checks the register
+ * layout the hub decodes by hand, along with the rates and clock offset it works out, without a
+ * robot. It also checks that the NavX library still has the structure the hub reads every update
+ * from on the robot. It exits with an error if anything does not match.
+ * <p>
+ * Usage: NavXRegisterCheck [registers] where registers is a file in the format of the
+ * navx-registers.txt next to this class, which is used by default.
+ */
+public class NavXRegisterCheck {
+
+    private static final String DEFAULT_REGISTERS = "navx-registers.txt";
+
+    /**
+     * The registers hold hundredths of a degree so anything closer than half of one matches
+     */
+    private static final double ANGLE_TOLERANCE = 0.005;
+
+    /**
+     * The rates are divided by the gap between the updates so they are only as exact as the angles
+     */
+    private static final double RATE_TOLERANCE = 1;
+
+    public static void main(String[] args) throws IOException {
+        InputStream in = args.length > 0 ? new FileInputStream(args[0]) : NavXRegisterCheck.class.getResourceAsStream(DEFAULT_REGISTERS);
+        if (in == null) {
+            System.err.println("Missing " + DEFAULT_REGISTERS);
+            System.exit(2);
+        }
+
+        NavXHub hub = NavXHub.getInstance();
+        Delivery listener = new Delivery();
+        hub.subscribe(listener);
+
+        int updates = 0, passed = 0;
+        boolean failed = false;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, "UTF-8"))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] parts = line.split("\\|");
+                String[] values = parts[0].trim().split("\\s+");
+                byte[] registers = parseHex(parts[1].trim());
+
+                //the hub delivers on the thread that feeds it so the sample is complete once this returns
+                listener.count = 0;
+                hub.update(registers, Integer.parseInt(values[1]), Long.parseLong(values[0]));
+                updates++;
+                if (listener.count != 1) {
+                    System.err.println(String.format(Locale.US, "update %d: delivered %d samples", updates, listener.count));
+                    failed = true;
+                    continue;
+                }
+                NavXSample sample = listener.sample;
+                List<String> errors = new ArrayList<>();
+                compare(errors, "yaw", sample.getYaw(), Double.parseDouble(values[2]), ANGLE_TOLERANCE);
+                compare(errors, "pitch", sample.getPitch(), Double.parseDouble(values[3]), ANGLE_TOLERANCE);
+                compare(errors, "roll", sample.getRoll(), Double.parseDouble(values[4]), ANGLE_TOLERANCE);
+                compare(errors, "yaw rate", sample.getYawRate(), Double.parseDouble(values[5]), RATE_TOLERANCE);
+                compare(errors, "sensor timestamp", sample.getSensorTimestamp(), Long.parseLong(values[6]), 0);
+                compare(errors, "timestamp", sample.getTimestamp(), Long.parseLong(values[7]), 0);
+                if (sample.isMoving() != Boolean.parseBoolean(values[8])) errors.add("moving is " + sample.isMoving());
+                if (sample.isCalibrating() != Boolean.parseBoolean(values[9])) errors.add("calibrating is " + sample.isCalibrating());
+
+                System.out.println(String.format(Locale.US, "update %d: yaw %.2f pitch %.2f roll %.2f yaw rate %.1f at %d ms (%d ms on the phone)",
+                        updates, sample.getYaw(), sample.getPitch(), sample.getRoll(), sample.getYawRate(),
+                        sample.getSensorTimestamp(), sample.getTimestamp()));
+                for (String error : errors) System.err.println("  " + error);
+                if (errors.isEmpty()) passed++;
+                else failed = true;
+            }
+        } finally {
+            hub.unsubscribe(listener);
+        }
+
+        if (!NavXHub.readsUpdateStructure()) {
+            System.err.println("The NavX library no longer has the structure the hub reads updates from");
+            failed = true;
+        }
+        System.out.println(String.format(Locale.US, "%d of %d updates decoded as expected", passed, updates));
+        if (updates == 0 || failed) System.exit(1);
+    }
+
+    private static void compare(List<String> errors, String name, double actual, double expected, double tolerance) {
+        if (Math.abs(actual - expected) > tolerance)
+            errors.add(String.format(Locale.US, "%s is %s instead of %s", name, actual, expected));
+    }
+
+    private static byte[] parseHex(String hex) {
+        String[] pairs = hex.split("\\s+");
+        byte[] bytes = new byte[pairs.length];
+        for (int i = 0; i < pairs.length; i++) bytes[i] = (byte) Integer.parseInt(pairs[i], 16);
+        return bytes;
+    }
+
+    private static class Delivery implements NavXHub.Listener {
+
+        private NavXSample sample;
+        private int count;
+
+        @Override
+        public void onUpdate(NavXSample sample) {
+            this.sample = sample;
+            count++;
+        }
+    }
+}
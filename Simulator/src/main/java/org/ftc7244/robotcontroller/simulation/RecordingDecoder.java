@@ -0,0 +1,49 @@
+package org.ftc7244.robotcontroller.simulation;
+
+import org.ftc7244.robotcontroller.simulation.replay.Trace;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Converts recordings from ${@link org.ftc7244.robotcontroller.autonomous.recording.ControlRecorder}
+ * into CSV files that open in a spreadsheet. Each recording is written next to itself with a csv
+ * extension and times are in milliseconds from the first cycle. Each line also holds the sensor
+ * state the cycle was computed from.
+ * <p>
+ * Usage: RecordingDecoder [recording or folder]... where folders convert every recording inside them.
+ */
+public class RecordingDecoder {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: RecordingDecoder [recording or folder]...");
+            System.exit(2);
+        }
+        for (String arg : args) {
+            File file = new File(arg);
+            File[] recordings = file.isDirectory() ? file.listFiles() : new File[]{file};
+            if (recordings == null) continue;
+            for (File recording : recordings) {
+                if (file.isDirectory() && !recording.getName().endsWith(".rec")) continue;
+                File csv = new File(recording.getParentFile(), recording.getName().replaceFirst("\\.rec$", "") + ".csv");
+                System.out.println(String.format(Locale.US, "%s: %d cycles", csv, decode(recording, csv)));
+            }
+        }
+    }
+
+    /**
+     * Write every cycle of a recording as a line of CSV
+     *
+     * @param recording the recording to read
+     * @param csv       the file to write
+     * @return the amount of cycles written
+     * @throws IOException if either file cannot be accessed
+     */
+    public static int decode(File recording, File csv) throws IOException {
+        Trace trace = Trace.read(recording);
+        trace.writeCsv(csv);
+        return trace.getCycles();
+    }
+}
@@ -0,0 +1,33 @@
+package org.ftc7244.robotcontroller.simulation;
+
+import com.qualcomm.robotcore.hardware.AnalogInputController;
+import com.qualcomm.robotcore.util.SerialNumber;
+
+/**
+ * Supplies the voltages of the analog ports from the ${@link Simulation}. Wrap a channel with an
+ * ${@link com.qualcomm.robotcore.hardware.AnalogInput} to use it like a real port.
+ */
+public class SimulatedAnalogInputController extends SimulatedDevice implements AnalogInputController {
+
+    public static final double MAX_VOLTAGE = 5;
+
+    SimulatedAnalogInputController(Simulation simulation) {
+        super(simulation, "Analog Input Controller");
+    }
+
+    @Override
+    public double getAnalogInputVoltage(int channel) {
+        simulation.update();
+        return Math.max(0, Math.min(MAX_VOLTAGE, simulation.getVoltage(channel)));
+    }
+
+    @Override
+    public double getMaxAnalogInputVoltage() {
+        return MAX_VOLTAGE;
+    }
+
+    @Override
+    public SerialNumber getSerialNumber() {
+        return null;
+    }
+}
@@ -0,0 +1,74 @@
+package org.ftc7244.robotcontroller.simulation;
+
+import android.graphics.Color;
+
+import com.qualcomm.robotcore.hardware.ColorSensor;
+import com.qualcomm.robotcore.hardware.I2cAddr;
+
+/**
+ * A color sensor on the side of the robot that can see the beacons on the field. Without a beacon in
+ * range it only sees a small amount of ambient light.
+ */
+public class SimulatedColorSensor extends SimulatedDevice implements ColorSensor {
+
+    private static final int AMBIENT = 1, BEACON = 6;
+
+    private final double forward, left;
+    private I2cAddr address;
+
+    /**
+     * @param forward how far in front of the center of the robot the sensor is in inches
+     * @param left    how far to the left of the center of the robot the sensor is in inches
+     */
+    SimulatedColorSensor(Simulation simulation, String name, double forward, double left) {
+        super(simulation, name);
+        this.forward = forward;
+        this.left = left;
+        this.address = I2cAddr.create8bit(0x3c);
+    }
+
+    private int channel(int color) {
+        simulation.update();
+        return AMBIENT + (simulation.getBeaconColor(forward, left) == color ? BEACON : 0);
+    }
+
+    @Override
+    public int red() {
+        return channel(Color.RED);
+    }
+
+    @Override
+    public int green() {
+        return channel(Color.GREEN);
+    }
+
+    @Override
+    public int blue() {
+        return channel(Color.BLUE);
+    }
+
+    @Override
+    public int alpha() {
+        return red() + green() + blue();
+    }
+
+    @Override
+    public int argb() {
+        //built by hand since the android color methods are not available on the desktop
+        return (alpha() << 24) | (red() << 16) | (green() << 8) | blue();
+    }
+
+    @Override
+    public void enableLed(boolean enable) {
+    }
+
+    @Override
+    public void setI2cAddress(I2cAddr address) {
+        this.address = address;
+    }
+
+    @Override
+    public I2cAddr getI2cAddress() {
+        return address;
+    }
+}
@@ -0,0 +1,148 @@
+package org.ftc7244.robotcontroller.simulation;
+
+import com.qualcomm.robotcore.hardware.DcMotor;
+import com.qualcomm.robotcore.hardware.DcMotorController;
+
+/**
+ * A motor with an encoder that behaves like the SDK motors. The direction changes the sign of both
+ * the power and the encoder and ${@link RunMode#STOP_AND_RESET_ENCODER} zeros the encoder. The
+ * ${@link Simulation} decides where the shaft actually is. The state is volatile since the sensors
+ * are polled from a different thread than the one driving.
+ */
+public class SimulatedDcMotor extends SimulatedDevice implements DcMotor {
+
+    private volatile Direction direction;
+    private volatile RunMode mode;
+    private ZeroPowerBehavior zeroPowerBehavior;
+    private volatile double power, shaftTicks, zero;
+    private int targetPosition, maxSpeed;
+
+    SimulatedDcMotor(Simulation simulation, String name) {
+        super(simulation, name);
+        direction = Direction.FORWARD;
+        mode = RunMode.RUN_WITHOUT_ENCODER;
+        zeroPowerBehavior = ZeroPowerBehavior.FLOAT;
+        maxSpeed = 4000;
+    }
+
+    /**
+     * @return the power actually applied to the shaft after the direction has been accounted for
+     */
+    double getShaftPower() {
+        return direction == Direction.REVERSE ? -power : power;
+    }
+
+    /**
+     * @param shaftTicks position of the shaft in ticks without the direction or reset offset
+     */
+    void setShaftTicks(double shaftTicks) {
+        this.shaftTicks = shaftTicks;
+    }
+
+    double getShaftTicks() {
+        return shaftTicks;
+    }
+
+    @Override
+    public void setPower(double power) {
+        simulation.update();
+        if (mode == RunMode.STOP_AND_RESET_ENCODER) return;
+        this.power = Math.max(-1, Math.min(1, power));
+        simulation.onPowerChanged(this);
+    }
+
+    @Override
+    public double getPower() {
+        return power;
+    }
+
+    @Override
+    public int getCurrentPosition() {
+        simulation.update();
+        int position = (int) Math.round(shaftTicks - zero);
+        return direction == Direction.REVERSE ? -position : position;
+    }
+
+    @Override
+    public void setMode(RunMode mode) {
+        simulation.update();
+        if (mode == RunMode.STOP_AND_RESET_ENCODER) {
+            zero = shaftTicks;
+            power = 0;
+            simulation.onPowerChanged(this);
+        }
+        this.mode = mode;
+    }
+
+    @Override
+    public RunMode getMode() {
+        return mode;
+    }
+
+    @Override
+    public void setDirection(Direction direction) {
+        simulation.update();
+        this.direction = direction;
+    }
+
+    @Override
+    public Direction getDirection() {
+        return direction;
+    }
+
+    @Override
+    public void setMaxSpeed(int maxSpeed) {
+        this.maxSpeed = maxSpeed;
+    }
+
+    @Override
+    public int getMaxSpeed() {
+        return maxSpeed;
+    }
+
+    @Override
+    public DcMotorController getController() {
+        return null;
+    }
+
+    @Override
+    public int getPortNumber() {
+        return 0;
+    }
+
+    @Override
+    public void setZeroPowerBehavior(ZeroPowerBehavior zeroPowerBehavior) {
+        this.zeroPowerBehavior = zeroPowerBehavior;
+    }
+
+    @Override
+    public ZeroPowerBehavior getZeroPowerBehavior() {
+        return zeroPowerBehavior;
+    }
+
+    @Override
+    @Deprecated
+    public void setPowerFloat() {
+        setPower(0);
+    }
+
+    @Override
+    public boolean getPowerFloat() {
+        return power == 0 && zeroPowerBehavior == ZeroPowerBehavior.FLOAT;
+    }
+
+    @Override
+    public void setTargetPosition(int targetPosition) {
+        this.targetPosition = targetPosition;
+    }
+
+    @Override
+    public int getTargetPosition() {
+        return targetPosition;
+    }
+
+    @Override
+    public boolean isBusy() {
+        return mode == RunMode.RUN_TO_POSITION && Math.abs(getCurrentPosition() - targetPosition) > 10;
+    }
+}
@@ -0,0 +1,47 @@
+package org.ftc7244.robotcontroller.simulation;
+
+import com.qualcomm.robotcore.hardware.HardwareDevice;
+
+/**
+ * Shared parts of every simulated device so each one only has to implement what it actually does.
+ * All devices advance the ${@link Simulation} before they are read or written so the robot always
+ * matches the time the code is running at.
+ */
+abstract class SimulatedDevice implements HardwareDevice {
+
+    protected final Simulation simulation;
+    private final String name;
+
+    SimulatedDevice(Simulation simulation, String name) {
+        this.simulation = simulation;
+        this.name = name;
+    }
+
+    @Override
+    public Manufacturer getManufacturer() {
+        return Manufacturer.Other;
+    }
+
+    @Override
+    public String getDeviceName() {
+        return "Simulated " + name;
+    }
+
+    @Override
+    public String getConnectionInfo() {
+        return "simulation; " + name;
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public void resetDeviceConfigurationForOpMode() {
+    }
+
+    @Override
+    public void close() {
+    }
+}
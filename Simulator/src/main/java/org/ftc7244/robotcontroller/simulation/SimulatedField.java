@@ -0,0 +1,124 @@
+package org.ftc7244.robotcontroller.simulation;
+
+import android.graphics.Color;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The parts of the field the simulated sensors can see: the four walls, white tape lines on the
+ * floor and the beacons on the walls. Positions are in inches with the origin in one corner.
+ */
+public class SimulatedField {
+
+    public static final double SIZE = 144;
+
+    private static final double LINE_WIDTH = 2, BEACON_RANGE = 10, BEACON_WIDTH = 9;
+
+    private final List<double[]> lines;
+    private final List<Beacon> beacons;
+    private double carpet, tape;
+
+    public SimulatedField() {
+        lines = new ArrayList<>();
+        beacons = new ArrayList<>();
+        carpet = 0.2;
+        tape = 0.6;
+    }
+
+    /**
+     * A field with beacons on the wall at y = 0 and a line of white tape running
+     * from each beacon towards the middle of the field like the Velocity Vortex field.
+     *
+     * @param redOnLeft for each beacon if the red half is on the side with the smaller x
+     * @return the new field
+     */
+    public static SimulatedField createBeaconWall(boolean... redOnLeft) {
+        SimulatedField field = new SimulatedField();
+        for (int i = 0; i < redOnLeft.length; i++) {
+            double x = 60 + 48 * i;
+            field.addLine(x, 0, x, 48);
+            field.addBeacon(x, 0, redOnLeft[i]);
+        }
+        return field;
+    }
+
+    /**
+     * Add a strip of white tape between two points
+     */
+    public void addLine(double x1, double y1, double x2, double y2) {
+        lines.add(new double[]{x1, y1, x2, y2});
+    }
+
+    /**
+     * Add a beacon on a wall parallel to the x axis
+     *
+     * @param x         center of the beacon
+     * @param y         the wall the beacon is on
+     * @param redOnLeft if the red half is on the side with the smaller x
+     */
+    public void addBeacon(double x, double y, boolean redOnLeft) {
+        beacons.add(new Beacon(x, y, redOnLeft));
+    }
+
+    /**
+     * @return how much light the floor reflects at a point from 0 to 1
+     */
+    public double getReflectance(double x, double y) {
+        for (double[] line : lines)
+            if (distanceToSegment(x, y, line[0], line[1], line[2], line[3]) <= LINE_WIDTH / 2) return tape;
+        return carpet;
+    }
+
+    /**
+     * Cast a ray from a point until it hits one of the walls of the field
+     *
+     * @param angle direction of the ray in radians counter-clockwise from the x axis
+     * @return distance to the wall in inches
+     */
+    public double distanceToWall(double x, double y, double angle) {
+        double dx = Math.cos(angle), dy = Math.sin(angle), distance = Double.POSITIVE_INFINITY;
+        if (dx > 1e-9) distance = Math.min(distance, (SIZE - x) / dx);
+        if (dx < -1e-9) distance = Math.min(distance, -x / dx);
+        if (dy > 1e-9) distance = Math.min(distance, (SIZE - y) / dy);
+        if (dy < -1e-9) distance = Math.min(distance, -y / dy);
+        return Math.max(0, distance);
+    }
+
+    /**
+     * Find the color of the beacon half closest to a point if it is close enough to be seen
+     *
+     * @return ${@link Color#RED}, ${@link Color#BLUE} or zero if no beacon is in range
+     */
+    public int getBeaconColor(double x, double y) {
+        for (Beacon beacon : beacons) {
+            if (Math.abs(beacon.y - y) > BEACON_RANGE || Math.abs(beacon.x - x) > BEACON_WIDTH / 2) continue;
+            boolean left = x < beacon.x;
+            return left == beacon.redOnLeft ? Color.RED : Color.BLUE;
+        }
+        return 0;
+    }
+
+    public void setReflectance(double carpet, double tape) {
+        this.carpet = carpet;
+        this.tape = tape;
+    }
+
+    private static double distanceToSegment(double x, double y, double x1, double y1, double x2, double y2) {
+        double dx = x2 - x1, dy = y2 - y1, length = dx * dx + dy * dy;
+        double t = length == 0 ? 0 : Math.max(0, Math.min(1, ((x - x1) * dx + (y - y1) * dy) / length));
+        double nearestX = x1 + t * dx - x, nearestY = y1 + t * dy - y;
+        return Math.sqrt(nearestX * nearestX + nearestY * nearestY);
+    }
+
+    private static class Beacon {
+        private final double x, y;
+        private final boolean redOnLeft;
+
+        private Beacon(double x, double y, boolean redOnLeft) {
+            this.x = x;
+            this.y = y;
+            this.redOnLeft = redOnLeft;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package org.ftc7244.robotcontroller.simulation;
+
+import android.support.annotation.NonNull;
+
+import com.qualcomm.robotcore.hardware.HardwareMap;
+
+import org.ftc7244.robotcontroller.autonomous.Clock;
+import org.ftc7244.robotcontroller.sensor.gyroscope.GyroscopeProvider;
+import org.ftc7244.robotcontroller.sensor.gyroscope.OrientationSample;
+
+/**
+ * Reports the heading of the simulated robot the same way the ${@link org.ftc7244.robotcontroller.sensor.gyroscope.NavXGyroscopeProvider}
+ * does, clockwise positive with every axis shifted by 180 degrees. Samples are only published at the
+ * rate the ${@link Simulation} runs the NavX at.
+ */
+public class SimulatedGyroscopeProvider extends GyroscopeProvider {
+
+    private final Simulation simulation;
+
+    SimulatedGyroscopeProvider(Simulation simulation) {
+        this.simulation = simulation;
+    }
+
+    /**
+     * Publish a new sample from the simulation
+     *
+     * @param yaw       clockwise heading from -180 to 180 degrees
+     * @param rate      clockwise rate of the heading in degrees per second
+     * @param timestamp when the sample was taken in milliseconds
+     * @param measured  ${@link Clock#nanoTime()} when the sample was taken
+     */
+    void sample(double yaw, double rate, long timestamp, long measured) {
+        publish(-180, -180, yaw - 180, rate, timestamp, measured);
+    }
+
+    @Override
+    public void start(HardwareMap map) {
+        calibrate();
+    }
+
+    @Override
+    public void calibrate() {
+        simulation.zeroYaw();
+    }
+
+    @Override
+    public boolean isCalibrated() {
+        return true;
+    }
+
+    @Override
+    public void stop() {
+    }
+
+    @Override
+    public double getX() {
+        simulation.update();
+        return super.getX();
+    }
+
+    @Override
+    public double getY() {
+        simulation.update();
+        return super.getY();
+    }
+
+    @Override
+    public double getZ() {
+        simulation.update();
+        return super.getZ();
+    }
+
+    @Override
+    public double getUnwrappedZ() {
+        simulation.update();
+        return super.getUnwrappedZ();
+    }
+
+    @Override
+    public long getTimestamp() {
+        simulation.update();
+        return super.getTimestamp();
+    }
+
+    @NonNull
+    @Override
+    public OrientationSample readSnapshot(@NonNull OrientationSample reuse) {
+        simulation.update();
+        return super.readSnapshot(reuse);
+    }
+
+    @Override
+    public void setZToZero() {
+        simulation.update();
+        super.setZToZero();
+    }
+}
@@ -0,0 +1,53 @@
+package org.ftc7244.robotcontroller.simulation;
+
+import com.qualcomm.robotcore.hardware.LightSensor;
+
+/**
+ * A light sensor pointed at the floor that reads the reflectance of the field under it. Turning
+ * the LED off halves the light that comes back like the real sensor.
+ */
+public class SimulatedLightSensor extends SimulatedDevice implements LightSensor {
+
+    private static final double RAW_MAX = 1023;
+
+    private final double forward, left;
+    private boolean led;
+
+    /**
+     * @param forward how far in front of the center of the robot the sensor is in inches
+     * @param left    how far to the left of the center of the robot the sensor is in inches
+     */
+    SimulatedLightSensor(Simulation simulation, String name, double forward, double left) {
+        super(simulation, name);
+        this.forward = forward;
+        this.left = left;
+        this.led = true;
+    }
+
+    @Override
+    public double getLightDetected() {
+        simulation.update();
+        double light = simulation.getReflectance(forward, left) * (led ? 1 : 0.5) + simulation.noise(0.01);
+        return Math.max(0, Math.min(1, light));
+    }
+
+    @Override
+    public double getRawLightDetected() {
+        return getLightDetected() * RAW_MAX;
+    }
+
+    @Override
+    public double getRawLightDetectedMax() {
+        return RAW_MAX;
+    }
+
+    @Override
+    public void enableLed(boolean enable) {
+        this.led = enable;
+    }
+
+    @Override
+    public String status() {
+        return getDeviceName() + "[LED " + (led ? "ON" : "OFF") + "]";
+    }
+}
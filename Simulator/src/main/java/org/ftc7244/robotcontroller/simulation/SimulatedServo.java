@@ -0,0 +1,64 @@
+package org.ftc7244.robotcontroller.simulation;
+
+import com.qualcomm.robotcore.hardware.Servo;
+import com.qualcomm.robotcore.hardware.ServoController;
+
+/**
+ * A servo that instantly moves to the position it is given
+ */
+public class SimulatedServo extends SimulatedDevice implements Servo {
+
+    private Direction direction;
+    private double position, min, max;
+
+    SimulatedServo(Simulation simulation, String name) {
+        super(simulation, name);
+        direction = Direction.FORWARD;
+        min = MIN_POSITION;
+        max = MAX_POSITION;
+    }
+
+    @Override
+    public void setPosition(double position) {
+        this.position = Math.max(MIN_POSITION, Math.min(MAX_POSITION, position));
+    }
+
+    @Override
+    public double getPosition() {
+        return position;
+    }
+
+    /**
+     * @return where the servo actually is after the direction and range are applied
+     */
+    double getActualPosition() {
+        double scaled = min + position * (max - min);
+        return direction == Direction.REVERSE ? MAX_POSITION - scaled : scaled;
+    }
+
+    @Override
+    public void scaleRange(double min, double max) {
+        this.min = min;
+        this.max = max;
+    }
+
+    @Override
+    public void setDirection(Direction direction) {
+        this.direction = direction;
+    }
+
+    @Override
+    public Direction getDirection() {
+        return direction;
+    }
+
+    @Override
+    public ServoController getController() {
+        return null;
+    }
+
+    @Override
+    public int getPortNumber() {
+        return 0;
+    }
+}
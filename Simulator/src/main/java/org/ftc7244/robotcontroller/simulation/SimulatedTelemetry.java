@@ -0,0 +1,50 @@
+package org.ftc7244.robotcontroller.simulation;
+
+import com.qualcomm.robotcore.util.RobotLog;
+
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Creates a ${@link Telemetry} that sends lines to the log instead of the driver station. Every other
+ * call is accepted and ignored, nested items and lines are handled by the same proxy.
+ */
+public class SimulatedTelemetry implements InvocationHandler {
+
+    private SimulatedTelemetry() {
+    }
+
+    public static Telemetry create() {
+        return proxy(Telemetry.class, new SimulatedTelemetry());
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return "SimulatedTelemetry";
+            }
+        }
+        if (method.getName().equals("addLine") && args != null && args.length == 1)
+            RobotLog.i("TELEMETRY " + args[0]);
+
+        Class<?> type = method.getReturnType();
+        if (type == boolean.class) return false;
+        if (type == int.class) return 0;
+        if (type == String.class) return "";
+        if (type.isInterface()) return proxy(type, this);
+        return null;
+    }
+}
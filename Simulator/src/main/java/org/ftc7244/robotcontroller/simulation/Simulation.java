@@ -0,0 +1,299 @@
+package org.ftc7244.robotcontroller.simulation;
+
+import com.qualcomm.robotcore.hardware.AnalogInput;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+import com.qualcomm.robotcore.util.RobotLog;
+
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+import org.ftc7244.robotcontroller.Westcoast;
+import org.ftc7244.robotcontroller.autonomous.CancellationToken;
+import org.ftc7244.robotcontroller.autonomous.Clock;
+import org.ftc7244.robotcontroller.autonomous.PIDAutonomous;
+import org.ftc7244.robotcontroller.autonomous.VirtualClock;
+import org.ftc7244.robotcontroller.sensor.SickUltrasonic;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hardware in the loop simulation of the robot. It creates a ${@link HardwareMap} with every device
+ * ${@link Westcoast#init()} looks for and a ${@link SimulatedGyroscopeProvider} in place of the NavX
+ * so an unmodified ${@link PIDAutonomous} can run on a desktop. The physics are advanced lazily to
+ * the current time whenever a device is touched so the control code sees the same timing it would
+ * on the robot. Time comes from ${@link Clock#getDefault()} when the simulation is created, with a
+ * ${@link VirtualClock} that steps itself the autonomous runs as fast as the code allows.
+ */
+public class Simulation {
+
+    /**
+     * Size of the robot from the center to each side in inches
+     */
+    public static final double HALF_LENGTH = 9, HALF_WIDTH = 7;
+
+    private static final int LAUNCHER_LIMIT = 0, LEADING_ULTRASONIC = 1, TRAILING_ULTRASONIC = 2;
+    private static final double ULTRASONIC_SPACING = 6, LAUNCHER_SPEED = 1.25, SPOOLER_SPEED = 2000;
+    private static final long GYRO_PERIOD = (long) (1e9 / Westcoast.NAVX_DEVICE_UPDATE_RATE_HZ);
+
+    private final Clock clock;
+    private final SimulatedField field;
+    private final DriveTrainModel drive;
+    private final Random random;
+    private final HardwareMap hardwareMap;
+    private final Telemetry telemetry;
+    private final SimulatedGyroscopeProvider gyroscope;
+    private final SimulatedDcMotor driveLeft, driveRight, launcher, spoolerTop, spoolerBottom;
+
+    private long lastUpdate, nextGyroSample, lastCommand, commands, worstCommandInterval, totalCommandInterval;
+    private double yawZero, launcherRotations;
+
+    /**
+     * @param field what the sensors can see
+     * @param seed  seed for the sensor noise so runs can be repeated
+     */
+    public Simulation(SimulatedField field, long seed) {
+        this.clock = Clock.getDefault();
+        this.field = field;
+        this.random = new Random(seed);
+        this.drive = new DriveTrainModel(25, 0.1, 17.5, 0.05);
+        this.drive.setBounds(HALF_LENGTH, HALF_LENGTH, SimulatedField.SIZE - HALF_LENGTH, SimulatedField.SIZE - HALF_LENGTH);
+        this.drive.setPose(12, 52, 0);
+        this.hardwareMap = new HardwareMap(null);
+        this.telemetry = SimulatedTelemetry.create();
+        this.gyroscope = new SimulatedGyroscopeProvider(this);
+
+        driveLeft = motor("drive_left");
+        driveRight = motor("drive_right");
+        launcher = motor("launcher");
+        spoolerTop = motor("spoolerTop");
+        spoolerBottom = motor("spoolerBottom");
+        motor("intake");
+        motor("lights");
+
+        for (String name : new String[]{"launcher_door", "beacon_pusher", "carriage_release"})
+            hardwareMap.servo.put(name, new SimulatedServo(this, name));
+
+        SimulatedAnalogInputController analog = new SimulatedAnalogInputController(this);
+        hardwareMap.analogInput.put("launcher_limit", new AnalogInput(analog, LAUNCHER_LIMIT));
+        hardwareMap.analogInput.put("leading_ultrasonic", new AnalogInput(analog, LEADING_ULTRASONIC));
+        hardwareMap.analogInput.put("trailing_ultrasonic", new AnalogInput(analog, TRAILING_ULTRASONIC));
+
+        //positive power drives the robot towards its trailing sensors so the model treats that end as the front
+        hardwareMap.colorSensor.put("beacon_sensor", new SimulatedColorSensor(this, "beacon_sensor", -6, -HALF_WIDTH));
+        hardwareMap.lightSensor.put("leading_light", new SimulatedLightSensor(this, "leading_light", -6, 0));
+        hardwareMap.lightSensor.put("trailing_light", new SimulatedLightSensor(this, "trailing_light", 6, 0));
+
+        lastUpdate = clock.nanoTime();
+        nextGyroSample = lastUpdate;
+    }
+
+    private SimulatedDcMotor motor(String name) {
+        SimulatedDcMotor motor = new SimulatedDcMotor(this, name);
+        hardwareMap.dcMotor.put(name, motor);
+        return motor;
+    }
+
+    /**
+     * Move the physics forward to the current time and publish any gyroscope samples that would have
+     * arrived in the meantime
+     */
+    public synchronized void update() {
+        long now = clock.nanoTime();
+        if (now <= lastUpdate) return;
+        double seconds = (now - lastUpdate) / 1e9;
+        lastUpdate = now;
+
+        //the left side is mounted mirrored so its shaft spins backwards to drive forward
+        drive.setPower(-driveLeft.getShaftPower(), driveRight.getShaftPower());
+        drive.advance(seconds);
+        driveLeft.setShaftTicks(-drive.getLeftDistance() * Westcoast.COUNTS_PER_INCH);
+        driveRight.setShaftTicks(drive.getRightDistance() * Westcoast.COUNTS_PER_INCH);
+
+        launcherRotations += launcher.getPower() * LAUNCHER_SPEED * seconds;
+        spoolerTop.setShaftTicks(spoolerTop.getShaftTicks() + spoolerTop.getShaftPower() * SPOOLER_SPEED * seconds);
+        spoolerBottom.setShaftTicks(spoolerBottom.getShaftTicks() + spoolerBottom.getShaftPower() * SPOOLER_SPEED * seconds);
+
+        if (now >= nextGyroSample) {
+            gyroscope.sample(getYaw(), getYawRate(), clock.millis(), now);
+            nextGyroSample += ((now - nextGyroSample) / GYRO_PERIOD + 1) * GYRO_PERIOD;
+        }
+    }
+
+    /**
+     * Keeps track of how often the drive train is commanded which shows how fast the control loops are
+     * running
+     */
+    synchronized void onPowerChanged(SimulatedDcMotor motor) {
+        if (motor != driveLeft) return;
+        long now = clock.nanoTime();
+        long interval = now - lastCommand;
+        //anything longer is a pause between movements rather than a slow loop
+        if (lastCommand != 0 && interval < 100e6) {
+            commands++;
+            totalCommandInterval += interval;
+            worstCommandInterval = Math.max(worstCommandInterval, interval);
+        }
+        lastCommand = now;
+    }
+
+    synchronized void zeroYaw() {
+        yawZero = -Math.toDegrees(drive.getHeading());
+        gyroscope.sample(0, getYawRate(), clock.millis(), clock.nanoTime());
+    }
+
+    /**
+     * @return the rate the NavX would report, clockwise positive in degrees per second
+     */
+    private double getYawRate() {
+        return -Math.toDegrees(drive.getAngularVelocity());
+    }
+
+    /**
+     * @return the heading the NavX would report, clockwise positive from -180 to 180 degrees
+     */
+    private double getYaw() {
+        double yaw = (-Math.toDegrees(drive.getHeading()) - yawZero) % 360;
+        if (yaw >= 180) yaw -= 360;
+        else if (yaw < -180) yaw += 360;
+        return yaw;
+    }
+
+    synchronized double getVoltage(int channel) {
+        switch (channel) {
+            case LAUNCHER_LIMIT:
+                //the limit switch is pressed during the last part of each rotation of the cam
+                double rotation = launcherRotations - Math.floor(launcherRotations);
+                return rotation >= 0.9 ? 0 : SimulatedAnalogInputController.MAX_VOLTAGE;
+            case LEADING_ULTRASONIC:
+            case TRAILING_ULTRASONIC:
+                double forward = channel == LEADING_ULTRASONIC ? -ULTRASONIC_SPACING : ULTRASONIC_SPACING;
+                double heading = drive.getHeading();
+                double x = sensorX(forward, -HALF_WIDTH), y = sensorY(forward, -HALF_WIDTH);
+                double distance = field.distanceToWall(x, y, heading - Math.PI / 2) + noise(0.02);
+                return Math.min(distance, SickUltrasonic.Mode.INCHES.getCap()) / SickUltrasonic.Mode.INCHES.getMultiplyer();
+            default:
+                return 0;
+        }
+    }
+
+    synchronized double getReflectance(double forward, double left) {
+        return field.getReflectance(sensorX(forward, left), sensorY(forward, left));
+    }
+
+    synchronized int getBeaconColor(double forward, double left) {
+        return field.getBeaconColor(sensorX(forward, left), sensorY(forward, left));
+    }
+
+    synchronized double noise(double deviation) {
+        return random.nextGaussian() * deviation;
+    }
+
+    private double sensorX(double forward, double left) {
+        double heading = drive.getHeading();
+        return drive.getX() + forward * Math.cos(heading) - left * Math.sin(heading);
+    }
+
+    private double sensorY(double forward, double left) {
+        double heading = drive.getHeading();
+        return drive.getY() + forward * Math.sin(heading) + left * Math.cos(heading);
+    }
+
+    /**
+     * Run the autonomous like the robot controller would. It is initialized, started once the
+     * gyroscope is ready and stopped if it is still running at the end of the period.
+     *
+     * @param program   the autonomous to run
+     * @param timeoutMs the longest the autonomous can run after being started in milliseconds of the clock
+     * @return how the autonomous ended
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public Outcome run(final PIDAutonomous program, long timeoutMs) throws InterruptedException {
+        program.hardwareMap = hardwareMap;
+        program.telemetry = telemetry;
+        program.setGyroProvider(gyroscope);
+
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final CancellationToken finished = new CancellationToken();
+        Thread thread = clock.newThread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    program.runOpMode();
+                } catch (InterruptedException e) {
+                    RobotLog.w("Simulation interrupted");
+                } catch (Throwable t) {
+                    failure.set(t);
+                    RobotLog.e("Simulation failed: " + t);
+                } finally {
+                    finished.cancel();
+                }
+            }
+        }, "simulation " + program.getClass().getSimpleName());
+        thread.start();
+
+        //give the program time to initialize before pressing start, it does not wait on the clock until then
+        Thread.sleep(100);
+        program.start();
+        //the period is measured by the clock so a virtual one ends it at exactly the same point
+        finished.await(timeoutMs);
+        Outcome outcome = !finished.isCancelled() ? Outcome.STOPPED : failure.get() == null ? Outcome.FINISHED : Outcome.FAILED;
+
+        while (thread.isAlive()) {
+            program.stop();
+            thread.interrupt();
+            thread.join(10);
+        }
+        return outcome;
+    }
+
+    public HardwareMap getHardwareMap() {
+        return hardwareMap;
+    }
+
+    public SimulatedGyroscopeProvider getGyroscope() {
+        return gyroscope;
+    }
+
+    public SimulatedField getField() {
+        return field;
+    }
+
+    public synchronized DriveTrainModel getDriveTrain() {
+        return drive;
+    }
+
+    /**
+     * @return how many times the drive train was commanded during a control loop
+     */
+    public synchronized long getCommands() {
+        return commands;
+    }
+
+    /**
+     * @return the average time between drive train commands in nanoseconds
+     */
+    public synchronized long getAverageCommandInterval() {
+        return commands == 0 ? 0 : totalCommandInterval / commands;
+    }
+
+    /**
+     * @return the longest time between drive train commands in nanoseconds
+     */
+    public synchronized long getWorstCommandInterval() {
+        return worstCommandInterval;
+    }
+
+    public enum Outcome {
+        /**
+         * The autonomous returned on its own
+         */
+        FINISHED,
+        /**
+         * The autonomous was still running when time ran out and had to be stopped
+         */
+        STOPPED,
+        /**
+         * The autonomous threw an exception
+         */
+        FAILED
+    }
+}
@@ -0,0 +1,60 @@
+package org.ftc7244.robotcontroller.simulation;
+
+import org.ftc7244.robotcontroller.Debug;
+import org.ftc7244.robotcontroller.autonomous.Clock;
+import org.ftc7244.robotcontroller.autonomous.PIDAutonomous;
+import org.ftc7244.robotcontroller.autonomous.VirtualClock;
+
+import java.io.File;
+import java.util.Locale;
+
+/**
+ * Runs an autonomous in the ${@link Simulation} from the command line and prints where the robot
+ * ended up and how well the control loops kept up.
+ * <p>
+ * Usage: SimulatorMain [program] [runs] [seed] where program is either a full class name or the name
+ * of a class in the autonomous programs package. The field has the beacon wall on the right of the
+ * starting position which matches the blue beacon programs. Control loop recordings are written to
+ * the folder in the simulator.recordings property, build/recordings by default. Tuned gains are
+ * loaded from and saved to the file in the simulator.gains property, build/gains.properties by default.
+ * Each run uses a ${@link VirtualClock} so it takes as long as the code needs instead of the full
+ * period, set the simulator.realtime property to true to run against the real clock instead.
+ */
+public class SimulatorMain {
+
+    private static final String PROGRAMS = "org.ftc7244.robotcontroller.programs.autonomous.";
+    private static final long TIMEOUT = 30000;
+
+    public static void main(String[] args) throws Exception {
+        String program = args.length > 0 ? args[0] : "BeaconBlue";
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 7244;
+        Class<?> type = Class.forName(program.contains(".") ? program : PROGRAMS + program);
+        Debug.RECORDINGS = new File(System.getProperty("simulator.recordings", "build/recordings"));
+        Debug.GAINS = new File(System.getProperty("simulator.gains", "build/gains.properties"));
+        boolean realtime = Boolean.getBoolean("simulator.realtime");
+
+        int finished = 0;
+        //runs are sequential because Status only tracks a single autonomous at a time
+        for (int run = 0; run < runs; run++) {
+            //a new clock for every run so threads left over from the last run cannot hold time back
+            if (!realtime) {
+                VirtualClock clock = new VirtualClock();
+                clock.setAutoAdvance(true);
+                Clock.setDefault(clock);
+            }
+            Simulation simulation = new Simulation(SimulatedField.createBeaconWall(true, false), seed + run);
+            long start = System.nanoTime();
+            Simulation.Outcome outcome = simulation.run((PIDAutonomous) type.newInstance(), TIMEOUT);
+            if (outcome == Simulation.Outcome.FINISHED) finished++;
+
+            DriveTrainModel drive = simulation.getDriveTrain();
+            System.out.println(String.format(Locale.US, "%s run %d: %s in %.1f s at (%.1f, %.1f) heading %.1f deg, %d loop commands avg %.2f ms worst %.2f ms",
+                    type.getSimpleName(), run, outcome.name().toLowerCase(Locale.US), (System.nanoTime() - start) / 1e9,
+                    drive.getX(), drive.getY(), Math.toDegrees(drive.getHeading()), simulation.getCommands(),
+                    simulation.getAverageCommandInterval() / 1e6, simulation.getWorstCommandInterval() / 1e6));
+        }
+        System.out.println(String.format(Locale.US, "%d of %d runs finished within %d s", finished, runs, TIMEOUT / 1000));
+        System.exit(finished == runs ? 0 : 1);
+    }
+}
@@ -0,0 +1,370 @@
+package org.ftc7244.robotcontroller.simulation.replay;
+
+import android.support.annotation.NonNull;
+
+import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+
+import org.ftc7244.robotcontroller.Westcoast;
+import org.ftc7244.robotcontroller.autonomous.controllers.Setpoint;
+import org.ftc7244.robotcontroller.autonomous.recording.ControlRecorder;
+import org.ftc7244.robotcontroller.autonomous.terminators.TerminationContext;
+import org.ftc7244.robotcontroller.autonomous.terminators.Terminator;
+import org.ftc7244.robotcontroller.autonomous.drivers.GyroscopeDrive;
+import org.ftc7244.robotcontroller.autonomous.drivers.UltrasonicDrive;
+import org.ftc7244.robotcontroller.sensor.RobotState;
+import org.ftc7244.robotcontroller.sensor.SensorAcquisition;
+import org.ftc7244.robotcontroller.sensor.gyroscope.GyroscopeProvider;
+import org.ftc7244.robotcontroller.simulation.SimulatedField;
+import org.ftc7244.robotcontroller.simulation.Simulation;
+
+/**
+ * Feeds a recorded ${@link Trace} back into ${@link GyroscopeDrive}, ${@link UltrasonicDrive} and
+ * their terminators and collects what they command the motors to do into an output trace. The
+ * sensors come from a ${@link SensorAcquisition} and a ${@link GyroscopeProvider} that serve the
+ * recorded cycles instead of hardware, the loops are not paced and every timestamp comes from the
+ * recording so a replay runs as fast as the CPU allows and gives the same output every time.
+ * <p>
+ * Each call of a control loop consumes the next segment of the recording. The loops either run for
+ * exactly as many cycles as were recorded with ${@link #replay()} or are driven by a ${@link Script}
+ * that makes the same calls as the autonomous so the terminators decide when to stop. A script that
+ * does not match the recording ends with a ${@link DivergedException}.
+ */
+public class ReplayEngine {
+
+    private final Trace input, output;
+    private final double[] headings, rates;
+    private final ReplayGyroscopeProvider gyroscopeProvider;
+    private final ReplayGyroscopeDrive gyroscope;
+    private final ReplayUltrasonicDrive ultrasonic;
+
+    /**
+     * The cycle of the recording read by the control loop next, the one it read last and the end of
+     * the segment being replayed
+     */
+    private int next, current, segmentEnd;
+    /**
+     * If a segment has been started and if the control loop has read from the current one
+     */
+    private boolean started, open;
+
+    /**
+     * @param input the recording to replay
+     */
+    public ReplayEngine(@NonNull Trace input) {
+        this.input = input;
+        this.output = new Trace();
+
+        //headings only come from the gyroscope drive so every other cycle keeps the last one seen
+        this.headings = new double[input.getCycles()];
+        this.rates = new double[input.getCycles()];
+        double heading = 0, rate = 0;
+        for (int i = 0; i < headings.length; i++) {
+            if (input.getSource(i).equals(GyroscopeDrive.class.getSimpleName())) {
+                heading = input.getReading(i);
+                rate = input.getRate(i);
+            }
+            headings[i] = heading;
+            rates[i] = rate;
+        }
+
+        //the simulated hardware only stands in for devices the drivers command, it never feeds the loops
+        LinearOpMode opMode = new LinearOpMode() {
+            @Override
+            public void runOpMode() throws InterruptedException {
+            }
+        };
+        opMode.hardwareMap = new Simulation(new SimulatedField(), 0).getHardwareMap();
+        Westcoast robot = new ReplayWestcoast(opMode);
+        robot.init();
+
+        ControlRecorder recorder = new OutputRecorder();
+        this.gyroscopeProvider = new ReplayGyroscopeProvider();
+        this.gyroscope = new ReplayGyroscopeDrive(robot, gyroscopeProvider);
+        this.ultrasonic = new ReplayUltrasonicDrive(robot);
+        gyroscope.setPaced(false);
+        gyroscope.setRecorder(recorder);
+        ultrasonic.setPaced(false);
+        ultrasonic.setRecorder(recorder);
+    }
+
+    /**
+     * Replay every segment of the recording for as many cycles as it was recorded for
+     *
+     * @return the cycles of the replay, it is reused by the next replay
+     * @throws InterruptedException if the thread is interrupted
+     */
+    @NonNull
+    public Trace replay() throws InterruptedException {
+        reset();
+        for (int cycle = 0; cycle < input.getCycles(); cycle = input.getSegmentEnd(cycle)) {
+            String source = input.getSource(cycle);
+            if (source.equals(GyroscopeDrive.class.getSimpleName())) gyroscope.replay();
+            else if (source.equals(UltrasonicDrive.class.getSimpleName())) ultrasonic.replay();
+            else {
+                //no loop to replay the segment with so skip over it
+                beginSegment();
+                open = true;
+            }
+        }
+        return output;
+    }
+
+    /**
+     * Replay the recording with the calls made by a script
+     *
+     * @param script the same drive calls the autonomous made
+     * @return the cycles of the replay, it is reused by the next replay
+     * @throws InterruptedException if the thread is interrupted
+     * @throws DivergedException    if the script and the recording do not match
+     */
+    @NonNull
+    public Trace replay(@NonNull Script script) throws InterruptedException {
+        reset();
+        script.run(gyroscope, ultrasonic);
+        return output;
+    }
+
+    private void reset() {
+        output.clear();
+        started = false;
+        open = false;
+        next = 0;
+        current = 0;
+        segmentEnd = 0;
+        gyroscopeProvider.setZOffset(0);
+        gyroscopeProvider.sample(0, 0, 0);
+    }
+
+    /**
+     * Move the recording to the start of the next segment and skip whatever the last loop did not read
+     */
+    private void beginSegment() {
+        next = started ? segmentEnd : 0;
+        if (next >= input.getCycles())
+            throw new DivergedException("Replay started more control loops than the " + input.getCycles() + " recorded cycles hold");
+        segmentEnd = input.getSegmentEnd(next);
+        started = true;
+        open = false;
+        //the recorded headings already have any orientation reset applied
+        gyroscopeProvider.setZOffset(0);
+        gyroscopeProvider.sample(headings[next], rates[next], input.getStateTimestamp(next));
+    }
+
+    /**
+     * @return the input of the cycle that will be read next
+     */
+    private RobotState awaitState(RobotState reuse) {
+        if (open || !started) beginSegment();
+        return input.readState(next, reuse);
+    }
+
+    /**
+     * @return the input of the next cycle of the segment being replayed
+     */
+    private RobotState readState(RobotState reuse) {
+        if (!started) beginSegment();
+        if (next >= segmentEnd)
+            throw new DivergedException(String.format("%s segment %d ran longer than the %d cycles recorded",
+                    input.getSource(current), input.getSegment(current), segmentEnd - current));
+        current = next++;
+        open = true;
+        gyroscopeProvider.sample(headings[current], rates[current], input.getStateTimestamp(current));
+        return input.readState(current, reuse);
+    }
+
+    /**
+     * @return the recording being replayed
+     */
+    public Trace getInput() {
+        return input;
+    }
+
+    /**
+     * Makes the same calls to the drivers as an autonomous so the recording can be replayed with the
+     * terminators each call uses
+     */
+    public interface Script {
+        void run(GyroscopeDrive gyroscope, UltrasonicDrive ultrasonic) throws InterruptedException;
+    }
+
+    /**
+     * The replay no longer matches the recording, a sign the code being replayed behaves differently
+     */
+    public static class DivergedException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        public DivergedException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Ends a control loop at the end of the segment it is replaying
+     */
+    private class SegmentTerminator extends Terminator {
+        @Override
+        public boolean shouldTerminate(@NonNull TerminationContext context) {
+            return next >= segmentEnd;
+        }
+    }
+
+    /**
+     * Moves the target, power offset and feedforward exactly as they were recorded
+     */
+    private class RecordedSetpoint extends Setpoint {
+
+        @Override
+        public void update(@NonNull RobotState state) {
+        }
+
+        @Override
+        public double getTarget() {
+            return input.getTarget(current);
+        }
+
+        @Override
+        public double getFeedforward() {
+            //the sides are offset by the power and split by the PID output plus the feedforward
+            return (input.getLeftPower(current) - input.getRightPower(current)) / 2 - input.getOutput(current);
+        }
+
+        @Override
+        public double getPowerOffset() {
+            return (input.getLeftPower(current) + input.getRightPower(current)) / 2;
+        }
+    }
+
+    private class ReplayGyroscopeDrive extends GyroscopeDrive {
+
+        ReplayGyroscopeDrive(Westcoast robot, GyroscopeProvider gyroProvider) {
+            super(robot, gyroProvider);
+        }
+
+        void replay() throws InterruptedException {
+            control(new RecordedSetpoint(), new SegmentTerminator());
+        }
+
+        @Override
+        protected long getCycleTime(long now) {
+            //the controller ran on the time of the recorded cycle
+            return input.getTimestamp(current);
+        }
+    }
+
+    private class ReplayUltrasonicDrive extends UltrasonicDrive {
+
+        ReplayUltrasonicDrive(Westcoast robot) {
+            super(robot);
+        }
+
+        void replay() throws InterruptedException {
+            control(new RecordedSetpoint(), new SegmentTerminator());
+        }
+
+        @Override
+        protected long getCycleTime(long now) {
+            return input.getTimestamp(current);
+        }
+    }
+
+    /**
+     * Serves the heading of the recorded cycle, without an offset it reads back as recorded
+     */
+    private class ReplayGyroscopeProvider extends GyroscopeProvider {
+
+        void sample(double heading, double rate, long timestamp) {
+            //measured at the time of the state so the reading is not carried forward a second time
+            publish(0, 0, heading, rate, timestamp / 1000000, timestamp);
+        }
+
+        @Override
+        public void start(HardwareMap map) {
+        }
+
+        @Override
+        public void calibrate() {
+        }
+
+        @Override
+        public boolean isCalibrated() {
+            return true;
+        }
+
+        @Override
+        public void stop() {
+        }
+    }
+
+    /**
+     * Hands the drivers the recorded states instead of the states polled from hardware
+     */
+    private class ReplaySensorAcquisition extends SensorAcquisition {
+
+        ReplaySensorAcquisition(Westcoast robot) {
+            super(robot, Westcoast.SENSOR_UPDATE_RATE_HZ);
+        }
+
+        @Override
+        public synchronized void start() {
+        }
+
+        @NonNull
+        @Override
+        public RobotState readState(@NonNull RobotState reuse) {
+            return ReplayEngine.this.readState(reuse);
+        }
+
+        @NonNull
+        @Override
+        public RobotState awaitState(@NonNull RobotState reuse) {
+            return ReplayEngine.this.awaitState(reuse);
+        }
+    }
+
+    private class ReplayWestcoast extends Westcoast {
+
+        private final SensorAcquisition sensors;
+
+        ReplayWestcoast(LinearOpMode opMode) {
+            super(opMode);
+            this.sensors = new ReplaySensorAcquisition(this);
+        }
+
+        @Override
+        public SensorAcquisition getSensors() {
+            return sensors;
+        }
+    }
+
+    /**
+     * Collects the cycles of the replay into the output trace and checks each cycle comes from the
+     * loop that recorded the segment
+     */
+    private class OutputRecorder extends ControlRecorder {
+
+        OutputRecorder() {
+            super(1);
+        }
+
+        @Override
+        public synchronized short register(@NonNull String name) {
+            //the drivers are subclassed to replay them so record under the name of the real driver
+            return output.register(name.replaceFirst("^Replay", ""));
+        }
+
+        @Override
+        public void record(short source, int segment, long timestamp, double target, double reading, double rate,
+                           double proportional, double integral, double derivative, double output,
+                           double leftPower, double rightPower, @NonNull RobotState state) {
+            int recorded = ReplayEngine.this.output.getCycles();
+            if (!ReplayEngine.this.output.getSourceName(source).equals(input.getSource(current)))
+                throw new DivergedException(String.format("Cycle %d came from %s but %s was recorded",
+                        recorded, ReplayEngine.this.output.getSourceName(source), input.getSource(current)));
+            //keep the recorded time of the cycle so the two traces line up
+            ReplayEngine.this.output.add(source, input.getSegment(current), input.getTimestamp(current), target,
+                    reading, rate, proportional, integral, derivative, output, leftPower, rightPower, state);
+        }
+    }
+}
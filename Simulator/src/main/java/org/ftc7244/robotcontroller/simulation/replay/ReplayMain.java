@@ -0,0 +1,54 @@
+package org.ftc7244.robotcontroller.simulation.replay;
+
+import org.ftc7244.robotcontroller.Debug;
+
+import java.io.File;
+import java.util.Locale;
+
+/**
+ * Replays a recording from the command line and prints how far the replayed motor commands are from
+ * the recorded ones. Any change to the control loops or their tunings shows up as a difference.
+ * <p>
+ * Usage: ReplayMain [recording] [runs] [output csv] where runs repeats the replay to measure how fast
+ * it is and the output of the last run is written to the csv if one is given.
+ */
+public class ReplayMain {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("Usage: ReplayMain [recording] [runs] [output csv]");
+            System.exit(2);
+        }
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        //logging every cycle would take longer than the replay itself
+        Debug.STATUS = false;
+        //the drivers have to load the same gains the recording was made with
+        Debug.GAINS = new File(System.getProperty("simulator.gains", "build/gains.properties"));
+
+        Trace input = Trace.read(new File(args[0]));
+        ReplayEngine engine = new ReplayEngine(input);
+        Trace output = null;
+        long start = System.nanoTime();
+        for (int run = 0; run < runs; run++) output = engine.replay();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        int cycles = Math.min(input.getCycles(), output.getCycles());
+        double worst = 0, total = 0;
+        int worstCycle = -1;
+        for (int i = 0; i < cycles; i++) {
+            double difference = Math.max(Math.abs(output.getLeftPower(i) - input.getLeftPower(i)),
+                    Math.abs(output.getRightPower(i) - input.getRightPower(i)));
+            total += difference;
+            if (difference > worst) {
+                worst = difference;
+                worstCycle = i;
+            }
+        }
+        System.out.println(String.format(Locale.US, "%d runs in %.2f s (%.0f runs per minute), %d of %d cycles replayed",
+                runs, seconds, runs / seconds * 60, output.getCycles(), input.getCycles()));
+        System.out.println(String.format(Locale.US, "motor power difference avg %.6f worst %.6f%s", cycles == 0 ? 0 : total / cycles, worst,
+                worstCycle == -1 ? "" : String.format(Locale.US, " at cycle %d (%s segment %d)", worstCycle,
+                        input.getSource(worstCycle), input.getSegment(worstCycle))));
+        if (args.length > 2) output.writeCsv(new File(args[2]));
+    }
+}
@@ -0,0 +1,240 @@
+package org.ftc7244.robotcontroller.simulation.replay;
+
+import org.ftc7244.robotcontroller.autonomous.Clock;
+import org.ftc7244.robotcontroller.autonomous.recording.ControlRecorder;
+import org.ftc7244.robotcontroller.autonomous.recording.RecordingReader;
+import org.ftc7244.robotcontroller.sensor.RobotState;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Every cycle of a recording held in memory so it can be replayed many times without going back to
+ * the file. Cycles are stored as primitives in the order they were recorded and the outputs of a
+ * replay are collected into a trace of their own so the two can be compared.
+ */
+public class Trace {
+
+    private static final String HEADER = "source,segment,time,target,reading,rate,proportional,integral,derivative,output,left,right," +
+            "state time,drive left,drive right,leading light,trailing light,leading ultrasonic,trailing ultrasonic,launcher limit\n";
+
+    private final List<String> names;
+    private int cycles;
+    private short[] sources;
+    private int[] segments;
+    private long[] encoders;
+    private long[] timestamps, stateTimestamps;
+    private float[] values, inputs;
+
+    public Trace() {
+        names = new ArrayList<>();
+        sources = new short[0];
+        segments = new int[0];
+        encoders = new long[0];
+        timestamps = new long[0];
+        stateTimestamps = new long[0];
+        values = new float[0];
+        inputs = new float[0];
+    }
+
+    /**
+     * Load every cycle of a recording made by ${@link ControlRecorder}
+     *
+     * @param recording the file to read
+     * @return the cycles of the recording
+     * @throws IOException if the file cannot be read
+     */
+    public static Trace read(File recording) throws IOException {
+        Trace trace = new Trace();
+        RobotState state = new RobotState();
+        try (RecordingReader reader = new RecordingReader(new FileInputStream(recording))) {
+            while (reader.next()) {
+                trace.add(trace.register(reader.getSource()), reader.getSegment(), reader.getTimestamp(),
+                        reader.getTarget(), reader.getReading(), reader.getRate(), reader.getProportional(),
+                        reader.getIntegral(), reader.getDerivative(), reader.getOutput(), reader.getLeftPower(),
+                        reader.getRightPower(),
+                        reader.readState(state));
+            }
+        }
+        return trace;
+    }
+
+    /**
+     * @param name name of a control loop
+     * @return the id cycles of that control loop are stored under
+     */
+    public short register(String name) {
+        int id = names.indexOf(name);
+        if (id == -1) {
+            id = names.size();
+            names.add(name);
+        }
+        return (short) id;
+    }
+
+    /**
+     * Add a cycle to the end of the trace, the parameters match ${@link ControlRecorder#record}
+     */
+    public void add(short source, int segment, long timestamp, double target, double reading, double rate,
+                    double proportional, double integral, double derivative, double output,
+                    double leftPower, double rightPower, RobotState state) {
+        if (cycles == sources.length) grow();
+        int index = cycles++;
+        sources[index] = source;
+        segments[index] = segment;
+        timestamps[index] = timestamp;
+        int offset = index * ControlRecorder.VALUES;
+        values[offset] = (float) target;
+        values[offset + 1] = (float) reading;
+        values[offset + 2] = (float) rate;
+        values[offset + 3] = (float) proportional;
+        values[offset + 4] = (float) integral;
+        values[offset + 5] = (float) derivative;
+        values[offset + 6] = (float) output;
+        values[offset + 7] = (float) leftPower;
+        values[offset + 8] = (float) rightPower;
+        stateTimestamps[index] = state.getTimestamp();
+        encoders[index * 2] = state.getDriveLeft();
+        encoders[index * 2 + 1] = state.getDriveRight();
+        offset = index * ControlRecorder.INPUTS;
+        inputs[offset] = (float) state.getLeadingLight();
+        inputs[offset + 1] = (float) state.getTrailingLight();
+        inputs[offset + 2] = (float) state.getLeadingUltrasonic();
+        inputs[offset + 3] = (float) state.getTrailingUltrasonic();
+        inputs[offset + 4] = (float) state.getLauncherLimit();
+    }
+
+    private void grow() {
+        int capacity = Math.max(1024, sources.length * 2);
+        sources = Arrays.copyOf(sources, capacity);
+        segments = Arrays.copyOf(segments, capacity);
+        timestamps = Arrays.copyOf(timestamps, capacity);
+        stateTimestamps = Arrays.copyOf(stateTimestamps, capacity);
+        encoders = Arrays.copyOf(encoders, capacity * 2);
+        values = Arrays.copyOf(values, capacity * ControlRecorder.VALUES);
+        inputs = Arrays.copyOf(inputs, capacity * ControlRecorder.INPUTS);
+    }
+
+    /**
+     * Remove every cycle but keep the registered sources so the trace can be refilled
+     */
+    public void clear() {
+        cycles = 0;
+    }
+
+    /**
+     * Copy the sensors a cycle was computed from into the state provided
+     *
+     * @param cycle index of the cycle
+     * @param reuse the state to overwrite
+     * @return the same state that was passed in
+     */
+    public RobotState readState(int cycle, RobotState reuse) {
+        int offset = cycle * ControlRecorder.INPUTS;
+        reuse.set(stateTimestamps[cycle], encoders[cycle * 2], encoders[cycle * 2 + 1], inputs[offset],
+                inputs[offset + 1], inputs[offset + 2], inputs[offset + 3], inputs[offset + 4]);
+        return reuse;
+    }
+
+    /**
+     * Find the first cycle after the segment the given cycle belongs to
+     *
+     * @param cycle index of any cycle in the segment
+     * @return index of the first cycle of the next segment or ${@link #getCycles()} if there is none
+     */
+    public int getSegmentEnd(int cycle) {
+        int end = cycle + 1;
+        while (end < cycles && sources[end] == sources[cycle] && segments[end] == segments[cycle]) end++;
+        return end;
+    }
+
+    /**
+     * Write every cycle as a line of CSV with times in milliseconds from the first cycle
+     *
+     * @param csv the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void writeCsv(File csv) throws IOException {
+        long start = cycles == 0 ? 0 : timestamps[0];
+        try (Writer writer = new BufferedWriter(new FileWriter(csv))) {
+            writer.write(HEADER);
+            for (int i = 0; i < cycles; i++) {
+                StringBuilder line = new StringBuilder(getSource(i)).append(',').append(segments[i])
+                        .append(',').append(String.format(Locale.US, "%.3f", (timestamps[i] - start) / 1e6));
+                for (int v = 0; v < ControlRecorder.VALUES; v++)
+                    line.append(',').append(values[i * ControlRecorder.VALUES + v]);
+                line.append(',').append(String.format(Locale.US, "%.3f", (stateTimestamps[i] - start) / 1e6))
+                        .append(',').append(encoders[i * 2]).append(',').append(encoders[i * 2 + 1]);
+                for (int v = 0; v < ControlRecorder.INPUTS; v++)
+                    line.append(',').append(inputs[i * ControlRecorder.INPUTS + v]);
+                writer.write(line.append('\n').toString());
+            }
+        }
+    }
+
+    public int getCycles() {
+        return cycles;
+    }
+
+    public String getSource(int cycle) {
+        return names.get(sources[cycle]);
+    }
+
+    /**
+     * @param source id from ${@link #register(String)}
+     * @return name the id was registered with
+     */
+    public String getSourceName(short source) {
+        return names.get(source);
+    }
+
+    public int getSegment(int cycle) {
+        return segments[cycle];
+    }
+
+    /**
+     * @return ${@link Clock#nanoTime()} when the cycle began
+     */
+    public long getTimestamp(int cycle) {
+        return timestamps[cycle];
+    }
+
+    /**
+     * @return ${@link Clock#nanoTime()} when the sensors of the cycle were polled
+     */
+    public long getStateTimestamp(int cycle) {
+        return stateTimestamps[cycle];
+    }
+
+    public double getTarget(int cycle) {
+        return values[cycle * ControlRecorder.VALUES];
+    }
+
+    public double getReading(int cycle) {
+        return values[cycle * ControlRecorder.VALUES + 1];
+    }
+
+    public double getRate(int cycle) {
+        return values[cycle * ControlRecorder.VALUES + 2];
+    }
+
+    public double getOutput(int cycle) {
+        return values[cycle * ControlRecorder.VALUES + 6];
+    }
+
+    public double getLeftPower(int cycle) {
+        return values[cycle * ControlRecorder.VALUES + 7];
+    }
+
+    public double getRightPower(int cycle) {
+        return values[cycle * ControlRecorder.VALUES + 8];
+    }
+}
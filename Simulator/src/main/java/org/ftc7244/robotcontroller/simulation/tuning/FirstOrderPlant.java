@@ -0,0 +1,71 @@
+package org.ftc7244.robotcontroller.simulation.tuning;
+
+import java.util.Locale;
+
+/**
+ * A plant identified from a recording, the rate of the output follows the power with a first order
+ * lag after a dead time. This is the same shape as each side of the ${@link org.ftc7244.robotcontroller.simulation.DriveTrainModel}
+ * but it is fit to what the robot actually did so it also covers the battery, the weight of the
+ * robot and the lag of the sensors.
+ */
+public class FirstOrderPlant {
+
+    private final double gain, timeConstant, deadTime, fit;
+    private final int samples;
+
+    /**
+     * @param gain         rate of the output at full power in units per second
+     * @param timeConstant time for the rate to reach 63% of a new value in seconds
+     * @param deadTime     time before a change of power starts to show in seconds
+     * @param fit          fraction of the variance of the rate explained by the model
+     * @param samples      how many cycles the model was fit to
+     */
+    public FirstOrderPlant(double gain, double timeConstant, double deadTime, double fit, int samples) {
+        this.gain = gain;
+        this.timeConstant = timeConstant;
+        this.deadTime = deadTime;
+        this.fit = fit;
+        this.samples = samples;
+    }
+
+    /**
+     * @return rate of the output at full power in units per second
+     */
+    public double getGain() {
+        return gain;
+    }
+
+    /**
+     * @return time for the rate to reach 63% of a new value in seconds
+     */
+    public double getTimeConstant() {
+        return timeConstant;
+    }
+
+    /**
+     * @return time before a change of power starts to show in seconds
+     */
+    public double getDeadTime() {
+        return deadTime;
+    }
+
+    /**
+     * @return fraction of the variance of the rate explained by the model, one is a perfect fit
+     */
+    public double getFit() {
+        return fit;
+    }
+
+    /**
+     * @return how many cycles the model was fit to
+     */
+    public int getSamples() {
+        return samples;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "gain %.2f/s time constant %.1f ms dead time %.0f ms (fit %.3f over %d cycles)",
+                gain, timeConstant * 1000, deadTime * 1000, fit, samples);
+    }
+}
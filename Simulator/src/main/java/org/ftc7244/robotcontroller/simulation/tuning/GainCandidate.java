@@ -0,0 +1,76 @@
+package org.ftc7244.robotcontroller.simulation.tuning;
+
+import java.util.Locale;
+
+/**
+ * One set of PID gains and how it scored in the ${@link GainEvaluator}. Every score is lower is
+ * better so candidates can be compared for ${@link #dominates(GainCandidate) dominance}.
+ */
+public class GainCandidate {
+
+    private final double kP, kI, kD;
+    private double settlingTime, overshoot, worstSettlingTime;
+
+    public GainCandidate(double kP, double kI, double kD) {
+        this.kP = kP;
+        this.kI = kI;
+        this.kD = kD;
+    }
+
+    void setScores(double settlingTime, double overshoot, double worstSettlingTime) {
+        this.settlingTime = settlingTime;
+        this.overshoot = overshoot;
+        this.worstSettlingTime = worstSettlingTime;
+    }
+
+    /**
+     * A candidate dominates another if it is at least as good in every score and better in one. The
+     * candidates nothing dominates form the Pareto front, the best trade offs between the scores.
+     *
+     * @param other the candidate to compare against
+     * @return if this is the better candidate
+     */
+    public boolean dominates(GainCandidate other) {
+        return settlingTime <= other.settlingTime && overshoot <= other.overshoot && worstSettlingTime <= other.worstSettlingTime
+                && (settlingTime < other.settlingTime || overshoot < other.overshoot || worstSettlingTime < other.worstSettlingTime);
+    }
+
+    public double getKP() {
+        return kP;
+    }
+
+    public double getKI() {
+        return kI;
+    }
+
+    public double getKD() {
+        return kD;
+    }
+
+    /**
+     * @return time until the reading stays within the tolerance at the normal loop rate in seconds
+     */
+    public double getSettlingTime() {
+        return settlingTime;
+    }
+
+    /**
+     * @return how far the reading went past the target at the normal loop rate in percent of the step
+     */
+    public double getOvershoot() {
+        return overshoot;
+    }
+
+    /**
+     * @return settling time when the loop runs slow or with jitter, whichever is worse, in seconds
+     */
+    public double getWorstSettlingTime() {
+        return worstSettlingTime;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "P %.5f I %.7f D %.4f settles %.0f ms overshoot %.1f%% worst loop rate %.0f ms",
+                kP, kI, kD, settlingTime * 1000, overshoot, worstSettlingTime * 1000);
+    }
+}
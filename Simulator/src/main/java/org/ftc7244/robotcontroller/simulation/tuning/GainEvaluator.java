@@ -0,0 +1,116 @@
+package org.ftc7244.robotcontroller.simulation.tuning;
+
+import org.ftc7244.robotcontroller.autonomous.controllers.PIDController;
+import org.ftc7244.robotcontroller.autonomous.controllers.PIDControllerBuilder;
+
+import java.util.Random;
+
+/**
+ * Scores gains by simulating a step of the target against a ${@link FirstOrderPlant}. The controller
+ * is the real ${@link PIDController} built with the same delay and ranges as the one of the driver
+ * so the integral range and output limit are part of the score. Each candidate is run three times,
+ * at the normal loop rate, at half the rate as if every other deadline was missed and with the
+ * period of every cycle jittered by half. The jitter is seeded the same for every candidate so they
+ * are all judged on the same loop.
+ * <p>
+ * An evaluator keeps the state of its simulation so each thread needs its own.
+ */
+public class GainEvaluator {
+
+    /**
+     * Step of the simulated plant in seconds, fine enough to resolve the dead time
+     */
+    private static final double STEP = 0.001;
+    private static final long JITTER_SEED = 7244;
+
+    private final FirstOrderPlant plant;
+    private final PIDController base;
+    private final double step, tolerance, horizon, decay;
+    private final boolean measuredRate;
+    private final double[] delayed;
+    private final Random jitter;
+    private double overshoot;
+
+    /**
+     * @param plant        how the reading responds to power
+     * @param base         the controller of the driver that the delay and ranges are copied from
+     * @param step         how far the target moves
+     * @param tolerance    how close the reading has to stay to count as settled
+     * @param horizon      how long each step is simulated in seconds, anything that does not settle scores this
+     * @param measuredRate if the driver passes the rate of its sensor to the controller
+     */
+    public GainEvaluator(FirstOrderPlant plant, PIDController base, double step, double tolerance, double horizon, boolean measuredRate) {
+        this.plant = plant;
+        this.base = base;
+        this.step = step;
+        this.tolerance = tolerance;
+        this.horizon = horizon;
+        this.measuredRate = measuredRate;
+        this.decay = Math.exp(-STEP / plant.getTimeConstant());
+        this.delayed = new double[(int) Math.round(plant.getDeadTime() / STEP) + 1];
+        this.jitter = new Random();
+    }
+
+    /**
+     * Simulate the candidate and store its scores in it
+     *
+     * @param candidate the gains to score
+     */
+    public void evaluate(GainCandidate candidate) {
+        PIDController controller = new PIDControllerBuilder()
+                .setProportional(candidate.getKP())
+                .setIntegral(candidate.getKI())
+                .setDerivative(candidate.getKD())
+                .setDelay(base.getDelay())
+                .setIntegralRange(base.getIntegralRange())
+                .setOutputRange(base.getOutputRange())
+                .setInputRange(base.getInputRange())
+                .createController();
+        double settlingTime = simulate(controller, 1, false), overshoot = this.overshoot;
+        double slow = simulate(controller, 2, false);
+        jitter.setSeed(JITTER_SEED);
+        double jittered = simulate(controller, 1, true);
+        candidate.setScores(settlingTime, overshoot, Math.max(slow, jittered));
+    }
+
+    /**
+     * @return the settling time in seconds, the overshoot is left in ${@link #overshoot}
+     */
+    private double simulate(PIDController controller, double periodScale, boolean jittered) {
+        controller.reset();
+        controller.setTarget(step);
+        double period = base.getDelay() / 1000 * periodScale, gain = plant.getGain(), direction = Math.signum(step);
+        double reading = 0, rate = 0, output = 0, nextUpdate = 0, settled = 0, peak = 0;
+        int index = 0;
+        for (int i = 0; i < delayed.length; i++) delayed[i] = 0;
+
+        int steps = (int) (horizon / STEP);
+        for (int i = 0; i < steps; i++) {
+            double time = i * STEP;
+            if (time >= nextUpdate) {
+                output = controller.update(reading, measuredRate ? rate : Double.NaN, (long) (time * 1e9));
+                nextUpdate += jittered ? period * (0.5 + jitter.nextDouble()) : period;
+            }
+            //the power only reaches the plant after the dead time
+            double applied = delayed[index];
+            delayed[index] = output;
+            index = (index + 1) % delayed.length;
+
+            //exact response of the lag over the step so short time constants stay stable
+            double previous = rate;
+            rate = gain * applied + (rate - gain * applied) * decay;
+            reading += (previous + rate) / 2 * STEP;
+
+            if (Math.abs(step - reading) > tolerance) settled = time + STEP;
+            peak = Math.max(peak, (reading - step) * direction);
+            if (Math.abs(reading) > 10 * Math.abs(step)) {
+                //unstable, no reason to keep going
+                settled = horizon;
+                peak = Double.POSITIVE_INFINITY;
+                break;
+            }
+        }
+        overshoot = peak / Math.abs(step) * 100;
+        return settled;
+    }
+}
@@ -0,0 +1,149 @@
+package org.ftc7244.robotcontroller.simulation.tuning;
+
+import org.ftc7244.robotcontroller.autonomous.controllers.PIDController;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Searches for PID gains by scoring thousands of candidates against an identified plant on every
+ * core of the computer. Candidates are spread evenly on a log scale around the current gains of the
+ * driver so gains ten times larger or smaller are tried just as often as ones close by. The work is
+ * split with fork/join into batches that each get their own ${@link GainEvaluator}.
+ */
+public class GainOptimizer {
+
+    /**
+     * Candidates one task evaluates before it stops splitting
+     */
+    private static final int BATCH = 32;
+
+    private final FirstOrderPlant plant;
+    private final PIDController base;
+    private final double step, tolerance, horizon;
+    private final boolean measuredRate;
+    private final ForkJoinPool pool;
+
+    /**
+     * @param plant        how the reading responds to power
+     * @param base         the controller of the driver whose gains are the center of the search
+     * @param step         how far the target moves in each simulation
+     * @param tolerance    how close the reading has to stay to count as settled
+     * @param horizon      how long each step is simulated in seconds
+     * @param measuredRate if the driver passes the rate of its sensor to the controller
+     * @param threads      how many threads evaluate candidates
+     */
+    public GainOptimizer(FirstOrderPlant plant, PIDController base, double step, double tolerance, double horizon, boolean measuredRate, int threads) {
+        this.plant = plant;
+        this.base = base;
+        this.step = step;
+        this.tolerance = tolerance;
+        this.horizon = horizon;
+        this.measuredRate = measuredRate;
+        this.pool = new ForkJoinPool(threads);
+    }
+
+    /**
+     * Create candidates with each gain between a tenth and ten times the gain of the driver. A gain
+     * of zero stays zero except for the derivative which is searched around one since the drivers
+     * may not use it yet. The gains of the driver are always the first candidate.
+     *
+     * @param count how many candidates
+     * @param seed  seed of the random gains so a search can be repeated
+     * @return the candidates
+     */
+    public GainCandidate[] createCandidates(int count, long seed) {
+        Random random = new Random(seed);
+        GainCandidate[] candidates = new GainCandidate[count];
+        double kD = base.getKD() == 0 ? 1 : base.getKD();
+        candidates[0] = new GainCandidate(base.getKP(), base.getKI(), base.getKD());
+        for (int i = 1; i < count; i++)
+            candidates[i] = new GainCandidate(spread(base.getKP(), random), spread(base.getKI(), random), spread(kD, random));
+        return candidates;
+    }
+
+    private static double spread(double gain, Random random) {
+        return gain * Math.pow(10, random.nextDouble() * 2 - 1);
+    }
+
+    /**
+     * Score every candidate in parallel, blocking until all of them are done
+     *
+     * @param candidates the candidates to score
+     */
+    public void evaluate(GainCandidate[] candidates) {
+        pool.invoke(new EvaluateTask(candidates, 0, candidates.length));
+    }
+
+    /**
+     * Find the candidates that no other candidate beats in every score
+     *
+     * @param candidates scored candidates
+     * @return the Pareto front sorted by settling time
+     */
+    public static List<GainCandidate> paretoFront(GainCandidate[] candidates) {
+        List<GainCandidate> front = new ArrayList<>();
+        for (GainCandidate candidate : candidates) {
+            if (Double.isInfinite(candidate.getOvershoot())) continue;
+            boolean dominated = false;
+            for (GainCandidate other : candidates) {
+                if (other.dominates(candidate)) {
+                    dominated = true;
+                    break;
+                }
+            }
+            if (!dominated) front.add(candidate);
+        }
+        Collections.sort(front, new Comparator<GainCandidate>() {
+            @Override
+            public int compare(GainCandidate a, GainCandidate b) {
+                return Double.compare(a.getSettlingTime(), b.getSettlingTime());
+            }
+        });
+        return front;
+    }
+
+    /**
+     * Stop the threads of the optimizer
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * @return how many threads evaluate candidates
+     */
+    public int getThreads() {
+        return pool.getParallelism();
+    }
+
+    private class EvaluateTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final GainCandidate[] candidates;
+        private final int from, to;
+
+        EvaluateTask(GainCandidate[] candidates, int from, int to) {
+            this.candidates = candidates;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH) {
+                GainEvaluator evaluator = new GainEvaluator(plant, base, step, tolerance, horizon, measuredRate);
+                for (int i = from; i < to; i++) evaluator.evaluate(candidates[i]);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new EvaluateTask(candidates, from, middle), new EvaluateTask(candidates, middle, to));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package org.ftc7244.robotcontroller.simulation.tuning;
+
+import org.ftc7244.robotcontroller.Debug;
+import org.ftc7244.robotcontroller.Westcoast;
+import org.ftc7244.robotcontroller.autonomous.controllers.Controller;
+import org.ftc7244.robotcontroller.autonomous.controllers.PIDController;
+import org.ftc7244.robotcontroller.autonomous.drivers.GyroscopeDrive;
+import org.ftc7244.robotcontroller.autonomous.drivers.UltrasonicDrive;
+import org.ftc7244.robotcontroller.simulation.replay.Trace;
+
+import java.io.File;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Identifies the drive train from a recording and searches for better gains for one of the drivers
+ * from the command line. The search starts from the gains the driver loads, including the gain
+ * file, and prints every candidate on the Pareto front of settling time, overshoot and settling time
+ * at a bad loop rate along with how fast the candidates were evaluated.
+ * <p>
+ * Usage: GainSearchMain [recording] [driver] [candidates] [seed] where driver is GyroscopeDrive or
+ * UltrasonicDrive, GyroscopeDrive by default.
+ */
+public class GainSearchMain {
+
+    /**
+     * How long each step is simulated in seconds
+     */
+    private static final double HORIZON = 4;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("Usage: GainSearchMain [recording] [driver] [candidates] [seed]");
+            System.exit(2);
+        }
+        String source = args.length > 1 ? args[1] : GyroscopeDrive.class.getSimpleName();
+        int count = args.length > 2 ? Integer.parseInt(args[2]) : 4096;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 7244;
+        Debug.STATUS = false;
+        Debug.GAINS = new File(System.getProperty("simulator.gains", "build/gains.properties"));
+
+        //the drivers are only created to read the gains and ranges of their controllers
+        Controller controller;
+        double step, tolerance;
+        boolean measuredRate;
+        if (source.equals(GyroscopeDrive.class.getSimpleName())) {
+            controller = new GyroscopeDrive(null, null).getController();
+            step = 90;
+            tolerance = 1;
+            measuredRate = true;
+        } else if (source.equals(UltrasonicDrive.class.getSimpleName())) {
+            controller = new UltrasonicDrive(null).getController();
+            step = 1;
+            tolerance = 0.08;
+            measuredRate = false;
+        } else {
+            System.err.println("Unknown driver " + source);
+            System.exit(2);
+            return;
+        }
+        if (!(controller instanceof PIDController)) {
+            System.err.println(source + " does not use a PID");
+            System.exit(2);
+            return;
+        }
+
+        Trace trace = Trace.read(new File(args[0]));
+        SystemIdentification turning = new SystemIdentification(), driving = new SystemIdentification();
+        turning.addTurning(trace, source);
+        driving.addDriving(trace, source);
+        FirstOrderPlant plant = turning.fit(), drive = driving.fit();
+        if (drive != null)
+            System.out.println(String.format(Locale.US, "driving: %s, %.1f in/s at full power", drive, drive.getGain() / Westcoast.COUNTS_PER_INCH));
+        if (plant == null) {
+            System.err.println("Not enough of " + source + " in the recording to identify how it turns");
+            System.exit(1);
+            return;
+        }
+        System.out.println("turning: " + plant);
+
+        GainOptimizer optimizer = new GainOptimizer(plant, (PIDController) controller, step, tolerance, HORIZON, measuredRate,
+                Runtime.getRuntime().availableProcessors());
+        GainCandidate[] candidates = optimizer.createCandidates(count, seed);
+        long start = System.nanoTime();
+        optimizer.evaluate(candidates);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        optimizer.shutdown();
+
+        System.out.println(String.format(Locale.US, "%d candidates in %.2f s (%.0f candidates per second) on %d threads",
+                count, seconds, count / seconds, optimizer.getThreads()));
+        System.out.println("current: " + candidates[0]);
+        List<GainCandidate> front = GainOptimizer.paretoFront(candidates);
+        System.out.println(front.size() + " on the Pareto front:");
+        for (GainCandidate candidate : front) System.out.println("  " + candidate);
+    }
+}
@@ -0,0 +1,167 @@
+package org.ftc7244.robotcontroller.simulation.tuning;
+
+import org.ftc7244.robotcontroller.sensor.RobotState;
+import org.ftc7244.robotcontroller.simulation.replay.Trace;
+
+import java.util.Arrays;
+
+/**
+ * Fits a ${@link FirstOrderPlant} to the cycles of a recording. Each cycle says what power was sent
+ * and the next cycle how the rate of the output changed, so the rate of one cycle is regressed on the
+ * rate of the cycle before and the power sent a few cycles before that:
+ * <pre>
+ *     rate[k + 1] = a * rate[k] + b * power[k - delay]
+ * </pre>
+ * Every delay up to ${@link #MAX_DELAY} is tried and the one that fits best is the dead time. The
+ * lag and gain then follow from a and b. Cycles are only paired within the same control loop so the
+ * gaps between loops do not look like part of the response.
+ */
+public class SystemIdentification {
+
+    /**
+     * Most cycles of dead time that are tried
+     */
+    public static final int MAX_DELAY = 6;
+
+    private double[] power, rate;
+    private boolean[] continues;
+    private double totalTime;
+    private int cycles;
+    private boolean gap;
+
+    public SystemIdentification() {
+        power = new double[1024];
+        rate = new double[1024];
+        continues = new boolean[1024];
+    }
+
+    /**
+     * Add how the reading of a control loop responded to its turning power. The rate the sensor
+     * measured is used when it was recorded, otherwise the readings are differenced.
+     *
+     * @param trace  the recording
+     * @param source which control loop to use such as GyroscopeDrive
+     * @return how many cycles were added
+     */
+    public int addTurning(Trace trace, String source) {
+        int added = 0;
+        for (int cycle = 0; cycle < trace.getCycles(); cycle = trace.getSegmentEnd(cycle)) {
+            if (!trace.getSource(cycle).equals(source)) continue;
+            int end = trace.getSegmentEnd(cycle);
+            for (int i = cycle + 1; i < end; i++) {
+                double dt = (trace.getStateTimestamp(i) - trace.getStateTimestamp(i - 1)) / 1e9;
+                double measured = trace.getRate(i);
+                if (Double.isNaN(measured)) measured = (trace.getReading(i) - trace.getReading(i - 1)) / dt;
+                add((trace.getLeftPower(i) - trace.getRightPower(i)) / 2, measured, dt, i > cycle + 1);
+                added++;
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Add how the encoders of a control loop responded to its driving power
+     *
+     * @param trace  the recording
+     * @param source which control loop to use such as GyroscopeDrive
+     * @return how many cycles were added
+     */
+    public int addDriving(Trace trace, String source) {
+        int added = 0;
+        RobotState previous = new RobotState(), state = new RobotState();
+        for (int cycle = 0; cycle < trace.getCycles(); cycle = trace.getSegmentEnd(cycle)) {
+            if (!trace.getSource(cycle).equals(source)) continue;
+            int end = trace.getSegmentEnd(cycle);
+            trace.readState(cycle, previous);
+            for (int i = cycle + 1; i < end; i++) {
+                trace.readState(i, state);
+                double dt = (state.getTimestamp() - previous.getTimestamp()) / 1e9;
+                add((trace.getLeftPower(i) + trace.getRightPower(i)) / 2, (state.getDriveAverage() - previous.getDriveAverage()) / dt, dt, i > cycle + 1);
+                RobotState swap = previous;
+                previous = state;
+                state = swap;
+                added++;
+            }
+        }
+        return added;
+    }
+
+    private void add(double power, double rate, double dt, boolean continues) {
+        if (Double.isNaN(rate) || Double.isInfinite(rate) || dt <= 0) {
+            //the next cycle cannot be paired with the one before this
+            gap = true;
+            return;
+        }
+        if (cycles == this.power.length) {
+            this.power = Arrays.copyOf(this.power, cycles * 2);
+            this.rate = Arrays.copyOf(this.rate, cycles * 2);
+            this.continues = Arrays.copyOf(this.continues, cycles * 2);
+        }
+        this.power[cycles] = power;
+        this.rate[cycles] = rate;
+        this.continues[cycles] = continues && !gap && cycles > 0;
+        gap = false;
+        totalTime += dt;
+        cycles++;
+    }
+
+    /**
+     * Fit the plant to every cycle added so far
+     *
+     * @return the plant that fits best or null if there are not enough cycles or none of them respond
+     */
+    public FirstOrderPlant fit() {
+        if (cycles < 3 * MAX_DELAY) return null;
+        double period = totalTime / cycles;
+        double bestError = Double.POSITIVE_INFINITY, bestA = 0, bestB = 0, total = 0, totalSquares = 0;
+        int bestDelay = -1, bestSamples = 0;
+        for (int delay = 0; delay <= MAX_DELAY; delay++) {
+            double sxx = 0, sxu = 0, suu = 0, sxy = 0, suy = 0, syy = 0, sy = 0;
+            int samples = 0;
+            for (int k = 0; k + 1 < cycles; k++) {
+                //the next cycle, this one and the one the power was sent in all have to be in the same loop
+                if (!continuous(k - delay, k + 1)) continue;
+                double x = rate[k], u = power[k - delay], y = rate[k + 1];
+                sxx += x * x;
+                sxu += x * u;
+                suu += u * u;
+                sxy += x * y;
+                suy += u * y;
+                syy += y * y;
+                sy += y;
+                samples++;
+            }
+            double determinant = sxx * suu - sxu * sxu;
+            if (samples < 3 || determinant == 0) continue;
+            double a = (sxy * suu - suy * sxu) / determinant, b = (suy * sxx - sxy * sxu) / determinant;
+            //sum of the squared residuals expanded so it does not need another pass
+            double error = syy - 2 * (a * sxy + b * suy) + a * a * sxx + 2 * a * b * sxu + b * b * suu;
+            if (error / samples < bestError) {
+                bestError = error / samples;
+                bestA = a;
+                bestB = b;
+                bestDelay = delay;
+                bestSamples = samples;
+                total = sy;
+                totalSquares = syy;
+            }
+        }
+        if (bestDelay == -1 || bestA <= 0 || bestA >= 1) return null;
+        double mean = total / bestSamples, variance = totalSquares / bestSamples - mean * mean;
+        double timeConstant = -period / Math.log(bestA), gain = bestB / (1 - bestA);
+        return new FirstOrderPlant(gain, timeConstant, bestDelay * period, variance <= 0 ? 0 : 1 - bestError / variance, bestSamples);
+    }
+
+    private boolean continuous(int from, int to) {
+        if (from < 0) return false;
+        for (int i = from + 1; i <= to; i++) if (!continues[i]) return false;
+        return true;
+    }
+
+    /**
+     * @return average time between the cycles that were added in seconds
+     */
+    public double getPeriod() {
+        return cycles == 0 ? 0 : totalTime / cycles;
+    }
+}
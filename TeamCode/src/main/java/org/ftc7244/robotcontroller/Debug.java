@@ -1,9 +1,23 @@
 package org.ftc7244.robotcontroller;
 
+import java.io.File;
+
 /**
  * Created by FTC 7244 on 2/10/2017.
  */
 
 public class Debug {
     public static boolean STATUS = true;
+    /**
+     * Record every cycle of the autonomous control loops to a binary file
+     */
+    public static boolean RECORD = true;
+    /**
+     * Folder the recordings are written to, the recordings folder inside the FIRST folder when null
+     */
+    public static File RECORDINGS = null;
+    /**
+     * File the tuned gains are loaded from and saved to, gains.properties inside the FIRST folder when null
+     */
+    public static File GAINS = null;
 }
@@ -5,7 +5,6 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
 import com.kauailabs.navx.ftc.AHRS;
-import com.qualcomm.hardware.hitechnic.HiTechnicNxtLightSensor;
 import com.qualcomm.robotcore.eventloop.opmode.OpMode;
 import com.qualcomm.robotcore.hardware.AnalogInput;
 import com.qualcomm.robotcore.hardware.ColorSensor;
@@ -15,11 +14,21 @@ import com.qualcomm.robotcore.hardware.DeviceInterfaceModule;
 import com.qualcomm.robotcore.hardware.HardwareDevice;
 import com.qualcomm.robotcore.hardware.HardwareMap;
 import com.qualcomm.robotcore.hardware.I2cDevice;
+import com.qualcomm.robotcore.hardware.LightSensor;
 import com.qualcomm.robotcore.hardware.Servo;
-import com.qualcomm.robotcore.util.ElapsedTime;
 import com.qualcomm.robotcore.util.RobotLog;
 
+import org.ftc7244.robotcontroller.actions.Action;
+import org.ftc7244.robotcontroller.actions.ActionFuture;
+import org.ftc7244.robotcontroller.actions.ActionScheduler;
+import org.ftc7244.robotcontroller.actions.PushBeaconAction;
+import org.ftc7244.robotcontroller.actions.SequentialAction;
+import org.ftc7244.robotcontroller.actions.ShootAction;
+import org.ftc7244.robotcontroller.autonomous.Clock;
 import org.ftc7244.robotcontroller.autonomous.Status;
+import org.ftc7244.robotcontroller.sensor.Encoder;
+import org.ftc7244.robotcontroller.sensor.RobotState;
+import org.ftc7244.robotcontroller.sensor.SensorAcquisition;
 import org.ftc7244.robotcontroller.sensor.SickUltrasonic;
 
 import java.util.Map;
@@ -28,6 +37,13 @@ public class Westcoast {
 
     public static final byte NAVX_DEVICE_UPDATE_RATE_HZ = (byte) 100;
     public final static double COUNTS_PER_INCH = 1120 / (Math.PI * 3);
+    public final static double SENSOR_UPDATE_RATE_HZ = 100;
+    public final static double ACTION_UPDATE_RATE_HZ = 100;
+    //estimated limits of the drive train at full power in inches and degrees per second, used by the motion profiles.
+    //to measure them record a few full power drives and turns with the ControlRecorder and run GainSearchMain from
+    //the simulator on the recording, the top speed is the gain of the fit and the acceleration the gain over its time constant
+    public final static double MAX_VELOCITY = 25, MAX_ACCELERATION = 250;
+    public final static double MAX_ANGULAR_VELOCITY = 164, MAX_ANGULAR_ACCELERATION = 1640;
 
     @Nullable
     private DcMotor driveLeft, driveRight, launcher, intake, spoolerTop, spoolerBottom, lights;
@@ -39,18 +55,25 @@ public class Westcoast {
     @Nullable
     private ColorSensor beaconSensor;
     @Nullable
-    private HiTechnicNxtLightSensor leadingLight, trailingLight;
+    private LightSensor leadingLight, trailingLight;
     @Nullable
     private SickUltrasonic leadingUltrasonic, trailingUltrasonic;
+    @Nullable
+    private Encoder driveLeftEncoder, driveRightEncoder;
 
     private int blueOffset, redOffset;
+    private SensorAcquisition sensors;
+    private ActionScheduler actions;
 
     public Westcoast(OpMode opMode) {
         this.opMode = opMode;
+        this.actions = new ActionScheduler(ACTION_UPDATE_RATE_HZ);
     }
 
     /**
-     * Waits for all the motors to have zero position and if it is not zero tell it to reset
+     * Waits for all the motors to have zero position and if it is not zero tell it to reset. This
+     * switches the mode of the motors and can take hundreds of milliseconds so during an autonomous
+     * use ${@link #resetDriveEncoders()} instead.
      *
      * @param motors all the motors to reset
      */
@@ -90,8 +113,17 @@ public class Westcoast {
      * @throws InterruptedException if the code fails to terminate before stop requested
      */
     public static void sleep(long ms) throws InterruptedException {
-        long target = System.currentTimeMillis() + ms;
-        while (target > System.currentTimeMillis() && !Status.isStopRequested()) Thread.sleep(1);
+        if (!Status.isStopRequested()) Status.getToken().await(ms);
+    }
+
+    /**
+     * Pause until a point in time. Like ${@link #sleep(long)} this wakes as soon as stop is requested.
+     *
+     * @param deadline the time to wait for in ${@link Clock#millis()}
+     * @throws InterruptedException if the code fails to terminate before stop requested
+     */
+    public static void sleepUntil(long deadline) throws InterruptedException {
+        if (!Status.isStopRequested()) Status.getToken().awaitDeadline(deadline);
     }
 
     /**
@@ -111,14 +143,19 @@ public class Westcoast {
         this.spoolerTop = getOrNull(map.dcMotor, "spoolerTop");
         this.spoolerBottom = getOrNull(map.dcMotor, "spoolerBottom");
         this.carriageRelease = getOrNull(map.servo, "carriage_release");
-        this.leadingUltrasonic = new SickUltrasonic(getOrNull(map.analogInput, "leading_ultrasonic"));
-        this.trailingUltrasonic = new SickUltrasonic(getOrNull(map.analogInput, "trailing_ultrasonic"));
-        this.leadingLight = (HiTechnicNxtLightSensor) getOrNull(map.lightSensor, "leading_light");
-        this.trailingLight = (HiTechnicNxtLightSensor) getOrNull(map.lightSensor, "trailing_light");
+        this.leadingUltrasonic = createUltrasonic(getOrNull(map.analogInput, "leading_ultrasonic"));
+        this.trailingUltrasonic = createUltrasonic(getOrNull(map.analogInput, "trailing_ultrasonic"));
+        this.leadingLight = getOrNull(map.lightSensor, "leading_light");
+        this.trailingLight = getOrNull(map.lightSensor, "trailing_light");
         this.lights = getOrNull(map.dcMotor, "lights");
+        this.driveLeftEncoder = driveLeft == null ? null : new Encoder(driveLeft);
+        this.driveRightEncoder = driveRight == null ? null : new Encoder(driveRight);
 
         //Set the default direction for all the hardware and also initialize default positions
         if (driveLeft != null) driveLeft.setDirection(DcMotorSimple.Direction.REVERSE);
+        //the drive motors regulate their speed and never switch modes during an autonomous
+        if (driveLeft != null) driveLeft.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
+        if (driveRight != null) driveRight.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
         if (launcher != null) launcher.setDirection(DcMotorSimple.Direction.REVERSE);
         if (beaconPusher != null) beaconPusher.setPosition(1);
         if (launcherDoor != null) setDoorState(DoorState.CLOSED);
@@ -132,6 +169,12 @@ public class Westcoast {
             redOffset = 0;
             blueOffset = 0;
         }
+        this.sensors = new SensorAcquisition(this, SENSOR_UPDATE_RATE_HZ);
+    }
+
+    @Nullable
+    private static SickUltrasonic createUltrasonic(@Nullable AnalogInput input) {
+        return input == null ? null : new SickUltrasonic(input);
     }
 
     /**
@@ -164,10 +207,21 @@ public class Westcoast {
      * @throws InterruptedException if the code fails to terminate before stop requested
      */
     public void shootLoop(int count, long delay) throws InterruptedException {
-        for (int i = 0; i < count; i++) {
-            if (Status.isStopRequested()) break;
-            this.shoot(delay);
-        }
+        shootLoopAsync(count, delay).await();
+    }
+
+    /**
+     * Same as ${@link #shootLoop(int, long)} but returns immediately so the robot can keep driving
+     * while it shoots.
+     *
+     * @param count the amount of times it will shoot
+     * @param delay the time in milliseconds to wait before each shoot
+     * @return the future of the shots
+     */
+    public ActionFuture shootLoopAsync(int count, long delay) {
+        Action[] shots = new Action[count];
+        for (int i = 0; i < count; i++) shots[i] = new ShootAction(this, delay);
+        return actions.schedule(new SequentialAction(shots));
     }
 
     /**
@@ -175,38 +229,23 @@ public class Westcoast {
      * shooting from not completing. First it will spin no more than 1000 milliseconds or until the
      * limit switch is triggered. Then if the shooter will continue to run for 200 more milliseconds
      * and lift the arm up for the remaining 500 milliseconds to load another ball. If anything fails
-     * it will be reset to its normal positions and turned off.
+     * it will be reset to its normal positions and turned off. See ${@link ShootAction}.
      *
      * @param delay the time in milliseconds to wait before each shot
      * @throws InterruptedException if the code fails to terminate before stop requested
      */
     public void shoot(long delay) throws InterruptedException {
-        sleep(delay);
-
-        ElapsedTime timer = new ElapsedTime();
-        boolean failed = false;
-        //Spin the launcher
-        do {
-            if (timer.milliseconds() >= 1000 || Status.isStopRequested()) failed = true;
-            launcher.setPower(1);
-        } while (Math.round(launcherLimit.getVoltage()) != 0 && !failed);
-
-        //If the code hasn't failed allow the arm to lift or reset spinner
-        if (!failed) {
-            timer.reset();
-            while (timer.milliseconds() <= 500 && !Status.isStopRequested()) {
-                if (Status.isStopRequested()) break;
-                //Stop the spinner after a delay
-                if (timer.milliseconds() > 200) launcher.setPower(0);
-
-                //lift the arm
-                setDoorState(DoorState.OPEN);
-            }
-            //reset the arm to staring position
-            setDoorState(DoorState.CLOSED);
-        } else {
-            launcher.setPower(0);
-        }
+        shootAsync(delay).await();
+    }
+
+    /**
+     * Same as ${@link #shoot(long)} but returns immediately
+     *
+     * @param delay the time in milliseconds to wait before the shot
+     * @return the future of the shot
+     */
+    public ActionFuture shootAsync(long delay) {
+        return actions.schedule(new ShootAction(this, delay));
     }
 
     /**
@@ -232,15 +271,22 @@ public class Westcoast {
     }
 
     /**
-     * Waits a set amount of time to put the beacon arm out and the same amount of time to pull it
-     * back in. This takes a total of 1.5 seconds.
+     * Puts the beacon arm out and waits 750 milliseconds before pulling it back in. See
+     * ${@link PushBeaconAction}.
      *
      * @throws InterruptedException if the code fails to terminate before stop requested
      */
     public void pushBeacon() throws InterruptedException {
-        beaconPusher.setPosition(0);
-        sleep(750);
-        beaconPusher.setPosition(1);
+        pushBeaconAsync().await();
+    }
+
+    /**
+     * Same as ${@link #pushBeacon()} but returns immediately
+     *
+     * @return the future of the push
+     */
+    public ActionFuture pushBeaconAsync() {
+        return actions.schedule(new PushBeaconAction(this));
     }
 
     /**
@@ -267,6 +313,15 @@ public class Westcoast {
         spoolerBottom.setPower(power);
     }
 
+    /**
+     * Zero both drive encoders in software. This is instant and leaves the motors alone, the next
+     * ${@link RobotState} polled after this call reads from the new zero.
+     */
+    public void resetDriveEncoders() {
+        if (driveLeftEncoder != null) driveLeftEncoder.reset();
+        if (driveRightEncoder != null) driveRightEncoder.reset();
+    }
+
     public int getSpoolerTicks() {
         return (spoolerBottom.getCurrentPosition() + spoolerTop.getCurrentPosition()) / 2;
     }
@@ -282,6 +337,16 @@ public class Westcoast {
         return this.driveRight;
     }
 
+    @Nullable
+    public Encoder getDriveLeftEncoder() {
+        return driveLeftEncoder;
+    }
+
+    @Nullable
+    public Encoder getDriveRightEncoder() {
+        return driveRightEncoder;
+    }
+
     @Nullable
     public DcMotor getLauncher() {
         return this.launcher;
@@ -328,12 +393,12 @@ public class Westcoast {
     }
 
     @Nullable
-    public HiTechnicNxtLightSensor getLeadingLight() {
+    public LightSensor getLeadingLight() {
         return this.leadingLight;
     }
 
     @Nullable
-    public HiTechnicNxtLightSensor getTrailingLight() {
+    public LightSensor getTrailingLight() {
         return this.trailingLight;
     }
 
@@ -352,6 +417,25 @@ public class Westcoast {
         return lights;
     }
 
+    /**
+     * The sensor readings the control loops use, polled in the background once
+     * ${@link SensorAcquisition#start()} is called. This is only available after ${@link #init()}.
+     *
+     * @return the acquisition of the robot's sensors
+     */
+    public SensorAcquisition getSensors() {
+        return sensors;
+    }
+
+    /**
+     * Runs mechanism actions such as shooting in the background
+     *
+     * @return the scheduler of the robot
+     */
+    public ActionScheduler getActions() {
+        return actions;
+    }
+
     public int getBlueOffset() {
         return blueOffset;
     }
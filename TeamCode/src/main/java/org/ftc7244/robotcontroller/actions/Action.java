@@ -0,0 +1,34 @@
+package org.ftc7244.robotcontroller.actions;
+
+/**
+ * A mechanism routine written as a state machine so it never blocks. The ${@link ActionScheduler}
+ * calls ${@link #update(long)} every cycle on its own thread until it reports that it is done, which
+ * lets an action such as shooting run while the autonomous thread is still driving.
+ */
+public abstract class Action {
+
+    /**
+     * Called once on the scheduler thread right before the first ${@link #update(long)}
+     *
+     * @param timestamp the current time in milliseconds, only useful for measuring durations
+     */
+    public void start(long timestamp) {
+    }
+
+    /**
+     * Advance the action without blocking
+     *
+     * @param timestamp the current time in milliseconds, only useful for measuring durations
+     * @return if the action is complete
+     */
+    public abstract boolean update(long timestamp);
+
+    /**
+     * Called once after the action completes, is cancelled or throws. Anything the action turned on
+     * should be put back in a safe state here.
+     *
+     * @param cancelled if the action did not complete on its own
+     */
+    public void end(boolean cancelled) {
+    }
+}
@@ -0,0 +1,138 @@
+package org.ftc7244.robotcontroller.actions;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.ftc7244.robotcontroller.autonomous.CancellationToken;
+import org.ftc7244.robotcontroller.autonomous.Status;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The pending result of an ${@link Action} given to the ${@link ActionScheduler}. It can be waited
+ * on, cancelled or given callbacks that run on the scheduler thread once the action ends. Each one
+ * holds its own ${@link CancellationToken} under the token of the autonomous so stopping the robot
+ * cancels every action at once.
+ */
+public class ActionFuture {
+
+    private final Action action;
+    private final List<Callback> callbacks;
+    private final CancellationToken token;
+    private volatile boolean done, cancelled;
+    private volatile Throwable failure;
+
+    ActionFuture(@NonNull Action action, @NonNull CancellationToken token) {
+        this.action = action;
+        this.token = token;
+        this.callbacks = new ArrayList<>();
+    }
+
+    /**
+     * Ask the scheduler to stop the action. It is ended on the next cycle of the scheduler.
+     */
+    public void cancel() {
+        token.cancel();
+    }
+
+    /**
+     * Block until the action ends. If the action is cancelled or stop is requested this returns
+     * straight away without waiting for the scheduler to end it.
+     *
+     * @return if the action completed on its own
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public boolean await() throws InterruptedException {
+        if (Status.isStopRequested()) cancel();
+        token.await();
+        return done && !cancelled && failure == null;
+    }
+
+    /**
+     * Add a callback to run on the scheduler thread once the action ends. If it already ended the
+     * callback runs immediately on this thread.
+     *
+     * @param callback what to run
+     * @return this future to chain calls
+     */
+    public ActionFuture onComplete(@NonNull Callback callback) {
+        synchronized (this) {
+            if (!done) {
+                callbacks.add(callback);
+                return this;
+            }
+        }
+        callback.onComplete(this);
+        return this;
+    }
+
+    /**
+     * Mark the action as ended and wake anything waiting on it
+     *
+     * @param cancelled if the action did not complete on its own
+     * @param failure   what the action threw if anything
+     */
+    void complete(boolean cancelled, @Nullable Throwable failure) {
+        Callback[] callbacks;
+        synchronized (this) {
+            this.cancelled = cancelled;
+            this.failure = failure;
+            this.done = true;
+            callbacks = this.callbacks.toArray(new Callback[this.callbacks.size()]);
+            this.callbacks.clear();
+        }
+        //the action is over so release anything waiting on its token
+        token.cancel();
+        for (Callback callback : callbacks) callback.onComplete(this);
+    }
+
+    boolean isCancelRequested() {
+        return token.isCancelled();
+    }
+
+    /**
+     * The token is a child of the one from ${@link Status#getToken()} and is cancelled when the action
+     * is cancelled, when it ends or when stop is requested.
+     *
+     * @return the token of the action
+     */
+    @NonNull
+    public CancellationToken getToken() {
+        return token;
+    }
+
+    @NonNull
+    public Action getAction() {
+        return action;
+    }
+
+    /**
+     * @return if the action has ended for any reason
+     */
+    public boolean isDone() {
+        return done;
+    }
+
+    /**
+     * @return if the action was cancelled before it completed
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @return what the action threw or null if it did not throw
+     */
+    @Nullable
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    public interface Callback {
+        /**
+         * @param future the future of the action that ended
+         */
+        void onComplete(ActionFuture future);
+    }
+}
@@ -0,0 +1,135 @@
+package org.ftc7244.robotcontroller.actions;
+
+import android.support.annotation.NonNull;
+
+import com.qualcomm.robotcore.util.RobotLog;
+
+import org.ftc7244.robotcontroller.autonomous.Clock;
+import org.ftc7244.robotcontroller.autonomous.Status;
+import org.ftc7244.robotcontroller.autonomous.controllers.FixedRateScheduler;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Runs every ${@link Action} on one background thread at a fixed rate. Actions can be scheduled from
+ * any thread and the thread starts itself when there is work. It ends once stop is requested or
+ * ${@link #stop()} is called and cancels whatever was still running.
+ */
+public class ActionScheduler {
+
+    private final ConcurrentLinkedQueue<ActionFuture> pending;
+    private final List<ActionFuture> active;
+    private final FixedRateScheduler scheduler;
+    private volatile Thread thread;
+
+    /**
+     * @param rate how many times a second to update the actions
+     */
+    public ActionScheduler(double rate) {
+        this.pending = new ConcurrentLinkedQueue<>();
+        this.active = new ArrayList<>();
+        this.scheduler = new FixedRateScheduler(1000 / rate);
+    }
+
+    /**
+     * Begin running an action on the next cycle of the scheduler
+     *
+     * @param action the action to run
+     * @return the future to wait on or cancel the action
+     */
+    @NonNull
+    public ActionFuture schedule(@NonNull Action action) {
+        ActionFuture future = new ActionFuture(action, Status.getToken().newChild());
+        pending.add(future);
+        start();
+        return future;
+    }
+
+    /**
+     * Cancel every action that has been scheduled
+     */
+    public void cancelAll() {
+        for (ActionFuture future : pending) future.cancel();
+        synchronized (active) {
+            for (ActionFuture future : active) future.cancel();
+        }
+    }
+
+    /**
+     * Cancel every action and end the thread once it has cleaned up
+     */
+    public synchronized void stop() {
+        cancelAll();
+        thread = null;
+    }
+
+    private synchronized void start() {
+        if (thread != null) return;
+        final Clock clock = Clock.getDefault();
+        thread = clock.newThread(new Runnable() {
+            @Override
+            public void run() {
+                Thread current = Thread.currentThread();
+                scheduler.start();
+                while (thread == current && !Status.isStopRequested()) {
+                    scheduler.awaitNextCycle();
+                    update(clock.millis(), false);
+                }
+                synchronized (ActionScheduler.this) {
+                    if (thread == current) thread = null;
+                    //nothing will update the actions anymore so end them unless a new thread took over
+                    if (thread == null) update(clock.millis(), true);
+                }
+            }
+        }, "ActionScheduler");
+        thread.start();
+    }
+
+    private void update(long timestamp, boolean cancel) {
+        synchronized (active) {
+            ActionFuture future;
+            while ((future = pending.poll()) != null) {
+                if (future.isCancelRequested() || cancel) {
+                    future.complete(true, null);
+                    continue;
+                }
+                try {
+                    future.getAction().start(timestamp);
+                    active.add(future);
+                } catch (RuntimeException e) {
+                    fail(future, e);
+                }
+            }
+
+            Iterator<ActionFuture> iterator = active.iterator();
+            while (iterator.hasNext()) {
+                future = iterator.next();
+                try {
+                    if (cancel || future.isCancelRequested()) {
+                        future.getAction().end(true);
+                        future.complete(true, null);
+                    } else if (future.getAction().update(timestamp)) {
+                        future.getAction().end(false);
+                        future.complete(false, null);
+                    } else continue;
+                } catch (RuntimeException e) {
+                    fail(future, e);
+                }
+                iterator.remove();
+            }
+        }
+    }
+
+    private void fail(ActionFuture future, RuntimeException e) {
+        RobotLog.e("Action " + future.getAction().getClass().getSimpleName() + " failed: " + e.getMessage());
+        try {
+            future.getAction().end(true);
+        } catch (RuntimeException ignored) {
+            //the action is already being ended because of a failure
+        }
+        future.complete(true, e);
+    }
+}
@@ -0,0 +1,36 @@
+package org.ftc7244.robotcontroller.actions;
+
+import android.support.annotation.NonNull;
+
+import org.ftc7244.robotcontroller.Westcoast;
+
+/**
+ * Puts the beacon arm out and pulls it back in after 750 milliseconds
+ */
+public class PushBeaconAction extends Action {
+
+    private static final long EXTEND = 750;
+
+    private final Westcoast robot;
+    private long start;
+
+    public PushBeaconAction(@NonNull Westcoast robot) {
+        this.robot = robot;
+    }
+
+    @Override
+    public void start(long timestamp) {
+        start = timestamp;
+        robot.getBeaconPusher().setPosition(0);
+    }
+
+    @Override
+    public boolean update(long timestamp) {
+        return timestamp - start >= EXTEND;
+    }
+
+    @Override
+    public void end(boolean cancelled) {
+        robot.getBeaconPusher().setPosition(1);
+    }
+}
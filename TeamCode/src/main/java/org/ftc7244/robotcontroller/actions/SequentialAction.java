@@ -0,0 +1,37 @@
+package org.ftc7244.robotcontroller.actions;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Runs several actions one after another as a single action. The next action starts in the same
+ * cycle the previous one completes.
+ */
+public class SequentialAction extends Action {
+
+    private final Action[] actions;
+    private int current;
+
+    public SequentialAction(@NonNull Action... actions) {
+        this.actions = actions;
+    }
+
+    @Override
+    public void start(long timestamp) {
+        current = 0;
+        if (actions.length > 0) actions[0].start(timestamp);
+    }
+
+    @Override
+    public boolean update(long timestamp) {
+        while (current < actions.length && actions[current].update(timestamp)) {
+            actions[current].end(false);
+            if (++current < actions.length) actions[current].start(timestamp);
+        }
+        return current >= actions.length;
+    }
+
+    @Override
+    public void end(boolean cancelled) {
+        if (cancelled && current < actions.length) actions[current].end(true);
+    }
+}
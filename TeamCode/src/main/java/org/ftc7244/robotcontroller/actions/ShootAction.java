@@ -0,0 +1,89 @@
+package org.ftc7244.robotcontroller.actions;
+
+import android.support.annotation.NonNull;
+
+import com.qualcomm.robotcore.hardware.AnalogInput;
+import com.qualcomm.robotcore.hardware.DcMotor;
+
+import org.ftc7244.robotcontroller.Westcoast;
+
+/**
+ * Shoots a single ball the same way ${@link Westcoast#shoot(long)} always has, but as a state machine.
+ * After the delay the launcher spins for no more than 1000 milliseconds or until the limit switch is
+ * triggered. Then the launcher runs for 200 more milliseconds while the door lifts for a total of
+ * 500 milliseconds to load another ball. If the limit is never reached the launcher is turned off.
+ */
+public class ShootAction extends Action {
+
+    private static final long SPIN_TIMEOUT = 1000, LAUNCHER_RUN = 200, DOOR_OPEN = 500;
+
+    private final Westcoast robot;
+    private final long delay;
+    private Stage stage;
+    private long stageStart;
+
+    /**
+     * @param robot the robot with the launcher
+     * @param delay the time in milliseconds to wait before shooting
+     */
+    public ShootAction(@NonNull Westcoast robot, long delay) {
+        this.robot = robot;
+        this.delay = delay;
+    }
+
+    @Override
+    public void start(long timestamp) {
+        setStage(Stage.DELAY, timestamp);
+    }
+
+    @Override
+    public boolean update(long timestamp) {
+        DcMotor launcher = robot.getLauncher();
+        AnalogInput limit = robot.getLauncherLimit();
+        long elapsed = timestamp - stageStart;
+        switch (stage) {
+            case DELAY:
+                if (elapsed < delay) return false;
+                setStage(Stage.SPIN, timestamp);
+                launcher.setPower(1);
+                return false;
+            case SPIN:
+                if (Math.round(limit.getVoltage()) != 0) {
+                    if (elapsed < SPIN_TIMEOUT) return false;
+                    //the limit switch was never reached so give up on this shot
+                    launcher.setPower(0);
+                    return true;
+                }
+                setStage(Stage.LOAD, timestamp);
+                robot.setDoorState(Westcoast.DoorState.OPEN);
+                return false;
+            case LOAD:
+                //stop the spinner after a delay
+                if (elapsed > LAUNCHER_RUN) launcher.setPower(0);
+                if (elapsed <= DOOR_OPEN) return false;
+                //reset the arm to staring position
+                robot.setDoorState(Westcoast.DoorState.CLOSED);
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    @Override
+    public void end(boolean cancelled) {
+        if (!cancelled) return;
+        robot.getLauncher().setPower(0);
+        robot.setDoorState(Westcoast.DoorState.CLOSED);
+    }
+
+    private void setStage(Stage stage, long timestamp) {
+        this.stage = stage;
+        this.stageStart = timestamp;
+    }
+
+    private enum Stage {
+        DELAY,
+        SPIN,
+        LOAD
+    }
+}
@@ -0,0 +1,145 @@
+package org.ftc7244.robotcontroller.autonomous;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signals that some work should stop. Instead of polling a flag every millisecond anything that
+ * waits on a token is parked until either its timeout passes or the token is cancelled, at which
+ * point it wakes immediately. Tokens form a tree through ${@link #newChild()} so cancelling one
+ * cancels everything below it while the parent is left running, such as stopping the autonomous
+ * cancelling every action it scheduled.
+ */
+public class CancellationToken {
+
+    @Nullable
+    private final CancellationToken parent;
+    private final CountDownLatch latch;
+    private List<CancellationToken> children;
+    private volatile boolean cancelled;
+
+    /**
+     * Create a root token that is only cancelled by ${@link #cancel()}
+     */
+    public CancellationToken() {
+        this(null);
+    }
+
+    private CancellationToken(@Nullable CancellationToken parent) {
+        this.parent = parent;
+        this.latch = new CountDownLatch(1);
+        this.children = new ArrayList<>();
+    }
+
+    /**
+     * Create a token that is cancelled along with this one. Cancelling the child does not affect
+     * this token. If this is already cancelled the child starts out cancelled.
+     *
+     * @return the new child token
+     */
+    @NonNull
+    public CancellationToken newChild() {
+        CancellationToken child = new CancellationToken(this);
+        synchronized (this) {
+            if (!cancelled) {
+                children.add(child);
+                return child;
+            }
+        }
+        child.cancel();
+        return child;
+    }
+
+    /**
+     * Cancel the token and every child of it then wake anything waiting on them. A cancelled token
+     * also detaches from its parent so finished children are not kept around.
+     */
+    public void cancel() {
+        List<CancellationToken> children;
+        synchronized (this) {
+            if (cancelled) return;
+            cancelled = true;
+            children = this.children;
+            this.children = null;
+        }
+        latch.countDown();
+        Clock.getDefault().cancelled(this);
+        for (CancellationToken child : children) child.cancel();
+        if (parent != null) parent.remove(this);
+    }
+
+    private synchronized void remove(CancellationToken child) {
+        if (children != null) children.remove(child);
+    }
+
+    /**
+     * @return if the token or any of its parents has been cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Block until the token is cancelled
+     *
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public void await() throws InterruptedException {
+        awaitNanos(Long.MAX_VALUE);
+    }
+
+    /**
+     * Block for a duration or until the token is cancelled, whichever comes first
+     *
+     * @param ms the longest to wait in milliseconds
+     * @return if the token was cancelled
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public boolean await(long ms) throws InterruptedException {
+        return awaitNanos(ms * 1000000);
+    }
+
+    /**
+     * Block for a duration or until the token is cancelled, whichever comes first. The duration is
+     * measured by ${@link Clock#getDefault()} which on the robot has the same precision as
+     * ${@link java.util.concurrent.locks.LockSupport#parkNanos(long)} so it can pace control loops.
+     *
+     * @param nanos the longest to wait in nanoseconds, ${@link Long#MAX_VALUE} to wait until cancelled
+     * @return if the token was cancelled
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public boolean awaitNanos(long nanos) throws InterruptedException {
+        return cancelled || (nanos > 0 && Clock.getDefault().await(this, nanos));
+    }
+
+    /**
+     * Block until a point in time or until the token is cancelled, whichever comes first
+     *
+     * @param deadline the time to wait for in ${@link Clock#millis()}
+     * @return if the token was cancelled
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public boolean awaitDeadline(long deadline) throws InterruptedException {
+        return await(deadline - Clock.getDefault().millis());
+    }
+
+    /**
+     * Park the thread on the token for a duration of real time, used by ${@link MonotonicClock}
+     *
+     * @param nanos the longest to wait in nanoseconds, ${@link Long#MAX_VALUE} to wait until cancelled
+     * @return if the token was cancelled
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    boolean park(long nanos) throws InterruptedException {
+        if (nanos == Long.MAX_VALUE) {
+            latch.await();
+            return true;
+        }
+        return latch.await(nanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,84 @@
+package org.ftc7244.robotcontroller.autonomous;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Source of time for everything that paces, waits or timestamps in the control code. Nothing reads
+ * ${@link System#nanoTime()} or ${@link System#currentTimeMillis()} directly, it asks the default
+ * clock instead and every wait on a ${@link CancellationToken} is measured by it. On the robot this is
+ * a ${@link MonotonicClock} with nanosecond resolution that never jumps, offline it can be replaced
+ * with a ${@link VirtualClock} that only moves when it is stepped so a whole autonomous runs as fast as
+ * the CPU allows.
+ * <p>
+ * The default has to be set before the robot is created, a thread that waits on one clock is never
+ * woken by another.
+ */
+public abstract class Clock {
+
+    private static volatile Clock defaultClock = new MonotonicClock();
+
+    /**
+     * @return the clock every part of the control code uses
+     */
+    @NonNull
+    public static Clock getDefault() {
+        return defaultClock;
+    }
+
+    /**
+     * Replace the clock every part of the control code uses
+     *
+     * @param clock the new clock
+     */
+    public static void setDefault(@NonNull Clock clock) {
+        defaultClock = clock;
+    }
+
+    /**
+     * Current time of the clock in nanoseconds. Like ${@link System#nanoTime()} the value only means
+     * something compared to another reading of the same clock.
+     *
+     * @return the current time in nanoseconds
+     */
+    public abstract long nanoTime();
+
+    /**
+     * @return the current time in milliseconds, only useful for measuring durations
+     */
+    public long millis() {
+        return nanoTime() / 1000000;
+    }
+
+    /**
+     * Create a thread that runs as part of the control code. Threads that wait on the clock should
+     * be created here so a ${@link VirtualClock} knows about them from the start.
+     *
+     * @param runnable what the thread runs
+     * @param name     name of the thread
+     * @return the thread which still has to be started
+     */
+    @NonNull
+    public Thread newThread(@NonNull Runnable runnable, @NonNull String name) {
+        return new Thread(runnable, name);
+    }
+
+    /**
+     * Block until a duration has passed on this clock or the token is cancelled, whichever comes
+     * first. Use ${@link CancellationToken#awaitNanos(long)} instead of calling this directly.
+     *
+     * @param token stops the wait once cancelled
+     * @param nanos the longest to wait in nanoseconds, ${@link Long#MAX_VALUE} to wait until cancelled
+     * @return if the token was cancelled
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    protected abstract boolean await(@NonNull CancellationToken token, long nanos) throws InterruptedException;
+
+    /**
+     * Called every time a token is cancelled so waits that are not parked on the token itself can
+     * wake immediately
+     *
+     * @param token the token that was cancelled
+     */
+    protected void cancelled(@NonNull CancellationToken token) {
+    }
+}
@@ -0,0 +1,21 @@
+package org.ftc7244.robotcontroller.autonomous;
+
+import android.support.annotation.NonNull;
+
+/**
+ * The clock of the robot. Time comes from ${@link System#nanoTime()} so it has nanosecond resolution
+ * and unlike ${@link System#currentTimeMillis()} does not jump when the phone changes its time. Waits
+ * park on the token so they have the same precision as ${@link java.util.concurrent.locks.LockSupport#parkNanos(long)}.
+ */
+public class MonotonicClock extends Clock {
+
+    @Override
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+
+    @Override
+    protected boolean await(@NonNull CancellationToken token, long nanos) throws InterruptedException {
+        return token.park(nanos);
+    }
+}
@@ -5,13 +5,20 @@ import android.support.annotation.NonNull;
 import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
 import com.qualcomm.robotcore.util.RobotLog;
 
+import org.firstinspires.ftc.robotcore.internal.AppUtil;
+import org.ftc7244.robotcontroller.Debug;
 import org.ftc7244.robotcontroller.Westcoast;
 import org.ftc7244.robotcontroller.autonomous.drivers.EncoderDrive;
 import org.ftc7244.robotcontroller.autonomous.drivers.GyroscopeDrive;
 import org.ftc7244.robotcontroller.autonomous.drivers.UltrasonicDrive;
+import org.ftc7244.robotcontroller.autonomous.recording.ControlRecorder;
+import org.ftc7244.robotcontroller.sensor.PoseEstimator;
 import org.ftc7244.robotcontroller.sensor.gyroscope.GyroscopeProvider;
 import org.ftc7244.robotcontroller.sensor.gyroscope.NavXGyroscopeProvider;
 
+import java.io.File;
+import java.io.IOException;
+
 /**
  * Contains all the code for different drive types including ${@link GyroscopeDrive}
  * and ${@link UltrasonicDrive} it also connects to the ${@link Westcoast} class to handle robot
@@ -21,13 +28,24 @@ import org.ftc7244.robotcontroller.sensor.gyroscope.NavXGyroscopeProvider;
  */
 public abstract class PIDAutonomous extends LinearOpMode {
 
+    /**
+     * Cycles the recorder can hold before the file catches up, about 80 seconds of one loop at 100Hz
+     */
+    private static final int RECORDING_CAPACITY = 8192;
+
     @NonNull
     protected final GyroscopeDrive gyroscope;
     @NonNull
     protected final UltrasonicDrive ultrasonic;
     protected final EncoderDrive encoder;
-    protected final GyroscopeProvider gyroProvider;
+    /**
+     * Tracks where the robot is on the field from the moment the autonomous starts
+     */
+    @NonNull
+    protected final PoseEstimator pose;
+    protected GyroscopeProvider gyroProvider;
     protected Westcoast robot;
+    private ControlRecorder recorder;
     private long end;
 
     /**
@@ -39,6 +57,7 @@ public abstract class PIDAutonomous extends LinearOpMode {
         gyroscope = new GyroscopeDrive(robot, gyroProvider);
         ultrasonic = new UltrasonicDrive(robot);
         encoder = new EncoderDrive(robot);
+        pose = new PoseEstimator(robot, gyroProvider, Westcoast.SENSOR_UPDATE_RATE_HZ);
     }
 
     @Override
@@ -61,21 +80,78 @@ public abstract class PIDAutonomous extends LinearOpMode {
             idle();
         }
 
+        if (Debug.RECORD) startRecording();
         try {
+            robot.getSensors().start();
             gyroscope.resetOrientation();
-            end = System.currentTimeMillis() + 30000;
+            pose.setPose(0, 0, 0);
+            pose.start();
+            end = Clock.getDefault().millis() + 30000;
             run();
+        } catch (InterruptedException e) {
+            //stop was requested while the autonomous was waiting
         } catch (Throwable t) {
-            RobotLog.e(t.getMessage());
+            RobotLog.e(t.toString());
         } finally {
+            //wake every thread that is waiting before stopping them one by one
+            Status.requestStop();
+            robot.getActions().stop();
+            pose.stop();
+            robot.getSensors().stop();
             gyroProvider.stop();
             Status.setAutonomous(null);
+            if (recorder != null) recorder.stop();
         }
     }
 
+    /**
+     * Begin recording the control loops of the drivers to a new file in ${@link Debug#RECORDINGS}.
+     * The autonomous still runs if the file cannot be created.
+     */
+    private void startRecording() {
+        File folder = Debug.RECORDINGS != null ? Debug.RECORDINGS : new File(AppUtil.FIRST_FOLDER, "recordings");
+        File file = new File(folder, getClass().getSimpleName() + "-" + System.currentTimeMillis() + ".rec");
+        recorder = new ControlRecorder(RECORDING_CAPACITY);
+        try {
+            recorder.start(file);
+        } catch (IOException e) {
+            RobotLog.e("Unable to record to " + file + ": " + e.getMessage());
+            recorder = null;
+        }
+        gyroscope.setRecorder(recorder);
+        ultrasonic.setRecorder(recorder);
+    }
+
+    /**
+     * Replace the gyroscope that is used by the autonomous and ${@link GyroscopeDrive}. This has to be
+     * done before ${@link #runOpMode()} since that is when the gyroscope is started. It allows for
+     * sources other than the NavX such as a simulated gyroscope.
+     *
+     * @param gyroProvider the new gyroscope to use
+     */
+    public void setGyroProvider(@NonNull GyroscopeProvider gyroProvider) {
+        this.gyroProvider = gyroProvider;
+        gyroscope.setGyroProvider(gyroProvider);
+        pose.setGyroProvider(gyroProvider);
+    }
+
+    /**
+     * @return when the autonomous period ends in ${@link Clock#millis()}
+     */
     public long getAutonomousEnd() {
         return end;
     }
 
+    /**
+     * Pause until only a certain amount of the autonomous period is left. This returns immediately if
+     * that time already passed and wakes as soon as stop is requested.
+     *
+     * @param remaining time left in the autonomous to wait for in milliseconds
+     * @throws InterruptedException if the code fails to terminate before stop requested
+     */
+    public void sleepUntilRemaining(long remaining) throws InterruptedException {
+        Westcoast.sleepUntil(end - remaining);
+    }
+
     public abstract void run() throws InterruptedException;
 }
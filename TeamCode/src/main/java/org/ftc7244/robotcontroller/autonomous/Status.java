@@ -1,5 +1,7 @@
 package org.ftc7244.robotcontroller.autonomous;
 
+import android.support.annotation.NonNull;
+
 import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
 
 /**
@@ -9,25 +11,58 @@ import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
  */
 public class Status {
 
-    private static LinearOpMode autonomous;
+    private static volatile LinearOpMode autonomous;
+    private static volatile CancellationToken token = new CancellationToken();
 
     /**
      * Set the autonomous or clear it to be used in ${@link #isStopRequested()} to decide to
-     * terminate other operations
+     * terminate other operations. The token of the previous autonomous is cancelled and a new one
+     * is created for whatever runs next.
      *
      * @param autonomous current autonomous
      */
     public static void setAutonomous(LinearOpMode autonomous) {
+        CancellationToken previous = token;
         Status.autonomous = autonomous;
+        token = new CancellationToken();
+        previous.cancel();
+    }
+
+    /**
+     * Cancel the token of the current autonomous so everything waiting on it wakes immediately
+     * instead of on its next check of ${@link #isStopRequested()}
+     */
+    public static void requestStop() {
+        token.cancel();
+    }
+
+    /**
+     * The root token of the current autonomous. It is cancelled once stop is requested so waiting
+     * on it or a child of it ends as soon as the robot has to stop.
+     *
+     * @return the token of the current autonomous
+     */
+    @NonNull
+    public static CancellationToken getToken() {
+        return token;
     }
 
     /**
      * If there is an autonomous present and ${@link LinearOpMode#isStopRequested()} then
-     * tell the code to terminate or if the thread is interrupted tell the code to terminate
+     * tell the code to terminate or if the thread is interrupted tell the code to terminate. The
+     * interrupt flag is left as is so the thread still sees it afterwards.
      *
      * @return if stop was requested
      */
     public static boolean isStopRequested() {
-        return (autonomous != null && autonomous.isStopRequested()) || Thread.interrupted();
+        CancellationToken token = Status.token;
+        if (token.isCancelled()) return true;
+        LinearOpMode autonomous = Status.autonomous;
+        if (autonomous != null && autonomous.isStopRequested()) {
+            //the op mode only flags itself so pass it on to anything waiting on the token
+            token.cancel();
+            return true;
+        }
+        return Thread.currentThread().isInterrupted();
     }
 }
@@ -0,0 +1,172 @@
+package org.ftc7244.robotcontroller.autonomous;
+
+import android.support.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A clock that only moves when it is told to, for running the control code offline. Time starts at
+ * zero and ${@link #advance(long)} steps it forward, waking every wait whose duration has passed.
+ * <p>
+ * With ${@link #setAutoAdvance(boolean)} the clock steps itself instead. Every thread that has waited
+ * on the clock or was created by ${@link #newThread(Runnable, String)} takes part and as soon as all
+ * of them are waiting the clock jumps straight to the earliest deadline. Computation takes no time
+ * at all so the control loops see perfect timing and a 30 second autonomous finishes in however long
+ * its code takes to run. Waits that end at the same time are woken one at a time in the order they
+ * started so threads never race each other and every run of the same code is identical. A thread
+ * that takes part must only block on the clock, blocking on anything else such as
+ * ${@link Thread#sleep(long)} stops time for every thread until it returns.
+ */
+public class VirtualClock extends Clock {
+
+    /**
+     * Longest a wait sleeps in real time before it checks if a thread it was waiting for has ended
+     */
+    private static final long POLL_PERIOD = 10;
+
+    private final List<Waiter> waiters;
+    private final Set<Thread> participants;
+    private volatile long now;
+    private boolean autoAdvance;
+
+    public VirtualClock() {
+        this.waiters = new ArrayList<>();
+        this.participants = new HashSet<>();
+    }
+
+    @Override
+    public long nanoTime() {
+        return now;
+    }
+
+    /**
+     * Move time forward and wake every wait that has finished
+     *
+     * @param nanos how far to step in nanoseconds
+     */
+    public synchronized void advance(long nanos) {
+        if (nanos > 0) advanceTo(now + nanos);
+    }
+
+    /**
+     * Let the clock step itself to the next deadline whenever every thread taking part is waiting
+     *
+     * @param autoAdvance if the clock steps itself
+     */
+    public synchronized void setAutoAdvance(boolean autoAdvance) {
+        this.autoAdvance = autoAdvance;
+        if (autoAdvance) advanceIfIdle();
+    }
+
+    /**
+     * @return if the clock steps itself when every thread is waiting
+     */
+    public synchronized boolean isAutoAdvance() {
+        return autoAdvance;
+    }
+
+    @NonNull
+    @Override
+    public Thread newThread(@NonNull final Runnable runnable, @NonNull String name) {
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    runnable.run();
+                } finally {
+                    leave(Thread.currentThread());
+                }
+            }
+        }, name);
+        //the thread takes part before it is started so time cannot move on while it starts up
+        synchronized (this) {
+            participants.add(thread);
+        }
+        return thread;
+    }
+
+    @Override
+    protected synchronized boolean await(@NonNull CancellationToken token, long nanos) throws InterruptedException {
+        if (token.isCancelled()) return true;
+        if (nanos <= 0) return false;
+
+        Waiter waiter = new Waiter(token, now + nanos < now ? Long.MAX_VALUE : now + nanos);
+        participants.add(Thread.currentThread());
+        waiters.add(waiter);
+        try {
+            advanceIfIdle();
+            while (!waiter.woken) {
+                wait(POLL_PERIOD);
+                if (token.isCancelled()) break;
+                advanceIfIdle();
+            }
+        } finally {
+            waiters.remove(waiter);
+        }
+        return token.isCancelled();
+    }
+
+    @Override
+    protected synchronized void cancelled(@NonNull CancellationToken token) {
+        boolean woken = false;
+        for (Waiter waiter : waiters) {
+            if (!waiter.woken && waiter.token.isCancelled()) {
+                waiter.woken = true;
+                woken = true;
+            }
+        }
+        if (woken) notifyAll();
+    }
+
+    private synchronized void leave(Thread thread) {
+        participants.remove(thread);
+        advanceIfIdle();
+    }
+
+    /**
+     * Step to the earliest deadline if every thread taking part is waiting and none has been woken,
+     * only the wait that started first of the ones ending then is woken
+     */
+    private void advanceIfIdle() {
+        if (!autoAdvance) return;
+        //threads that ended without being created by the clock are only noticed here
+        Iterator<Thread> iterator = participants.iterator();
+        while (iterator.hasNext())
+            if (iterator.next().getState() == Thread.State.TERMINATED) iterator.remove();
+
+        Waiter first = null;
+        for (Waiter waiter : waiters) {
+            if (waiter.woken) return;
+            //the waiters are in the order they started so ties go to the one waiting longest
+            if (first == null || waiter.deadline < first.deadline) first = waiter;
+        }
+        if (first == null || waiters.size() < participants.size() || first.deadline == Long.MAX_VALUE) return;
+        if (first.deadline > now) now = first.deadline;
+        first.woken = true;
+        notifyAll();
+    }
+
+    private void advanceTo(long time) {
+        if (time <= now) return;
+        now = time;
+        for (Waiter waiter : waiters)
+            if (waiter.deadline <= time) waiter.woken = true;
+        notifyAll();
+    }
+
+    private static class Waiter {
+
+        private final CancellationToken token;
+        private final long deadline;
+        private boolean woken;
+
+        private Waiter(CancellationToken token, long deadline) {
+            this.token = token;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package org.ftc7244.robotcontroller.autonomous.controllers;
+
+import android.support.annotation.NonNull;
+
+import org.ftc7244.robotcontroller.sensor.RobotState;
+
+/**
+ * Holds the same target and power offset for the entire loop
+ */
+public class ConstantSetpoint extends Setpoint {
+
+    private final double target, powerOffset;
+
+    /**
+     * @param target      the target value for the sensor
+     * @param powerOffset power level from -1 to 1 to convert a rotate function to a drive function
+     */
+    public ConstantSetpoint(double target, double powerOffset) {
+        this.target = target;
+        this.powerOffset = powerOffset;
+    }
+
+    @Override
+    public void update(@NonNull RobotState state) {
+    }
+
+    @Override
+    public double getTarget() {
+        return target;
+    }
+
+    @Override
+    public double getPowerOffset() {
+        return powerOffset;
+    }
+}
@@ -0,0 +1,175 @@
+package org.ftc7244.robotcontroller.autonomous.controllers;
+
+import org.ftc7244.robotcontroller.autonomous.Clock;
+
+/**
+ * A control law that turns the reading of a sensor into an output for the motors every cycle of a
+ * ${@link PIDDriveControl}. The ${@link PIDController} is the one tuned by hand, other laws such as
+ * ${@link LQRController} and ${@link MPCController} can be swapped in without changing the drivers.
+ * <p>
+ * The output is split into the part that responds to the error, the part that built up over time and
+ * the part that responds to how fast the error is changing so every controller can be recorded the
+ * same way as the PID.
+ */
+public abstract class Controller {
+
+    private double setPoint, delay, outputRange;
+
+    /**
+     * Size of the range the input wraps around in, such as 360 for a heading in degrees. The error
+     * is then taken the short way around so a target on the other side of the seam is never reached
+     * by turning almost a full circle. Zero treats the input as a normal line.
+     */
+    private double inputRange;
+
+    /**
+     * @param delay       the period the controller is meant to be updated at in milliseconds
+     * @param outputRange largest absolute output or zero for no limit
+     * @param inputRange  size of the range the input wraps around in or zero if it does not wrap
+     */
+    public Controller(double delay, double outputRange, double inputRange) {
+        this.delay = delay;
+        this.outputRange = Math.abs(outputRange);
+        this.inputRange = Math.abs(inputRange);
+    }
+
+    /**
+     * Update the target value of the controller so that the algorithm can respond in a new way
+     *
+     * @param target the new value
+     */
+    public void setTarget(double target) {
+        this.setPoint = target;
+    }
+
+    /**
+     * Update the controller with a new reading measured right now. The controller does not pace
+     * itself, the caller is expected to call this at the rate of ${@link #getDelay()} using a
+     * ${@link FixedRateScheduler}.
+     *
+     * @param measured the current value of the sensor
+     * @return the output of the controller
+     */
+    public double update(double measured) {
+        return update(measured, Clock.getDefault().nanoTime());
+    }
+
+    /**
+     * Same as ${@link #update(double)} but the time between updates is measured from the timestamps
+     * provided instead of the current time
+     *
+     * @param measured the current value of the sensor
+     * @param now      when the value was measured in nanoseconds
+     * @return the output of the controller
+     */
+    public double update(double measured, long now) {
+        return update(measured, Double.NaN, now);
+    }
+
+    /**
+     * Same as ${@link #update(double, long)} with the rate the sensor measured
+     *
+     * @param measured the current value of the sensor
+     * @param rate     how fast the measured value is changing per second or NaN if it is not measured
+     * @param now      when the value was measured in nanoseconds
+     * @return the output of the controller
+     */
+    public abstract double update(double measured, double rate, long now);
+
+    /**
+     * Clear everything remembered from previous updates so the next update starts fresh
+     */
+    public abstract void reset();
+
+    /**
+     * @return part of the last output that responded to the error
+     */
+    public abstract double getProportional();
+
+    /**
+     * @return part of the last output that built up over time, zero if the controller has none
+     */
+    public abstract double getIntegral();
+
+    /**
+     * @return part of the last output that responded to the error changing
+     */
+    public abstract double getDerivative();
+
+    /**
+     * Bring a difference between two inputs into the shortest path around the range set by
+     * ${@link #setInputRange(double)}. Without a range the difference is returned as is.
+     *
+     * @param difference the difference between two inputs
+     * @return the same difference from minus half to half of the range
+     */
+    public double wrap(double difference) {
+        return wrap(difference, inputRange);
+    }
+
+    /**
+     * Same as ${@link #wrap(double)} for any range
+     *
+     * @param difference the difference between two inputs
+     * @param range      size of the range or zero to leave the difference as is
+     * @return the same difference from minus half to half of the range
+     */
+    public static double wrap(double difference, double range) {
+        if (range == 0) return difference;
+        double half = range / 2, wrapped = (difference + half) % range;
+        //the remainder keeps the sign of the difference so shift negatives back into the range
+        return (wrapped < 0 ? wrapped + range : wrapped) - half;
+    }
+
+    /**
+     * Limit an output to the range set by ${@link #setOutputRange(double)}
+     *
+     * @param output the unlimited output
+     * @return the output within the range
+     */
+    protected double limit(double output) {
+        return outputRange == 0 ? output : Math.max(-outputRange, Math.min(outputRange, output));
+    }
+
+    public double getSetPoint() {
+        return this.setPoint;
+    }
+
+    public void setSetPoint(double setPoint) {
+        this.setPoint = setPoint;
+    }
+
+    /**
+     * The period in milliseconds the controller is meant to be updated at
+     *
+     * @return period in milliseconds
+     */
+    public double getDelay() {
+        return this.delay;
+    }
+
+    public void setDelay(double delay) {
+        this.delay = delay;
+    }
+
+    public double getOutputRange() {
+        return this.outputRange;
+    }
+
+    public void setOutputRange(double outputRange) {
+        this.outputRange = Math.abs(outputRange);
+    }
+
+    public double getInputRange() {
+        return this.inputRange;
+    }
+
+    /**
+     * Make the input continuous so it wraps around after the range, see ${@link #wrap(double)}
+     *
+     * @param inputRange size of the range such as 360 for degrees or zero to disable wrapping
+     */
+    public void setInputRange(double inputRange) {
+        this.inputRange = Math.abs(inputRange);
+    }
+}
@@ -0,0 +1,152 @@
+package org.ftc7244.robotcontroller.autonomous.controllers;
+
+import android.support.annotation.NonNull;
+
+import org.ftc7244.robotcontroller.autonomous.CancellationToken;
+import org.ftc7244.robotcontroller.autonomous.Clock;
+import org.ftc7244.robotcontroller.autonomous.Status;
+
+/**
+ * Paces a control loop at a fixed rate using deadlines on the ${@link Clock#getDefault()} clock. Every deadline is
+ * placed on a grid measured from ${@link #start()} instead of from the end of the last cycle so the
+ * time spent inside the loop never accumulates as drift. If a cycle runs past its deadline it is
+ * counted as missed and the grid skips ahead instead of firing a burst of cycles to catch up.
+ */
+public class FixedRateScheduler {
+
+    /**
+     * Length of a single cycle in nanoseconds. Anything zero or below lets the loop run freely.
+     */
+    private long period;
+
+    private long nextDeadline, cycles, earlyWakes, missedDeadlines, worstLatency, totalLatency;
+
+    /**
+     * @param period the duration of each cycle in milliseconds, zero or below disables pacing
+     */
+    public FixedRateScheduler(double period) {
+        setPeriod(period);
+        start();
+    }
+
+    /**
+     * Clears the statistics and places the first deadline at the current time so the first cycle
+     * executes immediately.
+     */
+    public void start() {
+        cycles = 0;
+        earlyWakes = 0;
+        missedDeadlines = 0;
+        worstLatency = 0;
+        totalLatency = 0;
+        nextDeadline = Clock.getDefault().nanoTime();
+    }
+
+    /**
+     * Blocks until the next deadline on the grid unless the previous cycle already ran past it, in
+     * which case it returns straight away and counts the deadline as missed. The wait also ends as
+     * soon as the token from ${@link Status#getToken()} is cancelled.
+     */
+    public void awaitNextCycle() {
+        awaitNextCycle(Status.getToken());
+    }
+
+    /**
+     * Same as ${@link #awaitNextCycle()} but the wait ends as soon as the token provided is cancelled
+     * so something happening between deadlines can start a cycle early. A cycle started early does not
+     * use up its deadline, the next call still waits for it so the grid is kept. It is counted by
+     * ${@link #getEarlyWakes()} instead of as a cycle so it does not change the latency statistics.
+     *
+     * @param token ends the wait when cancelled, it should be a child of ${@link Status#getToken()}
+     * @return if the token ended the wait before the deadline
+     */
+    public boolean awaitNextCycle(@NonNull CancellationToken token) {
+        Clock clock = Clock.getDefault();
+        long now = clock.nanoTime();
+        if (period <= 0) {
+            cycles++;
+            return token.isCancelled();
+        }
+
+        long deadline = nextDeadline;
+        if (now < deadline) {
+            boolean woken = token.isCancelled();
+            long remaining;
+            try {
+                while (!woken && (remaining = deadline - clock.nanoTime()) > 0)
+                    woken = token.awaitNanos(remaining);
+            } catch (InterruptedException e) {
+                //keep the flag so the loop that is being paced sees it
+                Thread.currentThread().interrupt();
+            }
+            now = clock.nanoTime();
+            if (woken && now < deadline) {
+                earlyWakes++;
+                return true;
+            }
+        } else if (cycles > 0) missedDeadlines++;
+
+        cycles++;
+        //how late the cycle started compared to when it should have
+        long latency = Math.max(0, now - deadline);
+        totalLatency += latency;
+        if (latency > worstLatency) worstLatency = latency;
+
+        //stay on the original grid and skip any deadlines that have already passed
+        nextDeadline = deadline + period;
+        if (nextDeadline <= now) nextDeadline += ((now - nextDeadline) / period + 1) * period;
+        return false;
+    }
+
+    /**
+     * Update the length of each cycle. This takes effect after the next deadline.
+     *
+     * @param period the duration of each cycle in milliseconds, zero or below disables pacing
+     */
+    public void setPeriod(double period) {
+        this.period = period > 0 ? (long) (period * 1e6) : 0;
+    }
+
+    /**
+     * @return the duration of each cycle in milliseconds
+     */
+    public double getPeriod() {
+        return period / 1e6;
+    }
+
+    /**
+     * @return amount of cycles on the grid since ${@link #start()}, early wakes are not included
+     */
+    public long getCycles() {
+        return cycles;
+    }
+
+    /**
+     * @return how many cycles were started before their deadline by a cancelled token since
+     * ${@link #start()}, these are not included in ${@link #getCycles()}
+     */
+    public long getEarlyWakes() {
+        return earlyWakes;
+    }
+
+    /**
+     * @return how many cycles began after their deadline because the previous cycle overran
+     */
+    public long getMissedDeadlines() {
+        return missedDeadlines;
+    }
+
+    /**
+     * @return the latest a cycle has started after its deadline in nanoseconds
+     */
+    public long getWorstLatency() {
+        return worstLatency;
+    }
+
+    /**
+     * @return the average amount of time a cycle started after its deadline in nanoseconds
+     */
+    public long getAverageLatency() {
+        return cycles == 0 ? 0 : totalLatency / cycles;
+    }
+}
@@ -0,0 +1,134 @@
+package org.ftc7244.robotcontroller.autonomous.controllers;
+
+import android.support.annotation.NonNull;
+
+import com.qualcomm.robotcore.util.RobotLog;
+
+import org.firstinspires.ftc.robotcore.internal.AppUtil;
+import org.ftc7244.robotcontroller.Debug;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+
+/**
+ * Gains of the controllers stored on the phone so they can be re-tuned without changing the code.
+ * Each controller is stored under a name such as the class of its driver with one key per term, for
+ * example {@code GyroscopeDrive.proportional}. The gains are loaded through
+ * ${@link PIDControllerBuilder#load(String)} which only replaces the terms that are in the file so
+ * the tunings in the code still apply until the controller has been tuned.
+ */
+public class GainFile {
+
+    public static final String PROPORTIONAL = "proportional", INTEGRAL = "integral", DERIVATIVE = "derivative";
+
+    private static GainFile defaultFile;
+
+    private final File file;
+    private final Properties properties;
+
+    /**
+     * Read the gains from a file. A file that is missing or cannot be read leaves the gains empty.
+     *
+     * @param file where the gains are stored
+     */
+    public GainFile(@NonNull File file) {
+        this.file = file;
+        this.properties = new Properties();
+        if (!file.exists()) return;
+        InputStream input = null;
+        try {
+            input = new FileInputStream(file);
+            properties.load(input);
+        } catch (IOException e) {
+            RobotLog.w("Unable to read gains from " + file + ": " + e.getMessage());
+        } finally {
+            if (input != null) try {
+                input.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * The gains every driver loads when it is created, read once from ${@link Debug#GAINS}
+     *
+     * @return the shared gain file
+     */
+    @NonNull
+    public static synchronized GainFile getDefault() {
+        if (defaultFile == null)
+            defaultFile = new GainFile(Debug.GAINS != null ? Debug.GAINS : new File(AppUtil.FIRST_FOLDER, "gains.properties"));
+        return defaultFile;
+    }
+
+    /**
+     * @param name the name the controller is stored under
+     * @return if any term of the controller is stored
+     */
+    public boolean contains(@NonNull String name) {
+        return properties.containsKey(name + "." + PROPORTIONAL) || properties.containsKey(name + "." + INTEGRAL)
+                || properties.containsKey(name + "." + DERIVATIVE);
+    }
+
+    /**
+     * @param name     the name the controller is stored under
+     * @param term     which term such as ${@link #PROPORTIONAL}
+     * @param fallback the value to use if the term is not stored or is not a number
+     * @return the stored gain or the fallback
+     */
+    public double get(@NonNull String name, @NonNull String term, double fallback) {
+        String value = properties.getProperty(name + "." + term);
+        if (value == null) return fallback;
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            RobotLog.w("Invalid gain " + name + "." + term + " = " + value);
+            return fallback;
+        }
+    }
+
+    /**
+     * Store the gains of a PID controller, this does not write them until ${@link #save(String)}
+     *
+     * @param name the name the controller is stored under
+     * @param kP   the proportional gain
+     * @param kI   the integral gain
+     * @param kD   the derivative gain
+     */
+    public synchronized void put(@NonNull String name, double kP, double kI, double kD) {
+        properties.setProperty(name + "." + PROPORTIONAL, Double.toString(kP));
+        properties.setProperty(name + "." + INTEGRAL, Double.toString(kI));
+        properties.setProperty(name + "." + DERIVATIVE, Double.toString(kD));
+    }
+
+    /**
+     * Write every stored gain to the file
+     *
+     * @param comment written at the top of the file such as how the gains were found
+     * @throws IOException if the file cannot be written
+     */
+    public synchronized void save(String comment) throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs())
+            throw new IOException("Unable to create " + parent);
+        OutputStream output = new FileOutputStream(file);
+        try {
+            properties.store(output, comment);
+        } finally {
+            output.close();
+        }
+    }
+
+    /**
+     * @return where the gains are stored
+     */
+    @NonNull
+    public File getFile() {
+        return file;
+    }
+}
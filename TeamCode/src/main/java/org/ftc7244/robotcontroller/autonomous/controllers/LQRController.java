@@ -0,0 +1,53 @@
+package org.ftc7244.robotcontroller.autonomous.controllers;
+
+import android.support.annotation.NonNull;
+
+import org.apache.commons.math3.linear.RealMatrix;
+
+/**
+ * Discrete linear quadratic regulator. The gains on the error and its rate are the ones that
+ * minimize the cost of the ${@link ModelController} forever according to the ${@link PlantModel}, so
+ * instead of tuning three gains against each other only the weights of the cost are chosen. They are
+ * solved once when the controller is created so an update costs the same as the PID.
+ */
+public class LQRController extends ModelController {
+
+    private final double errorGain, rateGain;
+
+    /**
+     * @param model        how the error responds to the output, the period is the delay of the controller
+     * @param errorWeight  cost of the error per unit squared
+     * @param rateWeight   cost of the error changing per unit per second squared
+     * @param outputWeight cost of the output squared
+     * @param outputRange  largest absolute output or zero for no limit
+     * @param inputRange   size of the range the input wraps around in or zero if it does not wrap
+     */
+    public LQRController(@NonNull PlantModel model, double errorWeight, double rateWeight, double outputWeight, double outputRange, double inputRange) {
+        super(model, errorWeight, rateWeight, outputWeight, outputRange, inputRange);
+        RealMatrix gain = gain(model, solveRiccati(model, q, r), r);
+        //the output is minus the gain times the state
+        this.errorGain = -gain.getEntry(0, 0);
+        this.rateGain = -gain.getEntry(0, 1);
+    }
+
+    @Override
+    protected double solve(double error, double errorRate) {
+        proportional = errorGain * error;
+        derivative = rateGain * errorRate;
+        return proportional + derivative;
+    }
+
+    /**
+     * @return output per unit of error
+     */
+    public double getErrorGain() {
+        return errorGain;
+    }
+
+    /**
+     * @return output per unit per second the error is changing
+     */
+    public double getRateGain() {
+        return rateGain;
+    }
+}
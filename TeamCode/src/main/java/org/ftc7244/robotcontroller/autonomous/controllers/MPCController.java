@@ -0,0 +1,240 @@
+package org.ftc7244.robotcontroller.autonomous.controllers;
+
+import android.support.annotation.NonNull;
+
+import org.apache.commons.math3.linear.EigenDecomposition;
+import org.apache.commons.math3.linear.MatrixUtils;
+import org.apache.commons.math3.linear.RealMatrix;
+
+/**
+ * Model predictive controller over a fixed horizon. Every update it plans the outputs of the next
+ * cycles that minimize the cost of the ${@link ModelController} according to the ${@link PlantModel}
+ * while keeping each output inside the output range, then applies only the first one. Unlike the
+ * ${@link LQRController} it knows the motors saturate so it starts slowing down early enough instead
+ * of overshooting when a large error asks for more power than there is. The cost past the horizon
+ * comes from the Riccati equation so a short horizon still settles.
+ * <p>
+ * The plan is a small quadratic program solved with accelerated projected gradient descent. All the
+ * matrices are built when the controller is created and copied into arrays so an update does not
+ * allocate. The solve is cut off once it runs past its budget and the best plan so far is used, the
+ * plan of the previous cycle is shifted forward as the starting guess so this rarely happens.
+ */
+public class MPCController extends ModelController {
+
+    /**
+     * The default longest a solve can take in milliseconds, half a cycle at 100 hertz
+     */
+    public static final double DEFAULT_BUDGET = 5;
+
+    private static final int MAX_ITERATIONS = 200;
+    private static final double TOLERANCE = 1e-6;
+
+    private final int horizon;
+    private final double[][] hessian, linear;
+    private final double[] plan, next, momentum, gradient, offset;
+    private final double step, errorGain, rateGain;
+    private long budget;
+
+    private long solves, overruns, lastSolveTime, worstSolveTime, totalSolveTime;
+    private int lastIterations;
+
+    /**
+     * @param model        how the error responds to the output, the period is the delay of the controller
+     * @param horizon      how many cycles to plan ahead
+     * @param errorWeight  cost of the error per unit squared
+     * @param rateWeight   cost of the error changing per unit per second squared
+     * @param outputWeight cost of the output squared
+     * @param outputRange  largest absolute output or zero to limit it to the power of the motors
+     * @param inputRange   size of the range the input wraps around in or zero if it does not wrap
+     */
+    public MPCController(@NonNull PlantModel model, int horizon, double errorWeight, double rateWeight, double outputWeight, double outputRange, double inputRange) {
+        super(model, errorWeight, rateWeight, outputWeight, outputRange == 0 ? 1 : outputRange, inputRange);
+        if (horizon < 1) throw new IllegalArgumentException("Horizon must be at least one cycle");
+        this.horizon = horizon;
+
+        //stack the predictions so the states over the horizon are prediction * plan + free * state
+        RealMatrix a = model.getA(), b = model.getB();
+        RealMatrix prediction = MatrixUtils.createRealMatrix(2 * horizon, horizon), free = MatrixUtils.createRealMatrix(2 * horizon, 2);
+        RealMatrix power = MatrixUtils.createRealIdentityMatrix(2);
+        for (int k = 0; k < horizon; k++) {
+            //effect of the output k cycles ago is a^k * b
+            RealMatrix effect = power.multiply(b);
+            for (int row = k; row < horizon; row++)
+                prediction.setSubMatrix(effect.getData(), 2 * row, row - k);
+            power = a.multiply(power);
+            free.setSubMatrix(power.getData(), 2 * k, 0);
+        }
+
+        //every state costs the same except the last which carries the cost of everything after it
+        RealMatrix cost = MatrixUtils.createRealMatrix(2 * horizon, 2 * horizon), terminal = solveRiccati(model, q, r);
+        for (int k = 0; k < horizon; k++)
+            cost.setSubMatrix((k == horizon - 1 ? terminal : q).getData(), 2 * k, 2 * k);
+        RealMatrix weighted = prediction.transpose().multiply(cost);
+        RealMatrix hessian = weighted.multiply(prediction).add(MatrixUtils.createRealIdentityMatrix(horizon).scalarMultiply(r.getEntry(0, 0)));
+        RealMatrix linear = weighted.multiply(free);
+        this.hessian = hessian.getData();
+        this.linear = linear.getData();
+
+        //the largest step that still always descends is one over the largest eigenvalue
+        double largest = 0;
+        for (double eigenvalue : new EigenDecomposition(hessian).getRealEigenvalues())
+            largest = Math.max(largest, eigenvalue);
+        this.step = 1 / largest;
+
+        //without the limits the first output is a fixed gain on the state, kept to split the output when recording
+        RealMatrix unconstrained = MatrixUtils.inverse(hessian).multiply(linear);
+        this.errorGain = -unconstrained.getEntry(0, 0);
+        this.rateGain = -unconstrained.getEntry(0, 1);
+
+        this.plan = new double[horizon];
+        this.next = new double[horizon];
+        this.momentum = new double[horizon];
+        this.gradient = new double[horizon];
+        this.offset = new double[horizon];
+        setBudget(DEFAULT_BUDGET);
+    }
+
+    @Override
+    protected double solve(double error, double errorRate) {
+        //the budget is processor time so it is measured in real time even when the clock is virtual
+        long start = System.nanoTime();
+        double limit = getOutputRange();
+
+        //the part of the gradient that only depends on the current state
+        for (int i = 0; i < horizon; i++) offset[i] = linear[i][0] * error + linear[i][1] * errorRate;
+
+        //start from the plan of the last cycle moved forward by one cycle
+        for (int i = 0; i < horizon; i++) {
+            plan[i] = i + 1 < horizon ? plan[i + 1] : plan[horizon - 1];
+            momentum[i] = plan[i];
+        }
+
+        int iteration = 0;
+        double t = 1;
+        boolean overrun = false;
+        while (iteration < MAX_ITERATIONS) {
+            iteration++;
+            for (int i = 0; i < horizon; i++) {
+                double sum = offset[i];
+                double[] row = hessian[i];
+                for (int j = 0; j < horizon; j++) sum += row[j] * momentum[j];
+                gradient[i] = sum;
+            }
+            double change = 0;
+            for (int i = 0; i < horizon; i++) {
+                next[i] = Math.max(-limit, Math.min(limit, momentum[i] - step * gradient[i]));
+                change = Math.max(change, Math.abs(next[i] - plan[i]));
+            }
+            //nesterov momentum carries the plan further along the direction it is already moving
+            double nextT = (1 + Math.sqrt(1 + 4 * t * t)) / 2, carry = (t - 1) / nextT;
+            for (int i = 0; i < horizon; i++) {
+                momentum[i] = next[i] + carry * (next[i] - plan[i]);
+                plan[i] = next[i];
+            }
+            t = nextT;
+            if (change < TOLERANCE) break;
+            if (System.nanoTime() - start > budget) {
+                overrun = true;
+                break;
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+        solves++;
+        if (overrun) overruns++;
+        lastIterations = iteration;
+        lastSolveTime = elapsed;
+        totalSolveTime += elapsed;
+        if (elapsed > worstSolveTime) worstSolveTime = elapsed;
+
+        proportional = errorGain * error;
+        derivative = rateGain * errorRate;
+        return plan[0];
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        //reset is called by the parent constructor before the arrays exist
+        if (plan != null) {
+            for (int i = 0; i < horizon; i++) plan[i] = 0;
+        }
+    }
+
+    /**
+     * Clear the timing statistics of the solver
+     */
+    public void resetStatistics() {
+        solves = 0;
+        overruns = 0;
+        lastSolveTime = 0;
+        worstSolveTime = 0;
+        totalSolveTime = 0;
+        lastIterations = 0;
+    }
+
+    /**
+     * Set the longest a solve can take before the best plan so far is used
+     *
+     * @param budget time in milliseconds
+     */
+    public void setBudget(double budget) {
+        this.budget = (long) (budget * 1e6);
+    }
+
+    /**
+     * @return the longest a solve can take in milliseconds
+     */
+    public double getBudget() {
+        return budget / 1e6;
+    }
+
+    /**
+     * @return how many cycles are planned ahead
+     */
+    public int getHorizon() {
+        return horizon;
+    }
+
+    /**
+     * @return amount of solves since the statistics were reset
+     */
+    public long getSolves() {
+        return solves;
+    }
+
+    /**
+     * @return how many solves were cut off by the budget
+     */
+    public long getOverruns() {
+        return overruns;
+    }
+
+    /**
+     * @return iterations of the last solve
+     */
+    public int getLastIterations() {
+        return lastIterations;
+    }
+
+    /**
+     * @return how long the last solve took in nanoseconds
+     */
+    public long getLastSolveTime() {
+        return lastSolveTime;
+    }
+
+    /**
+     * @return the longest a solve has taken in nanoseconds
+     */
+    public long getWorstSolveTime() {
+        return worstSolveTime;
+    }
+
+    /**
+     * @return the average time of a solve in nanoseconds
+     */
+    public long getAverageSolveTime() {
+        return solves == 0 ? 0 : totalSolveTime / solves;
+    }
+}
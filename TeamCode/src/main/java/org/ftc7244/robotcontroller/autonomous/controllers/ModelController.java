@@ -0,0 +1,155 @@
+package org.ftc7244.robotcontroller.autonomous.controllers;
+
+import android.support.annotation.NonNull;
+
+import org.apache.commons.math3.linear.MatrixUtils;
+import org.apache.commons.math3.linear.RealMatrix;
+
+import static java.lang.Double.isInfinite;
+import static java.lang.Double.isNaN;
+
+/**
+ * Base of the controllers that choose their output from a ${@link PlantModel} instead of hand tuned
+ * gains. Every update the error and how fast it is changing are measured and handed to
+ * ${@link #solve(double, double)}. How much each is worth is set by the weights of the cost:
+ * <pre>
+ *     errorWeight * error^2 + rateWeight * errorRate^2 + outputWeight * output^2
+ * </pre>
+ * summed over every future cycle, so raising the weight of the error settles faster while raising
+ * the weight of the output uses less power.
+ */
+public abstract class ModelController extends Controller {
+
+    /**
+     * Most iterations of the Riccati equation before giving up on it converging
+     */
+    private static final int RICCATI_ITERATIONS = 100000;
+
+    protected final PlantModel model;
+    protected final RealMatrix q, r;
+
+    private double previousError, previousSetPoint;
+    private long cycleTime;
+    private boolean started;
+
+    protected double proportional, derivative;
+
+    /**
+     * @param model        how the error responds to the output, the period is the delay of the controller
+     * @param errorWeight  cost of the error per unit squared
+     * @param rateWeight   cost of the error changing per unit per second squared
+     * @param outputWeight cost of the output squared
+     * @param outputRange  largest absolute output or zero for no limit
+     * @param inputRange   size of the range the input wraps around in or zero if it does not wrap
+     */
+    public ModelController(@NonNull PlantModel model, double errorWeight, double rateWeight, double outputWeight, double outputRange, double inputRange) {
+        super(model.getPeriod(), outputRange, inputRange);
+        if (outputWeight <= 0) throw new IllegalArgumentException("The output must have a cost");
+        this.model = model;
+        this.q = MatrixUtils.createRealDiagonalMatrix(new double[]{errorWeight, rateWeight});
+        this.r = MatrixUtils.createRealDiagonalMatrix(new double[]{outputWeight});
+        reset();
+    }
+
+    /**
+     * Choose the output for the current cycle
+     *
+     * @param error     the error wrapped to the input range
+     * @param errorRate how fast the error is changing per second
+     * @return the output before it is limited to the output range
+     */
+    protected abstract double solve(double error, double errorRate);
+
+    @Override
+    public double update(double measured, double rate, long now) {
+        double setPoint = getSetPoint(), error = wrap(setPoint - measured), errorRate;
+        if (!started) {
+            started = true;
+            //without a previous update only a measured rate says how the error is changing
+            errorRate = isNaN(rate) ? 0 : -rate;
+        } else {
+            double dt = (now - cycleTime) / 1e9;
+            if (isNaN(rate)) errorRate = (error - previousError) / dt;
+            else errorRate = wrap(setPoint - previousSetPoint) / dt - rate;
+            //same sanity check as the derivative of the PID
+            if (isNaN(errorRate) || isInfinite(errorRate)) errorRate = 0;
+        }
+        cycleTime = now;
+        previousError = error;
+        previousSetPoint = setPoint;
+
+        return limit(solve(error, errorRate));
+    }
+
+    @Override
+    public void reset() {
+        previousError = 0;
+        previousSetPoint = 0;
+        cycleTime = 0;
+        started = false;
+        proportional = 0;
+        derivative = 0;
+    }
+
+    /**
+     * Find the cost of every state when the output is chosen optimally forever by iterating the
+     * discrete algebraic Riccati equation until it settles. This is slow so it is only meant to run
+     * when a controller is created.
+     *
+     * @param model how the error responds to the output
+     * @param q     cost of the state
+     * @param r     cost of the output
+     * @return the cost matrix of the state
+     */
+    @NonNull
+    public static RealMatrix solveRiccati(@NonNull PlantModel model, @NonNull RealMatrix q, @NonNull RealMatrix r) {
+        RealMatrix a = model.getA(), b = model.getB(), at = a.transpose(), bt = b.transpose();
+        RealMatrix p = q;
+        for (int i = 0; i < RICCATI_ITERATIONS; i++) {
+            RealMatrix ptA = p.multiply(a);
+            RealMatrix gain = MatrixUtils.inverse(r.add(bt.multiply(p).multiply(b))).multiply(bt).multiply(ptA);
+            RealMatrix next = q.add(at.multiply(ptA)).subtract(at.multiply(p).multiply(b).multiply(gain));
+            double change = next.subtract(p).getNorm();
+            p = next;
+            if (change <= 1e-9 * p.getNorm()) return p;
+        }
+        throw new IllegalArgumentException("Riccati equation did not converge, the model cannot be controlled");
+    }
+
+    /**
+     * The gain of the output that is optimal forever for a state cost
+     *
+     * @param model how the error responds to the output
+     * @param p     the cost of the state from ${@link #solveRiccati(PlantModel, RealMatrix, RealMatrix)}
+     * @param r     cost of the output
+     * @return the gain as one by two, the output is minus the gain times the state
+     */
+    @NonNull
+    public static RealMatrix gain(@NonNull PlantModel model, @NonNull RealMatrix p, @NonNull RealMatrix r) {
+        RealMatrix bt = model.getB().transpose();
+        return MatrixUtils.inverse(r.add(bt.multiply(p).multiply(model.getB()))).multiply(bt).multiply(p).multiply(model.getA());
+    }
+
+    @Override
+    public double getProportional() {
+        return proportional;
+    }
+
+    @Override
+    public double getIntegral() {
+        return 0;
+    }
+
+    @Override
+    public double getDerivative() {
+        return derivative;
+    }
+
+    /**
+     * @return the model the controller plans with
+     */
+    @NonNull
+    public PlantModel getModel() {
+        return model;
+    }
+}
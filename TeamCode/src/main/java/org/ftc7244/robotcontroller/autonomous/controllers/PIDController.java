@@ -2,7 +2,7 @@ package org.ftc7244.robotcontroller.autonomous.controllers;
 
 import com.qualcomm.robotcore.util.RobotLog;
 
-import org.ftc7244.robotcontroller.autonomous.Status;
+import org.ftc7244.robotcontroller.autonomous.Clock;
 
 import static java.lang.Double.isInfinite;
 import static java.lang.Double.isNaN;
@@ -11,7 +11,7 @@ import static java.lang.Double.isNaN;
  * Simple PID controller used to respond to a input accordingly. Certain custom features like Integral
  * Range and Output Range were incorporated to support more intelligent drive support.
  */
-public class PIDController {
+public class PIDController extends Controller {
 
     /**
      * This is the coefficient used to calculate the effect of the proportional of the robot.
@@ -41,57 +41,65 @@ public class PIDController {
     /**
      * Information required to calculate each PID Loop
      */
-    private double previousError;
+    private double previousError, previousSetPoint;
 
+    private double integralRange;
 
-    private double setPoint, delay, integralRange, outputRange;
+    /**
+     * Time in milliseconds between the last two updates measured with ${@link Clock#nanoTime()}
+     */
+    private double dt;
 
     /**
-     * How often will the new PID value be calculated.
+     * When the last update happened in nanoseconds
      */
-    private double dt, cycleTime;
+    private long cycleTime;
+
+    private boolean started;
 
     private boolean integralReset;
 
     public PIDController(double kP, double kI, double kD, double delay, double integralRange, double outputRange, boolean integralReset) {
+        this(kP, kI, kD, delay, integralRange, outputRange, 0, integralReset);
+    }
+
+    public PIDController(double kP, double kI, double kD, double delay, double integralRange, double outputRange, double inputRange, boolean integralReset) {
+        super(delay, outputRange, inputRange);
         this.kP = kP;
         this.kI = kI;
         this.kD = kD;
-        this.delay = delay;
         this.integralRange = integralRange;
-        this.outputRange = Math.abs(outputRange);
         this.integralReset = integralReset;
 
         reset();
     }
 
     /**
-     * Update the target value of the PID loop so that the algorithm can respond in a new way
-     * the new target value will be used in the queue.
-     *
-     * @param target the new value
-     */
-    public void setTarget(double target) {
-        this.setPoint = target;
-    }
-
-    /**
-     * Update PID loop based off previous results. This number will be stored in a queue. As well as
-     * being returned to the user
+     * Update PID loop based off previous results. When the rate is provided the derivative comes from
+     * the rate the sensor measured instead of the change in error between updates. Differencing a noisy reading over a
+     * jittery time step amplifies the noise, a measured rate does not, so the derivative gain can be
+     * raised further before the loop starts to oscillate.
      *
      * @param measured what is the measured value? This will give us info based off the target
+     * @param rate     how fast the measured value is changing per second or NaN to differentiate the error
+     * @param now      when the value was measured in nanoseconds
      * @return the error correction value from the PID loop
      */
-    public double update(double measured) {
+    @Override
+    public double update(double measured, double rate, long now) {
         //grab the error for caching or use in other calculates
-        double error = setPoint - measured;
+        double setPoint = getSetPoint(), error = wrap(setPoint - measured);
 
         //if the PID has yet to execute more than once grab a timestamp to use in the future
-        if (cycleTime == 0) {
-            this.cycleTime = System.currentTimeMillis();
+        if (!started) {
+            this.started = true;
+            this.cycleTime = now;
             previousError = error;
+            previousSetPoint = setPoint;
             return 0;
         }
+        dt = (now - cycleTime) / 1e6;
+        cycleTime = now;
 
         //calculate error and then find proprtional through adjusting
         proportional = kP * error;
@@ -105,51 +113,36 @@ public class PIDController {
             integral = 0;
             RobotLog.ii("RESET", "Reset Integral");
         }
-        //calculate derivative and then increase it by its kD
-        derivative = kD * (error - previousError) / dt;
+        //calculate derivative and then increase it by its kD, a measured rate replaces the change of the reading
+        if (isNaN(rate)) derivative = kD * (error - previousError) / dt;
+        else derivative = kD * (wrap(setPoint - previousSetPoint) / dt - rate / 1000);
         //sanity check to prevent errors in the derivative
         derivative = (isNaN(derivative) || isInfinite(derivative) ? 0 : derivative);
 
         //save previous error for next integral
         previousError = error;
-
-        //ensure that the PID is only calculating at certain intervals otherwise halt till next time
-        if (this.delay > 0)
-            pause((long) (this.delay - (System.currentTimeMillis() - this.cycleTime)));
-        dt = System.currentTimeMillis() - this.cycleTime;
-        cycleTime = System.currentTimeMillis();
+        previousSetPoint = setPoint;
 
         //calculate the PID result
         double result = proportional + integral + derivative;
         //limit the PID result if range is present
-        if (outputRange != 0) result = Math.max(-outputRange, Math.min(outputRange, result));
-        return result;
+        return limit(result);
     }
 
     /**
      * Reset the PID loop. Clearing all previous results
      */
+    @Override
     public void reset() {
         this.previousError = 0;
+        this.previousSetPoint = 0;
         this.integral = 0;
         this.dt = 0;
         this.cycleTime = 0;
+        this.started = false;
         this.proportional = 0;
     }
 
-    private void pause(long period) {
-        if (period <= 0) return;
-        long end = System.currentTimeMillis() + period;
-        do {
-            try {
-                Thread.sleep(period);
-            } catch (InterruptedException e) {
-                //ignore
-            }
-            period = end - System.currentTimeMillis();
-        } while (period > 0 && !Status.isStopRequested());
-    }
-
     public double getKP() {
         return this.kP;
     }
@@ -174,32 +167,28 @@ public class PIDController {
         this.kD = kD;
     }
 
+    @Override
     public double getProportional() {
         return this.proportional;
     }
 
+    @Override
     public double getIntegral() {
         return this.integral;
     }
 
+    @Override
     public double getDerivative() {
         return this.derivative;
     }
 
-    public double getSetPoint() {
-        return this.setPoint;
-    }
-
-    public void setSetPoint(double setPoint) {
-        this.setPoint = setPoint;
-    }
-
-    public double getDelay() {
-        return this.delay;
-    }
-
-    public void setDelay(double delay) {
-        this.delay = delay;
+    /**
+     * The time between the last two updates which is used for the integral and derivative
+     *
+     * @return time in milliseconds
+     */
+    public double getDt() {
+        return this.dt;
     }
 
     public double getIntegralRange() {
@@ -209,13 +198,4 @@ public class PIDController {
     public void setIntegralRange(double integralRange) {
         this.integralRange = integralRange;
     }
-
-    public double getOutputRange() {
-        return this.outputRange;
-    }
-
-    public void setOutputRange(double outputRange) {
-        this.outputRange = outputRange;
-    }
-
 }
@@ -1,5 +1,7 @@
 package org.ftc7244.robotcontroller.autonomous.controllers;
 
+import android.support.annotation.NonNull;
+
 public class PIDControllerBuilder {
     private double kP = 0;
     private double kI = 0;
@@ -7,6 +9,7 @@ public class PIDControllerBuilder {
     private double delay = -1;
     private double integralRange = 0;
     private double outputRange = 0;
+    private double inputRange = 0;
     private boolean integralReset = false;
 
     public PIDControllerBuilder setProportional(double kP) {
@@ -39,12 +42,43 @@ public class PIDControllerBuilder {
         return this;
     }
 
+    public PIDControllerBuilder setInputRange(double inputRange) {
+        this.inputRange = inputRange;
+        return this;
+    }
+
     public PIDControllerBuilder setIntegralReset(boolean integralReset) {
         this.integralReset = integralReset;
         return this;
     }
 
+    /**
+     * Replace the gains with the ones stored in the ${@link GainFile#getDefault() default gain file}.
+     * Terms that are not stored keep the value they were set to so this should be called after the
+     * gains in the code.
+     *
+     * @param name the name the controller is stored under
+     * @return the same builder
+     */
+    public PIDControllerBuilder load(@NonNull String name) {
+        return load(GainFile.getDefault(), name);
+    }
+
+    /**
+     * Same as ${@link #load(String)} from any gain file
+     *
+     * @param gains the file to read from
+     * @param name  the name the controller is stored under
+     * @return the same builder
+     */
+    public PIDControllerBuilder load(@NonNull GainFile gains, @NonNull String name) {
+        kP = gains.get(name, GainFile.PROPORTIONAL, kP);
+        kI = gains.get(name, GainFile.INTEGRAL, kI);
+        kD = gains.get(name, GainFile.DERIVATIVE, kD);
+        return this;
+    }
+
     public PIDController createController() {
-        return new PIDController(kP, kI, kD, delay, integralRange, outputRange, integralReset);
+        return new PIDController(kP, kI, kD, delay, integralRange, outputRange, inputRange, integralReset);
     }
 }
\ No newline at end of file
@@ -1,40 +1,85 @@
 package org.ftc7244.robotcontroller.autonomous.controllers;
 
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 import com.qualcomm.robotcore.util.RobotLog;
 
 import org.ftc7244.robotcontroller.Debug;
 import org.ftc7244.robotcontroller.Westcoast;
+import org.ftc7244.robotcontroller.autonomous.CancellationToken;
+import org.ftc7244.robotcontroller.autonomous.Clock;
 import org.ftc7244.robotcontroller.autonomous.Status;
+import org.ftc7244.robotcontroller.autonomous.recording.ControlRecorder;
+import org.ftc7244.robotcontroller.autonomous.terminators.ConditionalTerminator;
+import org.ftc7244.robotcontroller.autonomous.terminators.TerminationContext;
 import org.ftc7244.robotcontroller.autonomous.terminators.Terminator;
+import org.ftc7244.robotcontroller.autonomous.terminators.TimerTerminator;
+import org.ftc7244.robotcontroller.sensor.RobotState;
 
 /**
  * Abstract tool that handles a majority of the PID when driving and handles when the PID should
  * terminate based off of ${@link Terminator}. Furthermore, it takes a PID that has its own tunings
  * and a sensor with readings to respond with the ${@link #control(double, double, Terminator)} function.
+ * The PID can be replaced with any other ${@link Controller} such as an ${@link LQRController} or
+ * ${@link MPCController} through ${@link #setController(Controller)}.
  */
 public abstract class PIDDriveControl {
 
-    protected PIDController controller;
+    protected Controller controller;
     protected Westcoast robot;
+    protected FixedRateScheduler scheduler;
+    /**
+     * Sensor readings for the current cycle of ${@link #control(double, double, Terminator)}. It is
+     * refreshed once per cycle so the reading and every terminator see the same values.
+     */
+    protected RobotState state;
+    /**
+     * The values of the current cycle handed to the ${@link Terminator}, it wraps ${@link #state}
+     */
+    protected TerminationContext context;
+    /**
+     * Receives every cycle of the loop when set, otherwise cycles are only logged if ${@link Debug#STATUS}
+     */
+    @Nullable
+    protected ControlRecorder recorder;
+    private short source;
+    private int segment;
+    private boolean paced;
 
-    public PIDDriveControl(PIDController controller, Westcoast robot) {
+    public PIDDriveControl(Controller controller, Westcoast robot) {
         this.controller = controller;
         this.robot = robot;
+        this.scheduler = new FixedRateScheduler(controller.getDelay());
+        this.state = new RobotState();
+        this.context = new TerminationContext(state);
+        this.paced = true;
     }
 
     /**
-     * Return the value of the sensor so the PID loop knows how to respond
+     * Return the value of the sensor so the PID loop knows how to respond. This is called once per
+     * cycle and the result is passed to the terminators through the ${@link TerminationContext}.
      *
      * @return double of the current value
      */
     public abstract double getReading();
 
     /**
-     * Resets the PID loop then sets the target. After every PID update the current thread is paused
-     * until the looping count is matched. It will also update the terminators with termination status
-     * and requests to terminate unless the code is stopped otherwise
+     * How fast the reading from ${@link #getReading()} is changing as measured by the sensor. It is
+     * called right after the reading each cycle. When a rate is available the derivative of the PID
+     * uses it instead of differencing the readings.
+     *
+     * @return rate in units of the reading per second or NaN if the sensor does not measure one
+     */
+    public double getRate() {
+        return Double.NaN;
+    }
+
+    /**
+     * Resets the PID loop then sets the target. Every PID update is paced by the ${@link FixedRateScheduler}
+     * at the delay of the controller so the loop runs at a fixed rate and reads the sensors from the
+     * latest ${@link RobotState} instead of the hardware. It will also update the terminators
+     * with termination status and requests to terminate unless the code is stopped otherwise
      * <p>
      * There are many different terminators that can be used: ${@link org.ftc7244.robotcontroller.autonomous.terminators.ConditionalTerminator},
      * ${@link org.ftc7244.robotcontroller.autonomous.terminators.SensitivityTerminator}, ${@link org.ftc7244.robotcontroller.autonomous.terminators.TimerTerminator}
@@ -45,29 +90,203 @@ public abstract class PIDDriveControl {
      * @throws InterruptedException if the code fails to end on finish request
      */
     protected void control(double target, double powerOffset, @NonNull Terminator terminator) throws InterruptedException {
+        control(new ConstantSetpoint(target, powerOffset), terminator);
+    }
+
+    /**
+     * Same as ${@link #control(double, double, Terminator)} but the target and power offset can change
+     * every cycle by following the ${@link Setpoint}. The feedforward of the setpoint is added to the
+     * output of the PID.
+     *
+     * @param setpoint   what the loop should be doing each cycle
+     * @param terminator tells the PID when to end
+     * @throws InterruptedException if the code fails to end on finish request
+     */
+    protected void control(@NonNull Setpoint setpoint, @NonNull Terminator terminator) throws InterruptedException {
         //setup the PID loop
         controller.reset();
-        controller.setTarget(target);
+        scheduler.setPeriod(paced ? controller.getDelay() : 0);
+        scheduler.start();
+        robot.getSensors().awaitState(state);
+        setpoint.start(state);
+        //terminators can wake the loop before the deadline once their condition is met
+        CancellationToken wake = Status.getToken().newChild();
+        context.setWakeToken(wake);
+        terminator.start(context);
+        double pid = 0;
+        long lastTime = Long.MIN_VALUE;
 
-        do {
-            //tell the terminators the code has yet to finish
-            terminator.terminated(false);
-            //get PID correction value
-            double pid = controller.update(getReading());
+        try {
+            do {
+                //tell the terminators the code has yet to finish
+                terminator.terminated(false);
+                //wait for the next deadline of the loop unless a terminator wakes it sooner
+                scheduler.awaitNextCycle(wake);
+                if (wake.isCancelled() && !Status.isStopRequested()) {
+                    //a wake after the token is swapped starts the next cycle early instead of being lost
+                    wake = Status.getToken().newChild();
+                    context.setWakeToken(wake);
+                }
+                long now = Clock.getDefault().nanoTime();
+                robot.getSensors().readState(state);
+                setpoint.update(state);
+                double target = setpoint.getTarget(), powerOffset = setpoint.getPowerOffset();
+                controller.setTarget(target);
+                //read the sensor once and share it with the terminators
+                double reading = getReading(), rate = getRate();
+                long time = getCycleTime(now);
+                context.set(reading, target, time / 1000000);
+                //get PID correction value, a cycle without any time passing keeps the last one
+                if (time > lastTime) {
+                    pid = controller.update(reading, rate, time);
+                    lastTime = time;
+                }
+                double turn = pid + setpoint.getFeedforward();
 
-            //debug if wanted
-            if (Debug.STATUS)
-                RobotLog.ii("PID", "|" + controller.getProportional() + "|" + controller.getIntegral() + "|" + controller.getDerivative() + "|" + pid + "|" + getReading());
+                //record or debug if wanted
+                if (recorder != null)
+                    recorder.record(source, segment, now, target, reading, rate, controller.getProportional(), controller.getIntegral(), controller.getDerivative(), pid, powerOffset + turn, powerOffset - turn, state);
+                else if (Debug.STATUS)
+                    RobotLog.ii("PID", "|" + controller.getProportional() + "|" + controller.getIntegral() + "|" + controller.getDerivative() + "|" + pid + "|" + reading);
 
-            //take the PID and provide poweroffset if the robot wants to drive while using PID
-            robot.getDriveLeft().setPower(powerOffset + pid);
-            robot.getDriveRight().setPower(powerOffset - pid);
-            //check if the robot should stop driving
-        } while (!terminator.shouldTerminate() && !Status.isStopRequested());
-        terminator.terminated(true);
+                //take the PID and provide poweroffset if the robot wants to drive while using PID
+                robot.getDriveLeft().setPower(powerOffset + turn);
+                robot.getDriveRight().setPower(powerOffset - turn);
+                //check if the robot should stop driving
+            } while (!terminator.shouldTerminate(context) && !Status.isStopRequested());
+        } finally {
+            wake.cancel();
+            context.setWakeToken(null);
+            //always let the terminators clean up, an event terminator stops listening here
+            terminator.terminated(true);
+        }
 
         //kill motors just in case
         robot.getDriveLeft().setPower(0);
         robot.getDriveRight().setPower(0);
+        segment++;
+
+        if (Debug.STATUS)
+            RobotLog.ii("LOOP", "|" + scheduler.getCycles() + "|" + scheduler.getEarlyWakes() + "|" + scheduler.getMissedDeadlines() + "|" + scheduler.getAverageLatency() / 1e6 + "|" + scheduler.getWorstLatency() / 1e6);
+        if (Debug.STATUS && controller instanceof MPCController) {
+            MPCController mpc = (MPCController) controller;
+            RobotLog.ii("MPC", "|" + mpc.getSolves() + "|" + mpc.getOverruns() + "|" + mpc.getAverageSolveTime() / 1e6 + "|" + mpc.getWorstSolveTime() / 1e6);
+        }
+        if (Debug.STATUS && terminator instanceof ConditionalTerminator)
+            logStatistics((ConditionalTerminator) terminator, "");
+    }
+
+    /**
+     * Log how many times each terminator was checked and how long it took in total so it is clear
+     * where the time of a cycle goes
+     *
+     * @param terminator the terminator to log the children of
+     * @param prefix     position of the terminator inside its parents
+     */
+    private static void logStatistics(ConditionalTerminator terminator, String prefix) {
+        Terminator[] terminators = terminator.getTerminators();
+        for (int i = 0; i < terminators.length; i++) {
+            String name = terminators[i].getClass().getName();
+            RobotLog.ii("TERMINATOR", "|" + prefix + i + "|" + name.substring(name.lastIndexOf('.') + 1) + "|" + terminators[i].getCost()
+                    + "|" + terminator.getEvaluations(i) + "|" + terminator.getEvaluationTime(i) / 1e6);
+            if (terminators[i] instanceof ConditionalTerminator)
+                logStatistics((ConditionalTerminator) terminators[i], prefix + i + ".");
+        }
+    }
+
+    /**
+     * Run a relay feedback experiment around a target with the reading of this driver. The
+     * controller is swapped for a ${@link RelayController} at the same rate until it has measured
+     * enough oscillations or the timeout passes and then put back. The result can be turned into
+     * gains by a ${@link TuningRule}.
+     *
+     * @param target     the value to oscillate around
+     * @param amplitude  output while the relay is on
+     * @param hysteresis how far the error has to cross zero before the relay flips
+     * @param cycles     how many oscillations to measure after the first
+     * @param timeout    longest the experiment can run in milliseconds
+     * @return the relay with the measured oscillation, check ${@link RelayController#isFinished()}
+     * @throws InterruptedException if the code fails to end on finish request
+     */
+    @NonNull
+    public RelayController autoTune(double target, double amplitude, double hysteresis, int cycles, long timeout) throws InterruptedException {
+        final RelayController relay = new RelayController(amplitude, hysteresis, cycles, controller.getDelay(), controller.getInputRange());
+        Controller previous = controller;
+        controller = relay;
+        try {
+            control(target, 0, new ConditionalTerminator(
+                    new Terminator() {
+                        @Override
+                        public boolean shouldTerminate(@NonNull TerminationContext context) {
+                            return relay.isFinished();
+                        }
+                    },
+                    new TimerTerminator(timeout)));
+        } finally {
+            controller = previous;
+        }
+        return relay;
+    }
+
+    /**
+     * When the current cycle happened as seen by the controller and the terminators. A paced loop
+     * uses the time the cycle started so the controller sees the period of the scheduler, the state
+     * can be polled out of phase with the loop or read twice when a terminator wakes it early. Without
+     * pacing the cycles are not spread out in time so the time the state was polled is used instead.
+     *
+     * @param now ${@link Clock#nanoTime()} when the cycle started
+     * @return the time of the cycle in nanoseconds
+     */
+    protected long getCycleTime(long now) {
+        return paced ? now : state.getTimestamp();
+    }
+
+    /**
+     * Change the control law used by ${@link #control(double, double, Terminator)}. The loop is paced
+     * at the delay of the new controller starting with the next call.
+     *
+     * @param controller the controller to use
+     */
+    public void setController(@NonNull Controller controller) {
+        this.controller = controller;
+    }
+
+    /**
+     * @return the control law used by ${@link #control(double, double, Terminator)}
+     */
+    @NonNull
+    public Controller getController() {
+        return controller;
+    }
+
+    /**
+     * Record every cycle of ${@link #control(double, double, Terminator)} instead of logging it. The
+     * cycles are recorded under the name of the class and each call of control is its own segment.
+     *
+     * @param recorder the recorder to write to or null to go back to logging
+     */
+    public void setRecorder(@Nullable ControlRecorder recorder) {
+        this.recorder = recorder;
+        if (recorder != null) source = recorder.register(getClass().getSimpleName());
+    }
+
+    /**
+     * Turn the ${@link FixedRateScheduler} of the loop on or off. Replays of recorded runs turn it off
+     * so cycles run as fast as the recorded states can be fed to them.
+     *
+     * @param paced if each cycle waits for the delay of the controller
+     */
+    public void setPaced(boolean paced) {
+        this.paced = paced;
+    }
+
+    /**
+     * The scheduler pacing ${@link #control(double, double, Terminator)} which holds the timing
+     * statistics of the last control loop
+     *
+     * @return the scheduler of the control loop
+     */
+    public FixedRateScheduler getScheduler() {
+        return scheduler;
     }
 }
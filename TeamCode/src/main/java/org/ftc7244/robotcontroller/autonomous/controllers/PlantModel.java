@@ -0,0 +1,79 @@
+package org.ftc7244.robotcontroller.autonomous.controllers;
+
+import android.support.annotation.NonNull;
+
+import org.apache.commons.math3.linear.MatrixUtils;
+import org.apache.commons.math3.linear.RealMatrix;
+
+/**
+ * Discrete model of how the error of a ${@link PIDDriveControl} responds to the output of a
+ * ${@link Controller} over one cycle, used by the controllers that plan with a model instead of
+ * being tuned by hand. The state is the error and how fast the error is changing per second:
+ * <pre>
+ *     x[k + 1] = A * x[k] + B * u[k]
+ * </pre>
+ * It only covers the part of the motion the controller corrects, the feedforward of the
+ * ${@link Setpoint} is expected to take care of the planned motion.
+ */
+public class PlantModel {
+
+    private final RealMatrix a, b;
+    private final double period;
+
+    /**
+     * @param a      how the state carries over to the next cycle, two by two
+     * @param b      how the output changes the state over the next cycle, two by one
+     * @param period length of a cycle in milliseconds
+     */
+    public PlantModel(@NonNull RealMatrix a, @NonNull RealMatrix b, double period) {
+        if (a.getRowDimension() != 2 || a.getColumnDimension() != 2 || b.getRowDimension() != 2 || b.getColumnDimension() != 1)
+            throw new IllegalArgumentException("Model must have two states and one output");
+        this.a = a;
+        this.b = b;
+        this.period = period;
+    }
+
+    /**
+     * Model a motor that speeds up towards a velocity proportional to its power the same way the
+     * feedforward of the profiles expects, reaching the velocity of full power in about the time it
+     * takes at full acceleration. The output is held for the whole cycle.
+     *
+     * @param maxVelocity     velocity at full power per second
+     * @param maxAcceleration acceleration from standing still at full power per second squared
+     * @param period          length of a cycle in milliseconds
+     * @return the model of the motor
+     */
+    @NonNull
+    public static PlantModel firstOrder(double maxVelocity, double maxAcceleration, double period) {
+        double dt = period / 1000, timeConstant = maxVelocity / maxAcceleration;
+        //the exact response over a cycle instead of a step of euler so long periods stay stable
+        double decay = Math.exp(-dt / timeConstant), lag = timeConstant * (1 - decay);
+        //more power makes the reading move towards the target faster so the error shrinks
+        RealMatrix a = MatrixUtils.createRealMatrix(new double[][]{{1, lag}, {0, decay}});
+        RealMatrix b = MatrixUtils.createRealMatrix(new double[][]{{-maxVelocity * (dt - lag)}, {-maxVelocity * (1 - decay)}});
+        return new PlantModel(a, b, period);
+    }
+
+    /**
+     * @return how the state carries over to the next cycle
+     */
+    @NonNull
+    public RealMatrix getA() {
+        return a;
+    }
+
+    /**
+     * @return how the output changes the state over the next cycle
+     */
+    @NonNull
+    public RealMatrix getB() {
+        return b;
+    }
+
+    /**
+     * @return length of a cycle in milliseconds
+     */
+    public double getPeriod() {
+        return period;
+    }
+}
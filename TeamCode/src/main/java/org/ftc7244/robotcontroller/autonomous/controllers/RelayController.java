@@ -0,0 +1,128 @@
+package org.ftc7244.robotcontroller.autonomous.controllers;
+
+import static java.lang.Double.isNaN;
+
+/**
+ * Relay feedback experiment used to tune a ${@link PIDController}. Instead of correcting the error
+ * the output flips between full positive and negative amplitude every time the error crosses the
+ * hysteresis band, which makes the robot oscillate steadily around the target. The amplitude and
+ * period of that oscillation give the ultimate gain and period, the gain where a proportional only
+ * controller would oscillate forever and how fast it would, which a ${@link TuningRule} turns into
+ * gains. The first oscillation is ignored since it still depends on where the robot started.
+ */
+public class RelayController extends Controller {
+
+    private final double amplitude, hysteresis;
+    private final int cycles;
+
+    private double output, highest, lowest, totalSwing;
+    private long lastRise, totalPeriod;
+    private int measured, rises;
+
+    /**
+     * @param amplitude  output while the relay is on, this sets how far the robot swings
+     * @param hysteresis how far the error has to cross zero before the relay flips so noise does not flip it
+     * @param cycles     how many oscillations to measure after the first
+     * @param delay      the period the controller is meant to be updated at in milliseconds
+     * @param inputRange size of the range the input wraps around in or zero if it does not wrap
+     */
+    public RelayController(double amplitude, double hysteresis, int cycles, double delay, double inputRange) {
+        super(delay, amplitude, inputRange);
+        this.amplitude = Math.abs(amplitude);
+        this.hysteresis = Math.abs(hysteresis);
+        this.cycles = cycles;
+        reset();
+    }
+
+    @Override
+    public double update(double measured, double rate, long now) {
+        double error = wrap(getSetPoint() - measured);
+        highest = Math.max(highest, error);
+        lowest = Math.min(lowest, error);
+
+        if (output == 0) output = error >= 0 ? amplitude : -amplitude;
+        else if (output < 0 && error > hysteresis) {
+            //a full oscillation ends every time the relay turns back on
+            if (rises++ > 1) {
+                totalPeriod += now - lastRise;
+                totalSwing += (highest - lowest) / 2;
+                this.measured++;
+            }
+            lastRise = now;
+            highest = error;
+            lowest = error;
+            output = amplitude;
+        } else if (output > 0 && error < -hysteresis) output = -amplitude;
+
+        return output;
+    }
+
+    @Override
+    public void reset() {
+        output = 0;
+        highest = Double.NEGATIVE_INFINITY;
+        lowest = Double.POSITIVE_INFINITY;
+        totalSwing = 0;
+        totalPeriod = 0;
+        lastRise = 0;
+        measured = 0;
+        rises = 0;
+    }
+
+    /**
+     * @return if enough oscillations were measured
+     */
+    public boolean isFinished() {
+        return measured >= cycles;
+    }
+
+    /**
+     * @return how many oscillations were measured
+     */
+    public int getMeasured() {
+        return measured;
+    }
+
+    /**
+     * Half the distance between the highest and lowest error of each oscillation on average
+     *
+     * @return amplitude of the oscillation in units of the reading
+     */
+    public double getOscillation() {
+        return measured == 0 ? Double.NaN : totalSwing / measured;
+    }
+
+    /**
+     * The gain of a proportional only controller that would keep the robot oscillating. The
+     * hysteresis delays every flip so it is taken out of the oscillation first.
+     *
+     * @return the ultimate gain or NaN if nothing was measured
+     */
+    public double getUltimateGain() {
+        double oscillation = getOscillation();
+        if (isNaN(oscillation) || oscillation <= hysteresis) return Double.NaN;
+        return 4 * amplitude / (Math.PI * Math.sqrt(oscillation * oscillation - hysteresis * hysteresis));
+    }
+
+    /**
+     * @return the period of the oscillation in milliseconds or NaN if nothing was measured
+     */
+    public double getUltimatePeriod() {
+        return measured == 0 ? Double.NaN : totalPeriod / 1e6 / measured;
+    }
+
+    @Override
+    public double getProportional() {
+        return output;
+    }
+
+    @Override
+    public double getIntegral() {
+        return 0;
+    }
+
+    @Override
+    public double getDerivative() {
+        return 0;
+    }
+}
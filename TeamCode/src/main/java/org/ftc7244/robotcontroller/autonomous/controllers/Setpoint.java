@@ -0,0 +1,50 @@
+package org.ftc7244.robotcontroller.autonomous.controllers;
+
+import android.support.annotation.NonNull;
+
+import org.ftc7244.robotcontroller.sensor.RobotState;
+
+/**
+ * What a ${@link PIDDriveControl} should be doing during each cycle. It can move the target of the
+ * PID and add power on top of it so the loop can track a motion instead of holding still at a
+ * single value. ${@link ConstantSetpoint} keeps everything the same for the whole loop.
+ */
+public abstract class Setpoint {
+
+    /**
+     * Called once before the first cycle of the loop
+     *
+     * @param state the sensors at the start of the loop
+     */
+    public void start(@NonNull RobotState state) {
+    }
+
+    /**
+     * Called every cycle before the PID is updated
+     *
+     * @param state the sensors of the current cycle
+     */
+    public abstract void update(@NonNull RobotState state);
+
+    /**
+     * @return the value the PID should hold the reading at this cycle
+     */
+    public abstract double getTarget();
+
+    /**
+     * Power added to the output of the PID, positive turns the robot the same way as a positive PID
+     * output
+     *
+     * @return power from -1 to 1
+     */
+    public double getFeedforward() {
+        return 0;
+    }
+
+    /**
+     * Power added to both sides to drive while the PID steers
+     *
+     * @return power from -1 to 1
+     */
+    public abstract double getPowerOffset();
+}
@@ -0,0 +1,81 @@
+package org.ftc7244.robotcontroller.autonomous.controllers;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Rules that turn the ultimate gain and period measured by a ${@link RelayController} into the gains
+ * of a ${@link PIDController}. Each rule is a fraction of the ultimate gain for the proportional and
+ * fractions of the ultimate period for the integral and derivative times. The gains match the units
+ * of the ${@link PIDController} which integrates and differentiates over milliseconds.
+ */
+public enum TuningRule {
+    /**
+     * The classic rule, responds quickly but overshoots by about a quarter
+     */
+    ZIEGLER_NICHOLS(0.6, 0.5, 0.125),
+    /**
+     * Reacts harder to disturbances than Ziegler Nichols at the cost of more overshoot
+     */
+    PESSEN_INTEGRAL(0.7, 0.4, 0.15),
+    /**
+     * Overshoots a little but settles quickly
+     */
+    SOME_OVERSHOOT(0.33, 0.5, 0.33),
+    /**
+     * Slower but should not overshoot
+     */
+    NO_OVERSHOOT(0.2, 0.5, 0.33),
+    /**
+     * Conservative rule with a long integral time, the least sensitive to the robot changing
+     */
+    TYREUS_LUYBEN(1 / 2.2, 2.2, 1 / 6.3);
+
+    private final double proportional, integralTime, derivativeTime;
+
+    TuningRule(double proportional, double integralTime, double derivativeTime) {
+        this.proportional = proportional;
+        this.integralTime = integralTime;
+        this.derivativeTime = derivativeTime;
+    }
+
+    /**
+     * @param ultimateGain the gain where a proportional controller oscillates forever
+     * @return the proportional gain
+     */
+    public double getProportional(double ultimateGain) {
+        return proportional * ultimateGain;
+    }
+
+    /**
+     * @param ultimateGain   the gain where a proportional controller oscillates forever
+     * @param ultimatePeriod the period of that oscillation in milliseconds
+     * @return the integral gain per millisecond
+     */
+    public double getIntegral(double ultimateGain, double ultimatePeriod) {
+        return getProportional(ultimateGain) / (integralTime * ultimatePeriod);
+    }
+
+    /**
+     * @param ultimateGain   the gain where a proportional controller oscillates forever
+     * @param ultimatePeriod the period of that oscillation in milliseconds
+     * @return the derivative gain in milliseconds
+     */
+    public double getDerivative(double ultimateGain, double ultimatePeriod) {
+        return getProportional(ultimateGain) * derivativeTime * ultimatePeriod;
+    }
+
+    /**
+     * Set the gains of a builder from the result of a relay experiment
+     *
+     * @param builder        the builder to change
+     * @param ultimateGain   the gain where a proportional controller oscillates forever
+     * @param ultimatePeriod the period of that oscillation in milliseconds
+     * @return the same builder
+     */
+    @NonNull
+    public PIDControllerBuilder apply(@NonNull PIDControllerBuilder builder, double ultimateGain, double ultimatePeriod) {
+        return builder.setProportional(getProportional(ultimateGain))
+                .setIntegral(getIntegral(ultimateGain, ultimatePeriod))
+                .setDerivative(getDerivative(ultimateGain, ultimatePeriod));
+    }
+}
@@ -4,6 +4,9 @@ import com.qualcomm.robotcore.hardware.DcMotor;
 import com.qualcomm.robotcore.util.RobotLog;
 
 import org.ftc7244.robotcontroller.Westcoast;
+import org.ftc7244.robotcontroller.autonomous.Status;
+import org.ftc7244.robotcontroller.autonomous.controllers.FixedRateScheduler;
+import org.ftc7244.robotcontroller.sensor.Encoder;
 
 /**
  * Created by FTC 7244 on 3/19/2017.
@@ -15,9 +18,11 @@ public class EncoderDrive {
     private final static int ENCODER_THRESHOLD = 100;
 
     private Westcoast robot;
+    private FixedRateScheduler scheduler;
 
     public EncoderDrive(Westcoast robot) {
         this.robot = robot;
+        this.scheduler = new FixedRateScheduler(1000 / Westcoast.SENSOR_UPDATE_RATE_HZ);
     }
 
     /**
@@ -31,30 +36,34 @@ public class EncoderDrive {
     public void drive(double power, double leftInches, double rightInches) throws InterruptedException {
         //Initialize values
         DcMotor left = robot.getDriveLeft(), right = robot.getDriveRight();
-        Westcoast.resetMotors(right, left);
+        Encoder leftEncoder = robot.getDriveLeftEncoder(), rightEncoder = robot.getDriveRightEncoder();
+        leftEncoder.update();
+        rightEncoder.update();
+        robot.resetDriveEncoders();
 
         int targetLeft = initEncoderMotor(left, leftInches, power);
         int targetRight = initEncoderMotor(right, rightInches, power);
         RobotLog.i("Target Left " + targetLeft + " Right" + targetRight);
 
         // keep looping while we are still active, and there is time left, and both motors are running.
-        int lastLeft = 0, lastRight = 0;
-        while (left.getPower() != 0 || right.getPower() != 0) {
-            if (lastLeft != left.getCurrentPosition() || lastRight != right.getCurrentPosition()) {
-                lastLeft = left.getCurrentPosition();
-                lastRight = right.getCurrentPosition();
-                RobotLog.i("Drive Left " + left.getCurrentPosition() + " Right" + right.getCurrentPosition());
+        long lastLeft = 0, lastRight = 0;
+        scheduler.start();
+        while ((left.getPower() != 0 || right.getPower() != 0) && !Status.isStopRequested()) {
+            //the encoders only change as fast as the sensors update so there is no point spinning faster
+            scheduler.awaitNextCycle();
+            long leftPosition = leftEncoder.update(), rightPosition = rightEncoder.update();
+            if (lastLeft != leftPosition || lastRight != rightPosition) {
+                lastLeft = leftPosition;
+                lastRight = rightPosition;
+                RobotLog.i("Drive Left " + leftPosition + " Right" + rightPosition);
             }
-            stopWhenComplete(left, targetLeft, ENCODER_THRESHOLD);
-            stopWhenComplete(right, targetRight, ENCODER_THRESHOLD);
+            stopWhenComplete(left, leftPosition, targetLeft, ENCODER_THRESHOLD);
+            stopWhenComplete(right, rightPosition, targetRight, ENCODER_THRESHOLD);
         }
 
         // Stop all motion
         left.setPower(0);
         right.setPower(0);
-
-        // Turn off RUN_TO_POSITION
-        Westcoast.resetMotors(left, right);
         Westcoast.sleep(500);
     }
 
@@ -77,14 +86,14 @@ public class EncoderDrive {
         }
         int distanceTicks = (int) (Math.round(distance * COUNTS_PER_INCH));
 
-        motor.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
-        motor.setTargetPosition(distanceTicks);
+        //the motors stay in RUN_USING_ENCODER from Westcoast#init so the power is a regulated speed
+        //and the distance is counted in software
         motor.setPower(power * (distance > 0 ? 1 : -1));
         return distanceTicks;
     }
 
-    private boolean stopWhenComplete(DcMotor motor, int target, int threshold) {
-        if (Math.sqrt(Math.pow(target, 2) - Math.pow(motor.getCurrentPosition(), 2)) >= threshold) {
+    private boolean stopWhenComplete(DcMotor motor, long position, int target, int threshold) {
+        if (Math.sqrt(Math.pow(target, 2) - Math.pow(position, 2)) >= threshold) {
             return false;
         }
 
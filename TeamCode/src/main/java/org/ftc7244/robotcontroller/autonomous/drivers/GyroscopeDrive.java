@@ -1,18 +1,35 @@
 package org.ftc7244.robotcontroller.autonomous.drivers;
 
+import android.support.annotation.NonNull;
+
 import com.qualcomm.robotcore.hardware.LightSensor;
 import com.qualcomm.robotcore.util.RobotLog;
 
 import org.ftc7244.robotcontroller.Debug;
 import org.ftc7244.robotcontroller.Westcoast;
+import org.ftc7244.robotcontroller.autonomous.Status;
+import org.ftc7244.robotcontroller.autonomous.controllers.Controller;
 import org.ftc7244.robotcontroller.autonomous.controllers.PIDControllerBuilder;
 import org.ftc7244.robotcontroller.autonomous.controllers.PIDDriveControl;
+import org.ftc7244.robotcontroller.autonomous.controllers.PlantModel;
+import org.ftc7244.robotcontroller.autonomous.profiles.DriveProfileSetpoint;
+import org.ftc7244.robotcontroller.autonomous.profiles.MotionProfile;
+import org.ftc7244.robotcontroller.autonomous.profiles.PointSetpoint;
+import org.ftc7244.robotcontroller.autonomous.profiles.RotateProfileSetpoint;
+import org.ftc7244.robotcontroller.autonomous.profiles.SCurveProfile;
 import org.ftc7244.robotcontroller.autonomous.terminators.ConditionalTerminator;
+import org.ftc7244.robotcontroller.autonomous.terminators.EventTerminator;
 import org.ftc7244.robotcontroller.autonomous.terminators.SensitivityTerminator;
+import org.ftc7244.robotcontroller.autonomous.terminators.TerminationContext;
 import org.ftc7244.robotcontroller.autonomous.terminators.TerminationMode;
 import org.ftc7244.robotcontroller.autonomous.terminators.Terminator;
 import org.ftc7244.robotcontroller.autonomous.terminators.TimerTerminator;
+import org.ftc7244.robotcontroller.sensor.LineDetector;
+import org.ftc7244.robotcontroller.sensor.Pose;
+import org.ftc7244.robotcontroller.sensor.PoseEstimator;
+import org.ftc7244.robotcontroller.sensor.RobotState;
 import org.ftc7244.robotcontroller.sensor.gyroscope.GyroscopeProvider;
+import org.ftc7244.robotcontroller.sensor.gyroscope.OrientationSample;
 
 /**
  * This class is instrumental in the control of the robot and uses the gyroscope as a frame of
@@ -21,7 +38,21 @@ import org.ftc7244.robotcontroller.sensor.gyroscope.GyroscopeProvider;
  */
 public class GyroscopeDrive extends PIDDriveControl {
 
+    //limits of the motion profiles, below the maximums of the robot so the feedforward has room to correct
+    private static final double DRIVE_ACCELERATION = Westcoast.MAX_ACCELERATION * 0.5, DRIVE_JERK = DRIVE_ACCELERATION * 4;
+    private static final double ROTATE_VELOCITY = Westcoast.MAX_ANGULAR_VELOCITY * 0.6,
+            ROTATE_ACCELERATION = Westcoast.MAX_ANGULAR_ACCELERATION * 0.5, ROTATE_JERK = ROTATE_ACCELERATION * 4;
+    //how close a move has to end to its target in inches and degrees and how long it can take to settle in milliseconds
+    private static final double DRIVE_TOLERANCE = 0.25, ROTATE_TOLERANCE = 1;
+    private static final long SETTLE_TIMEOUT = 1000;
+    /**
+     * Longest a sample is carried forward at its rate in nanoseconds, anything older is a stalled
+     * sensor and guessing further would only add error
+     */
+    private static final long MAX_EXTRAPOLATION = 50000000;
+
     private GyroscopeProvider gyroProvider;
+    private OrientationSample sample;
 
     /**
      * Same as the parent constructor but passes a debug as fault by default since most users will
@@ -31,21 +62,62 @@ public class GyroscopeDrive extends PIDDriveControl {
      * @param gyroProvider base way to read gyroscope values
      */
     public GyroscopeDrive(Westcoast robot, GyroscopeProvider gyroProvider) {
-        super(new PIDControllerBuilder()
-                        .setProportional(0.02)
-                        .setIntegral(0.00004)
-                        .setDerivative(3.5)
-                        .setDelay(30)
-                        .setIntegralRange(6)
-                        .setOutputRange(0.8)
-                        .createController(),
-                robot);
+        this(robot, gyroProvider, new PIDControllerBuilder()
+                .setProportional(0.02)
+                .setIntegral(0.00004)
+                .setDerivative(3.5)
+                .setDelay(1000d / Westcoast.NAVX_DEVICE_UPDATE_RATE_HZ)
+                .setIntegralRange(6)
+                .setOutputRange(0.8)
+                .setInputRange(360)
+                .load(GyroscopeDrive.class.getSimpleName())
+                .createController());
+    }
+
+    /**
+     * Same as ${@link #GyroscopeDrive(Westcoast, GyroscopeProvider)} with a different control law for
+     * the heading. It should wrap its input at 360 degrees like the PID.
+     *
+     * @param robot        access to motors on the robot
+     * @param gyroProvider base way to read gyroscope values
+     * @param controller   turns the heading error into turning power
+     */
+    public GyroscopeDrive(Westcoast robot, GyroscopeProvider gyroProvider, Controller controller) {
+        super(controller, robot);
         this.gyroProvider = gyroProvider;
+        this.sample = new OrientationSample();
+    }
+
+    /**
+     * How the heading responds to turning power at the rate of the NavX, for controllers that plan
+     * with a model such as ${@link org.ftc7244.robotcontroller.autonomous.controllers.LQRController}
+     *
+     * @return model of the heading in degrees
+     */
+    @NonNull
+    public static PlantModel getHeadingModel() {
+        return PlantModel.firstOrder(Westcoast.MAX_ANGULAR_VELOCITY, Westcoast.MAX_ANGULAR_ACCELERATION, 1000d / Westcoast.NAVX_DEVICE_UPDATE_RATE_HZ);
     }
 
+    /**
+     * The heading carried forward from when the gyroscope measured it to when the sensors of the cycle
+     * were polled. The samples spend 10 to 30 milliseconds getting to the phone so without this the
+     * PID would act on where the robot was pointing instead of where it is pointing.
+     */
     @Override
     public double getReading() {
-        return this.gyroProvider.getZ();
+        gyroProvider.readSnapshot(sample);
+        double age = Math.max(0, Math.min(MAX_EXTRAPOLATION, sample.getAge(state.getTimestamp()))) / 1e9;
+        double heading = sample.getZ() + sample.getZRate() * age;
+        return ((heading + 540) % 360) - 180;
+    }
+
+    /**
+     * @return the rate of the sample read by the last ${@link #getReading()} in degrees per second
+     */
+    @Override
+    public double getRate() {
+        return sample.getZRate();
     }
 
     public void drive(double power, double inches) throws InterruptedException {
@@ -55,25 +127,87 @@ public class GyroscopeDrive extends PIDDriveControl {
     /**
      * This will combine the rotate function from the PID loop with a power offset. The power offset
      * then will then be added to the PID to get the drive. It is important to note that both motors
-     * are reset before driving is started and will end once it reaches it's target in inches.
+     * are reset before driving is started and will end once it reaches it's target in inches. To
+     * speed up and slow down smoothly use ${@link #drive(MotionProfile, double)} instead.
      *
      * @param power  offset of the PID from -1 to 1
      * @param inches total distance to travel
+     * @param target heading to hold in degrees
      * @throws InterruptedException if code fails to terminate on stop requested
      */
     public void drive(double power, double inches, double target) throws InterruptedException {
-        final double ticks = inches * Westcoast.COUNTS_PER_INCH;
-        Westcoast.resetMotors(robot.getDriveLeft(), robot.getDriveRight());
+        robot.resetDriveEncoders();
         if (inches <= 0) RobotLog.e("Invalid distances!");
-        final int offset = getEncoderAverage();
+        final double ticks = inches * Westcoast.COUNTS_PER_INCH;
+        final long offset = robot.getSensors().awaitState(state).getDriveAverage();
+
         control(target, power, new Terminator() {
             @Override
-            public boolean shouldTerminate() {
-                return Math.abs(getEncoderAverage() - offset) >= ticks;
+            public boolean shouldTerminate(@NonNull TerminationContext context) {
+                return Math.abs(context.getState().getDriveAverage() - offset) >= ticks;
             }
         });
     }
 
+    /**
+     * Drive along a motion profile while holding the heading. The drive ends once the profile is over
+     * and the encoders are within a quarter inch of the distance or after it has had a second to settle.
+     *
+     * @param profile the drive in inches, negative drives backwards
+     * @param target  heading to hold in degrees
+     * @throws InterruptedException if code fails to terminate on stop requested
+     */
+    public void drive(@NonNull MotionProfile profile, double target) throws InterruptedException {
+        drive(new DriveProfileSetpoint(profile, target));
+    }
+
+    private void drive(@NonNull final DriveProfileSetpoint setpoint) throws InterruptedException {
+        robot.resetDriveEncoders();
+        control(setpoint, new ConditionalTerminator(
+                new Terminator() {
+                    @Override
+                    public boolean shouldTerminate(@NonNull TerminationContext context) {
+                        return setpoint.isFinished() && Math.abs(setpoint.getError()) < DRIVE_TOLERANCE;
+                    }
+                },
+                new TimerTerminator((long) (setpoint.getProfile().getDuration() * 1000) + SETTLE_TIMEOUT)));
+    }
+
+    /**
+     * Rotate to face a point on the field. Unlike chaining rotations the angle comes from the pose so
+     * errors from earlier moves do not add up.
+     *
+     * @param estimator where the pose of the robot comes from
+     * @param x         x position of the point in inches
+     * @param y         y position of the point in inches
+     * @throws InterruptedException if code fails to terminate on stop requested
+     */
+    public void turnToPoint(@NonNull PoseEstimator estimator, double x, double y) throws InterruptedException {
+        Pose pose = estimator.readPose(new Pose());
+        double turn = PoseEstimator.normalize(pose.bearingTo(x, y) - pose.getHeading());
+        if (Math.abs(turn) > ROTATE_TOLERANCE) rotate(turn);
+    }
+
+    /**
+     * Rotate to face a point on the field and then drive to it along an ${@link SCurveProfile} while
+     * steering towards it. The distance comes from the pose so the robot ends up at the point even if
+     * earlier moves came up short.
+     *
+     * @param estimator where the pose of the robot comes from
+     * @param x         x position of the point in inches
+     * @param y         y position of the point in inches
+     * @param power     cruising speed as a fraction of ${@link Westcoast#MAX_VELOCITY}
+     * @throws InterruptedException if code fails to terminate on stop requested
+     */
+    public void driveToPoint(@NonNull PoseEstimator estimator, double x, double y, double power) throws InterruptedException {
+        turnToPoint(estimator, x, y);
+        Pose pose = estimator.readPose(new Pose());
+        double distance = pose.distanceTo(x, y);
+        if (distance < DRIVE_TOLERANCE) return;
+        MotionProfile profile = new SCurveProfile(distance, Math.abs(power) * Westcoast.MAX_VELOCITY, DRIVE_ACCELERATION, DRIVE_JERK);
+        drive(new PointSetpoint(profile, estimator, x, y, gyroProvider.getZ(), pose.getHeading()));
+    }
+
     /**
      * This is similar to the ${@link #drive(double, double)} but is different because it has different
      * termination requirements. This method only takes power and which sensor to read for to know
@@ -115,45 +249,57 @@ public class GyroscopeDrive extends PIDDriveControl {
      * @throws InterruptedException if code fails to terminate on stop requested
      */
     public void driveUntilLine(double power, Sensor mode, double offsetDistance, final double minDistance, final double maxDistance) throws InterruptedException {
-        Westcoast.resetMotors(robot.getDriveLeft(), robot.getDriveRight());
+        robot.resetDriveEncoders();
         if (offsetDistance <= 0) RobotLog.e("Invalid distances!");
         final double ticks = offsetDistance * Westcoast.COUNTS_PER_INCH,
                 maxTicks = maxDistance * Westcoast.COUNTS_PER_INCH,
                 minTicks = minDistance * Westcoast.COUNTS_PER_INCH;
-        final int encoderError = getEncoderAverage();
+        final long encoderError = robot.getSensors().awaitState(state).getDriveAverage();
 
         control(0, power, new ConditionalTerminator(
                         new Terminator() {
                             @Override
-                            public boolean shouldTerminate() {
-                                return Math.abs(getEncoderAverage() - encoderError) >= maxTicks && maxTicks > 0;
+                            public boolean shouldTerminate(@NonNull TerminationContext context) {
+                                return Math.abs(context.getState().getDriveAverage() - encoderError) >= maxTicks && maxTicks > 0;
                             }
                         },
-                        new ConditionalTerminator(TerminationMode.AND,
-                                new LineTerminator(mode, encoderError, ticks),
-                                new Terminator() {
-                                    @Override
-                                    public boolean shouldTerminate() {
-                                        return Math.abs(getEncoderAverage() - encoderError) > minTicks || minTicks <= 0;
-                                    }
-                                }
-                        )
+                        new LineTerminator(mode, ticks, encoderError, minTicks)
                 )
         );
     }
 
 
     /**
-     * This will rotate the robot until it is within 2 degrees for 300 milliseconds. It will also
-     * manually terminate if the rotate takes longer than two seconds. This is important because
-     * in certain scenarios the robot can be stuck and be unable to complete the rotation.
+     * This will rotate the robot along an ${@link SCurveProfile} and then wait until it is within a
+     * degree for 100 milliseconds. It will also manually terminate if the rotate takes more than a
+     * second longer than the profile. This is important because in certain scenarios the robot can
+     * be stuck and be unable to complete the rotation.
      *
      * @param degrees target orientation in degrees
      * @throws InterruptedException if code fails to terminate on stop requested
      */
     public void rotate(double degrees) throws InterruptedException {
-        double target = degrees + gyroProvider.getZ();
-        control(target, 0, new ConditionalTerminator(new SensitivityTerminator(this, degrees, 1, 300), new TimerTerminator(2000)));
+        rotate(new SCurveProfile(degrees, ROTATE_VELOCITY, ROTATE_ACCELERATION, ROTATE_JERK));
+    }
+
+    /**
+     * Rotate along a motion profile from the current heading and then reset the orientation
+     *
+     * @param profile the turn in degrees, positive is clockwise
+     * @throws InterruptedException if code fails to terminate on stop requested
+     */
+    public void rotate(@NonNull MotionProfile profile) throws InterruptedException {
+        final RotateProfileSetpoint setpoint = new RotateProfileSetpoint(profile, gyroProvider.getZ());
+        control(setpoint, new ConditionalTerminator(
+                new ConditionalTerminator(TerminationMode.AND,
+                        new Terminator() {
+                            @Override
+                            public boolean shouldTerminate(@NonNull TerminationContext context) {
+                                return setpoint.isFinished();
+                            }
+                        },
+                        new SensitivityTerminator(setpoint.getEnd(), ROTATE_TOLERANCE, 100, 360)),
+                new TimerTerminator((long) (profile.getDuration() * 1000) + SETTLE_TIMEOUT)));
         //if (target - gyroProvider.getZ() >= 10) gyroProvider.setZOffset(target + gyroProvider.getZOffset());
         //else resetOrientation();
         resetOrientation();
@@ -167,67 +313,100 @@ public class GyroscopeDrive extends PIDDriveControl {
     public void resetOrientation() throws InterruptedException {
         do {
             gyroProvider.setZToZero();
-            Thread.sleep(1);
-        } while (Math.abs(Math.round(gyroProvider.getZ())) > 1);
+            Westcoast.sleep(1);
+        } while (Math.abs(Math.round(gyroProvider.getZ())) > 1 && !Status.isStopRequested());
     }
 
-    private int getEncoderAverage() {
-        return (robot.getDriveLeft().getCurrentPosition() + robot.getDriveRight().getCurrentPosition()) / 2;
+    /**
+     * Change the gyroscope used for readings
+     *
+     * @param gyroProvider base way to read gyroscope values
+     */
+    public void setGyroProvider(GyroscopeProvider gyroProvider) {
+        this.gyroProvider = gyroProvider;
     }
 
     /**
      * Which light sensor to use based off the the user input. This only allows the code to be more
-     * streamlined in choice of sensor
+     * streamlined in choice of sensor. Each has the least amount the line reads brighter than the
+     * carpet, the actual threshold is learned by a ${@link LineDetector}.
      */
     public enum Sensor {
-        Leading(0.3),
-        Trailing(0.3);
+        Leading(0.1),
+        Trailing(0.1);
 
-        protected double white;
+        protected double contrast;
 
-        Sensor(double white) {
-            this.white = white;
+        Sensor(double contrast) {
+            this.contrast = contrast;
         }
     }
 
     /**
      * Controls how far after the robot should drive if it passes the line and when to trigger that.
      * It also respects if the request to terminate was ignored and continues to only drive until
-     * a specific set of parameters were fulfilled;
+     * a specific set of parameters were fulfilled. The light of the sensor is turned on when it is
+     * created and off once the loop ends.
+     * <p>
+     * Every polled state is checked by a ${@link LineDetector} which learns the carpet and places
+     * the edges of the line between samples. Without a distance the robot stops at the start of the
+     * line, otherwise the distance is measured from where the sensor left it. Lines passed before
+     * the minimum distance are forgotten.
      */
-    private class LineTerminator extends Terminator {
+    private class LineTerminator extends EventTerminator {
 
-        private double driveAfterDistance, offset, encoderError;
+        private double driveAfterDistance, minDistance;
+        private long encoderError;
         private LightSensor sensor;
-        private double white;
+        private boolean trailing;
+        private LineDetector detector;
 
-        public LineTerminator(Sensor mode, double encoderError, double driveAfterDistance) {
-            this.sensor = mode == Sensor.Trailing ? robot.getTrailingLight() : robot.getLeadingLight();
+        public LineTerminator(Sensor mode, double driveAfterDistance, long encoderError, double minDistance) {
+            super(robot.getSensors());
+            this.trailing = mode == Sensor.Trailing;
+            this.sensor = trailing ? robot.getTrailingLight() : robot.getLeadingLight();
             this.driveAfterDistance = driveAfterDistance;
-            this.white = mode.white;
-            this.offset = 0;
             this.encoderError = encoderError;
+            this.minDistance = minDistance;
+            this.detector = new LineDetector(mode.contrast);
+            sensor.enableLed(true);
         }
 
         @Override
-        public boolean shouldTerminate() {
-            if (Debug.STATUS) RobotLog.ii("Light", sensor.getLightDetected() + "");
-            if (sensor.getLightDetected() > white) {
-                offset = getEncoderAverage();
-            } else sensor.enableLed(true);
+        protected boolean check(@NonNull RobotState state) {
+            double light = trailing ? state.getTrailingLight() : state.getLeadingLight();
+            if (Debug.STATUS) RobotLog.ii("Light", light + "");
+            detector.update(light, state.getDriveAverage(), state.getTimestamp());
+            //the carpet is still learned but a line this early is not the one being searched for
+            if (minDistance > 0 && Math.abs(state.getDriveAverage() - encoderError) <= minDistance) {
+                detector.resetLine();
+                return false;
+            }
+            if (!detector.hasSeenLine()) return false;
+            if (driveAfterDistance <= 0) return true;
 
-            return status();
+            return !detector.isOnLine() && Math.abs(state.getDriveAverage() - detector.getExitPosition()) >= driveAfterDistance;
         }
 
-        private boolean status() {
-            return Math.abs(getEncoderAverage() - encoderError - offset) >= driveAfterDistance && offset != 0;
+        @Override
+        protected void ignored() {
+            detector.resetLine();
         }
 
         @Override
         public void terminated(boolean status) {
-            if (!status && status()) offset = 0;
-            if (status) sensor.enableLed(false);
+            super.terminated(status);
+            if (!status) return;
+            sensor.enableLed(false);
+            if (Debug.STATUS && getTriggerTimestamp() != -1)
+                RobotLog.ii("LINE", "|" + getTriggerTimestamp() / 1e6 + "|" + getTriggerPosition() + "|" + detector.getEntryPosition()
+                        + "|" + detector.getExitPosition() + "|" + detector.getBaseline() + "|" + detector.getDeviation());
+        }
 
+        @Override
+        protected int getDefaultCost() {
+            //it logs every reading
+            return HIGH_COST;
         }
     }
 }
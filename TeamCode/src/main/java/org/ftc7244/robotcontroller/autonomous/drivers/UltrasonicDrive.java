@@ -30,14 +30,15 @@ public class UltrasonicDrive extends PIDDriveControl {
                         .setIntegralRange(0.75)
                         .setIntegralReset(true)
                         .setOutputRange(.22)
+                        .load(UltrasonicDrive.class.getSimpleName())
                         .createController(),
                 robot);
     }
 
     @Override
     public double getReading() {
-        double leading = robot.getLeadingUltrasonic().getUltrasonicLevel() - OFFSET_LEADING;
-        double trailing = robot.getTrailingUltrasonic().getUltrasonicLevel() - OFFSET_TRAILING;
+        double leading = state.getLeadingUltrasonic() - OFFSET_LEADING;
+        double trailing = state.getTrailingUltrasonic() - OFFSET_TRAILING;
 
         return leading - trailing;
     }
@@ -50,6 +51,6 @@ public class UltrasonicDrive extends PIDDriveControl {
      * @throws InterruptedException if code fails to terminate on stop requested
      */
     public void parallelize() throws InterruptedException {
-        control(0, 0, new ConditionalTerminator(new SensitivityTerminator(this, 0, 0.08, 90), new TimerTerminator(5000)));
+        control(0, 0, new ConditionalTerminator(new SensitivityTerminator(0, 0.08, 90), new TimerTerminator(5000)));
     }
 }
@@ -0,0 +1,72 @@
+package org.ftc7244.robotcontroller.autonomous.profiles;
+
+import android.support.annotation.NonNull;
+
+import org.ftc7244.robotcontroller.Westcoast;
+import org.ftc7244.robotcontroller.sensor.RobotState;
+
+/**
+ * Drives along a ${@link MotionProfile} in inches while the PID holds the heading. The power comes
+ * from the planned velocity and acceleration with a small correction for how far the encoders are
+ * from where the profile expects them to be.
+ */
+public class DriveProfileSetpoint extends ProfileSetpoint {
+
+    /**
+     * Power for every inch the robot is behind the profile
+     */
+    private static final double POSITION_GAIN = 0.05;
+
+    private final double heading;
+    private long offset;
+    private double error, power;
+
+    /**
+     * @param profile the drive in inches, negative to drive backwards
+     * @param heading the heading to hold in degrees
+     */
+    public DriveProfileSetpoint(@NonNull MotionProfile profile, double heading) {
+        super(profile);
+        this.heading = heading;
+    }
+
+    @Override
+    public void start(@NonNull RobotState state) {
+        super.start(state);
+        offset = state.getDriveAverage();
+        error = profile.getDistance();
+        power = 0;
+    }
+
+    @Override
+    protected void update(@NonNull RobotState state, double position, double velocity, double acceleration) {
+        error = position - getDistance(state);
+        power = velocity / Westcoast.MAX_VELOCITY + acceleration / Westcoast.MAX_ACCELERATION + error * POSITION_GAIN;
+        power = Math.max(-1, Math.min(1, power));
+    }
+
+    /**
+     * @param state the sensors of a cycle
+     * @return inches driven since the loop started
+     */
+    public double getDistance(@NonNull RobotState state) {
+        return (state.getDriveAverage() - offset) / Westcoast.COUNTS_PER_INCH;
+    }
+
+    /**
+     * @return inches the robot is short of the profile as of the last update
+     */
+    public double getError() {
+        return error;
+    }
+
+    @Override
+    public double getTarget() {
+        return heading;
+    }
+
+    @Override
+    public double getPowerOffset() {
+        return power;
+    }
+}
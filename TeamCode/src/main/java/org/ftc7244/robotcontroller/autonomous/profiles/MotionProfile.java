@@ -0,0 +1,127 @@
+package org.ftc7244.robotcontroller.autonomous.profiles;
+
+import java.util.Arrays;
+
+/**
+ * Plans a move from rest to rest over a set distance as a series of phases where the jerk is
+ * constant. The position, velocity and acceleration at any time during the move can then be
+ * sampled and tracked by a control loop. Units are whatever the distance is in, inches for a drive
+ * or degrees for a rotation, with time in seconds.
+ */
+public abstract class MotionProfile {
+
+    private final double distance, direction;
+    private double[] starts, positions, velocities, accelerations, jerks;
+    private int phases;
+    private double duration;
+
+    /**
+     * @param distance how far to move, negative to move backwards
+     */
+    protected MotionProfile(double distance) {
+        this.distance = distance;
+        this.direction = distance < 0 ? -1 : 1;
+        this.starts = new double[7];
+        this.positions = new double[7];
+        this.velocities = new double[7];
+        this.accelerations = new double[7];
+        this.jerks = new double[7];
+    }
+
+    /**
+     * Add the next phase of the move. The position and velocity carry on from the end of the previous
+     * phase and are always planned as if the distance were positive.
+     *
+     * @param length       duration of the phase in seconds, phases without a duration are skipped
+     * @param acceleration acceleration at the start of the phase
+     * @param jerk         rate the acceleration changes during the phase
+     */
+    protected void addPhase(double length, double acceleration, double jerk) {
+        if (length <= 0) return;
+        if (phases == starts.length) {
+            starts = Arrays.copyOf(starts, phases * 2);
+            positions = Arrays.copyOf(positions, phases * 2);
+            velocities = Arrays.copyOf(velocities, phases * 2);
+            accelerations = Arrays.copyOf(accelerations, phases * 2);
+            jerks = Arrays.copyOf(jerks, phases * 2);
+        }
+        double position = 0, velocity = 0;
+        if (phases > 0) {
+            int last = phases - 1;
+            double elapsed = duration - starts[last];
+            position = position(last, elapsed);
+            velocity = velocity(last, elapsed);
+        }
+        starts[phases] = duration;
+        positions[phases] = position;
+        velocities[phases] = velocity;
+        accelerations[phases] = acceleration;
+        jerks[phases] = jerk;
+        phases++;
+        duration += length;
+    }
+
+    private double position(int phase, double t) {
+        return positions[phase] + velocities[phase] * t + accelerations[phase] * t * t / 2 + jerks[phase] * t * t * t / 6;
+    }
+
+    private double velocity(int phase, double t) {
+        return velocities[phase] + accelerations[phase] * t + jerks[phase] * t * t / 2;
+    }
+
+    /**
+     * @return the phase that is active at the time, the first or last phase if outside the move
+     */
+    private int phase(double time) {
+        int phase = phases - 1;
+        while (phase > 0 && starts[phase] > time) phase--;
+        return phase;
+    }
+
+    /**
+     * Where the move should be at the time given
+     *
+     * @param time seconds since the start of the move
+     * @return position from the start of the move, the full distance once the move is over
+     */
+    public double getPosition(double time) {
+        if (phases == 0 || time >= duration) return distance;
+        if (time <= 0) return 0;
+        int phase = phase(time);
+        return direction * position(phase, time - starts[phase]);
+    }
+
+    /**
+     * @param time seconds since the start of the move
+     * @return the planned velocity, zero before and after the move
+     */
+    public double getVelocity(double time) {
+        if (phases == 0 || time >= duration || time <= 0) return 0;
+        int phase = phase(time);
+        return direction * velocity(phase, time - starts[phase]);
+    }
+
+    /**
+     * @param time seconds since the start of the move
+     * @return the planned acceleration, zero before and after the move
+     */
+    public double getAcceleration(double time) {
+        if (phases == 0 || time >= duration || time <= 0) return 0;
+        int phase = phase(time);
+        return direction * (accelerations[phase] + jerks[phase] * (time - starts[phase]));
+    }
+
+    /**
+     * @return how long the move takes in seconds
+     */
+    public double getDuration() {
+        return duration;
+    }
+
+    /**
+     * @return the distance the move ends at
+     */
+    public double getDistance() {
+        return distance;
+    }
+}
@@ -0,0 +1,59 @@
+package org.ftc7244.robotcontroller.autonomous.profiles;
+
+import android.support.annotation.NonNull;
+
+import org.ftc7244.robotcontroller.sensor.Pose;
+import org.ftc7244.robotcontroller.sensor.PoseEstimator;
+import org.ftc7244.robotcontroller.sensor.RobotState;
+
+/**
+ * Drives along a ${@link MotionProfile} like ${@link DriveProfileSetpoint} but keeps steering towards
+ * a point on the field so any drift is corrected along the way. Close to the point the bearing
+ * changes too quickly to follow so the last heading is held instead.
+ */
+public class PointSetpoint extends DriveProfileSetpoint {
+
+    /**
+     * Distance from the point in inches where the robot stops steering towards it
+     */
+    private static final double HOLD_DISTANCE = 6;
+
+    private final PoseEstimator estimator;
+    private final Pose pose;
+    private final double x, y, headingOffset;
+    private double target;
+
+    /**
+     * @param profile       the drive in inches
+     * @param estimator     where the pose of the robot comes from
+     * @param x             x position of the point in inches
+     * @param y             y position of the point in inches
+     * @param heading       the reading of the gyroscope at the start
+     * @param fieldHeading  the field heading of the pose at the start
+     */
+    public PointSetpoint(@NonNull MotionProfile profile, @NonNull PoseEstimator estimator, double x, double y, double heading, double fieldHeading) {
+        super(profile, heading);
+        this.estimator = estimator;
+        this.pose = new Pose();
+        this.x = x;
+        this.y = y;
+        //the gyroscope is relative to its last reset while the bearing is relative to the field
+        this.headingOffset = fieldHeading - heading;
+        this.target = heading;
+    }
+
+    @Override
+    protected void update(@NonNull RobotState state, double position, double velocity, double acceleration) {
+        super.update(state, position, velocity, acceleration);
+        estimator.readPose(pose);
+        if (pose.distanceTo(x, y) > HOLD_DISTANCE) {
+            double turn = PoseEstimator.normalize(pose.bearingTo(x, y) - headingOffset - target);
+            target += turn;
+        }
+    }
+
+    @Override
+    public double getTarget() {
+        return target;
+    }
+}
@@ -0,0 +1,64 @@
+package org.ftc7244.robotcontroller.autonomous.profiles;
+
+import android.support.annotation.NonNull;
+
+import org.ftc7244.robotcontroller.autonomous.controllers.Setpoint;
+import org.ftc7244.robotcontroller.sensor.RobotState;
+
+/**
+ * Follows a ${@link MotionProfile} from the first cycle of the loop. Time is measured from the
+ * timestamps of the ${@link RobotState} so the profile advances with the sensor samples.
+ */
+public abstract class ProfileSetpoint extends Setpoint {
+
+    protected final MotionProfile profile;
+    private long start;
+    private double elapsed;
+
+    /**
+     * @param profile the move to follow
+     */
+    protected ProfileSetpoint(@NonNull MotionProfile profile) {
+        this.profile = profile;
+    }
+
+    @Override
+    public void start(@NonNull RobotState state) {
+        start = state.getTimestamp();
+        elapsed = 0;
+    }
+
+    @Override
+    public void update(@NonNull RobotState state) {
+        elapsed = (state.getTimestamp() - start) / 1e9;
+        update(state, profile.getPosition(elapsed), profile.getVelocity(elapsed), profile.getAcceleration(elapsed));
+    }
+
+    /**
+     * Track the profile for the current cycle
+     *
+     * @param state        the sensors of the current cycle
+     * @param position     where the profile is now
+     * @param velocity     the planned velocity per second
+     * @param acceleration the planned acceleration per second squared
+     */
+    protected abstract void update(@NonNull RobotState state, double position, double velocity, double acceleration);
+
+    /**
+     * @return seconds since the loop started as of the last update
+     */
+    public double getElapsed() {
+        return elapsed;
+    }
+
+    /**
+     * @return if the profile has reached the end of the move, the robot may still be settling
+     */
+    public boolean isFinished() {
+        return elapsed >= profile.getDuration();
+    }
+
+    public MotionProfile getProfile() {
+        return profile;
+    }
+}
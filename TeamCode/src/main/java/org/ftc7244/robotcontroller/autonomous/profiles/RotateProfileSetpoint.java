@@ -0,0 +1,61 @@
+package org.ftc7244.robotcontroller.autonomous.profiles;
+
+import android.support.annotation.NonNull;
+
+import org.ftc7244.robotcontroller.Westcoast;
+import org.ftc7244.robotcontroller.sensor.RobotState;
+
+/**
+ * Turns along a ${@link MotionProfile} in degrees. The target of the PID moves with the profile so
+ * it only corrects for the difference while the planned velocity and acceleration turn the robot.
+ */
+public class RotateProfileSetpoint extends ProfileSetpoint {
+
+    private final double start;
+    private double target, feedforward;
+
+    /**
+     * @param profile the turn in degrees, positive is clockwise
+     * @param start   the heading at the start of the turn in degrees
+     */
+    public RotateProfileSetpoint(@NonNull MotionProfile profile, double start) {
+        super(profile);
+        this.start = start;
+        this.target = start;
+    }
+
+    @Override
+    public void start(@NonNull RobotState state) {
+        super.start(state);
+        target = start;
+        feedforward = 0;
+    }
+
+    @Override
+    protected void update(@NonNull RobotState state, double position, double velocity, double acceleration) {
+        target = start + position;
+        feedforward = velocity / Westcoast.MAX_ANGULAR_VELOCITY + acceleration / Westcoast.MAX_ANGULAR_ACCELERATION;
+    }
+
+    /**
+     * @return the heading the turn ends at in degrees
+     */
+    public double getEnd() {
+        return start + profile.getDistance();
+    }
+
+    @Override
+    public double getTarget() {
+        return target;
+    }
+
+    @Override
+    public double getFeedforward() {
+        return feedforward;
+    }
+
+    @Override
+    public double getPowerOffset() {
+        return 0;
+    }
+}
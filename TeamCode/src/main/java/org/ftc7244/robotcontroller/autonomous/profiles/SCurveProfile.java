@@ -0,0 +1,63 @@
+package org.ftc7244.robotcontroller.autonomous.profiles;
+
+/**
+ * Same as the ${@link TrapezoidalProfile} but the acceleration ramps up and down at a limited jerk so
+ * the corners of the trapezoid are rounded. The move takes slightly longer but it does not jolt the
+ * robot which keeps the wheels from slipping and the encoders accurate.
+ */
+public class SCurveProfile extends MotionProfile {
+
+    /**
+     * @param distance        how far to move, negative to move backwards
+     * @param maxVelocity     highest velocity allowed in units per second
+     * @param maxAcceleration highest acceleration allowed in units per second squared
+     * @param maxJerk         highest jerk allowed in units per second cubed
+     */
+    public SCurveProfile(double distance, double maxVelocity, double maxAcceleration, double maxJerk) {
+        super(distance);
+        double length = Math.abs(distance), jerk = Math.abs(maxJerk);
+        maxAcceleration = Math.abs(maxAcceleration);
+        if (length == 0 || maxVelocity == 0 || maxAcceleration == 0 || jerk == 0) return;
+
+        //find the highest velocity that can be reached and stopped from within the distance
+        double velocity = Math.abs(maxVelocity);
+        if (rampDistance(velocity, maxAcceleration, jerk) * 2 > length) {
+            double low = 0, high = velocity;
+            for (int i = 0; i < 50; i++) {
+                velocity = (low + high) / 2;
+                if (rampDistance(velocity, maxAcceleration, jerk) * 2 > length) high = velocity;
+                else low = velocity;
+            }
+            velocity = low;
+        }
+
+        double acceleration = peakAcceleration(velocity, maxAcceleration, jerk);
+        double jerkTime = acceleration / jerk, constantTime = velocity / acceleration - jerkTime;
+        double cruise = (length - rampDistance(velocity, maxAcceleration, jerk) * 2) / velocity;
+
+        addPhase(jerkTime, 0, jerk);
+        addPhase(constantTime, acceleration, 0);
+        addPhase(jerkTime, acceleration, -jerk);
+        addPhase(cruise, 0, 0);
+        addPhase(jerkTime, 0, -jerk);
+        addPhase(constantTime, -acceleration, 0);
+        addPhase(jerkTime, -acceleration, jerk);
+    }
+
+    /**
+     * @return the highest acceleration reached on the way to the velocity, lower than the max if the
+     * jerk limit does not leave time to reach it
+     */
+    private static double peakAcceleration(double velocity, double maxAcceleration, double jerk) {
+        return Math.min(maxAcceleration, Math.sqrt(velocity * jerk));
+    }
+
+    /**
+     * @return the distance covered speeding up from rest to the velocity
+     */
+    private static double rampDistance(double velocity, double maxAcceleration, double jerk) {
+        double acceleration = peakAcceleration(velocity, maxAcceleration, jerk);
+        //the ramp is symmetric so the average velocity is half the peak
+        return velocity / 2 * (velocity / acceleration + acceleration / jerk);
+    }
+}
@@ -0,0 +1,28 @@
+package org.ftc7244.robotcontroller.autonomous.profiles;
+
+/**
+ * Accelerates at the maximum rate until the maximum velocity is reached, cruises and then slows down
+ * at the same rate. Moves too short to reach the maximum velocity turn into a triangle. It is the
+ * fastest move within the limits but the acceleration changes instantly at each corner.
+ */
+public class TrapezoidalProfile extends MotionProfile {
+
+    /**
+     * @param distance        how far to move, negative to move backwards
+     * @param maxVelocity     highest velocity allowed in units per second
+     * @param maxAcceleration highest acceleration allowed in units per second squared
+     */
+    public TrapezoidalProfile(double distance, double maxVelocity, double maxAcceleration) {
+        super(distance);
+        double length = Math.abs(distance);
+        //the peak velocity is lower than the max when there is not enough room to reach it
+        double velocity = Math.min(Math.abs(maxVelocity), Math.sqrt(length * Math.abs(maxAcceleration)));
+        if (velocity <= 0) return;
+        double acceleration = Math.abs(maxAcceleration), ramp = velocity / acceleration;
+        double cruise = (length - velocity * ramp) / velocity;
+
+        addPhase(ramp, acceleration, 0);
+        addPhase(cruise, 0, 0);
+        addPhase(ramp, -acceleration, 0);
+    }
+}
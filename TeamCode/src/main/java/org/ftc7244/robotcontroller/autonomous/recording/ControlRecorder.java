@@ -0,0 +1,241 @@
+package org.ftc7244.robotcontroller.autonomous.recording;
+
+import android.support.annotation.NonNull;
+
+import com.qualcomm.robotcore.util.RobotLog;
+
+import org.ftc7244.robotcontroller.autonomous.Clock;
+import org.ftc7244.robotcontroller.sensor.RobotState;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records every cycle of the control loops without slowing them down. Each cycle, along with the
+ * ${@link RobotState} it was computed from, is copied as
+ * primitives into a ring buffer that is allocated up front and a background thread writes the
+ * buffer to a compact binary file. If the writer falls behind far enough for the buffer to fill,
+ * new cycles are dropped and counted instead of blocking the loop.
+ * <p>
+ * Only one thread may call ${@link #record} at a time. Use ${@link RecordingReader} to read the file.
+ */
+public class ControlRecorder {
+
+    /**
+     * The first four bytes of every recording, "7244" in ASCII
+     */
+    public static final int MAGIC = 0x37323434;
+    public static final short VERSION = 4;
+    /**
+     * Entry that names a source, followed by its id as a short and the name as UTF
+     */
+    public static final byte SOURCE = 1;
+    /**
+     * Entry for one cycle, followed by the source as a short, the segment as an int, the time in
+     * nanoseconds as a long, ${@link #VALUES} floats and then the state as its timestamp, both drive
+     * encoders as longs and ${@link #INPUTS} floats
+     */
+    public static final byte CYCLE = 2;
+    /**
+     * Target, reading, rate of the reading, proportional, integral, derivative, output, left power and
+     * right power
+     */
+    public static final int VALUES = 9;
+    /**
+     * Leading light, trailing light, leading ultrasonic, trailing ultrasonic and launcher limit
+     */
+    public static final int INPUTS = 5;
+
+    private static final int MAX_SOURCES = 64;
+    private static final long FLUSH_PERIOD = 100000000;
+
+    private final int capacity;
+    private final long[] timestamps, stateTimestamps;
+    private final short[] sources;
+    private final int[] segments;
+    private final long[] encoders;
+    private final float[] values, inputs;
+    private final String[] names;
+
+    /**
+     * Cycles written by the control loop and cycles written to the file. They only ever increase
+     * so the difference is how much of the buffer is in use.
+     */
+    private volatile long head, tail;
+    private volatile int sourceCount;
+    private volatile long dropped;
+
+    private volatile Thread thread;
+    private DataOutputStream output;
+
+    /**
+     * @param capacity how many cycles the buffer can hold before the writer has to catch up
+     */
+    public ControlRecorder(int capacity) {
+        this.capacity = capacity;
+        this.timestamps = new long[capacity];
+        this.stateTimestamps = new long[capacity];
+        this.sources = new short[capacity];
+        this.segments = new int[capacity];
+        this.encoders = new long[capacity * 2];
+        this.values = new float[capacity * VALUES];
+        this.inputs = new float[capacity * INPUTS];
+        this.names = new String[MAX_SOURCES];
+    }
+
+    /**
+     * Create the file and begin writing to it in the background
+     *
+     * @param file where to write the recording, missing folders are created
+     * @throws IOException if the file cannot be created
+     */
+    public synchronized void start(@NonNull File file) throws IOException {
+        if (thread != null) throw new IllegalStateException("Recorder is already running");
+        File parent = file.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs())
+            throw new IOException("Cannot create " + parent);
+
+        output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+        output.writeInt(MAGIC);
+        output.writeShort(VERSION);
+        thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                Thread current = Thread.currentThread();
+                int written = 0;
+                try {
+                    while (thread == current) {
+                        LockSupport.parkNanos(FLUSH_PERIOD);
+                        written = drain(written);
+                    }
+                    drain(written);
+                    output.close();
+                } catch (IOException e) {
+                    RobotLog.e("Recording failed: " + e.getMessage());
+                }
+            }
+        }, "ControlRecorder");
+        thread.start();
+    }
+
+    /**
+     * Write everything still in the buffer and close the file. This blocks until the file is closed.
+     *
+     * @throws InterruptedException if interrupted while waiting for the writer
+     */
+    public void stop() throws InterruptedException {
+        Thread thread;
+        synchronized (this) {
+            thread = this.thread;
+            this.thread = null;
+        }
+        if (thread == null) return;
+        LockSupport.unpark(thread);
+        thread.join();
+        if (dropped > 0) RobotLog.w("Recording dropped " + dropped + " cycles");
+    }
+
+    /**
+     * Give a control loop an id to record under. This should be done once since it is the only
+     * part of the recorder that allocates.
+     *
+     * @param name the name of the control loop in the recording
+     * @return the id to pass to ${@link #record}
+     */
+    public synchronized short register(@NonNull String name) {
+        for (int i = 0; i < sourceCount; i++) if (names[i].equals(name)) return (short) i;
+        if (sourceCount == MAX_SOURCES) throw new IllegalStateException("Too many sources");
+        names[sourceCount] = name;
+        sourceCount++;
+        return (short) (sourceCount - 1);
+    }
+
+    /**
+     * Copy one cycle into the buffer. This does not allocate or block.
+     *
+     * @param source    id from ${@link #register(String)}
+     * @param segment   which call of the control loop this cycle belongs to
+     * @param timestamp ${@link Clock#nanoTime()} when the cycle began
+     * @param state     the sensors the cycle was computed from
+     */
+    public void record(short source, int segment, long timestamp, double target, double reading, double rate,
+                       double proportional, double integral, double derivative, double output,
+                       double leftPower, double rightPower, @NonNull RobotState state) {
+        long head = this.head;
+        if (head - tail >= capacity) {
+            dropped++;
+            return;
+        }
+        int index = (int) (head % capacity), offset = index * VALUES;
+        timestamps[index] = timestamp;
+        sources[index] = source;
+        segments[index] = segment;
+        values[offset] = (float) target;
+        values[offset + 1] = (float) reading;
+        values[offset + 2] = (float) rate;
+        values[offset + 3] = (float) proportional;
+        values[offset + 4] = (float) integral;
+        values[offset + 5] = (float) derivative;
+        values[offset + 6] = (float) output;
+        values[offset + 7] = (float) leftPower;
+        values[offset + 8] = (float) rightPower;
+        stateTimestamps[index] = state.getTimestamp();
+        encoders[index * 2] = state.getDriveLeft();
+        encoders[index * 2 + 1] = state.getDriveRight();
+        offset = index * INPUTS;
+        inputs[offset] = (float) state.getLeadingLight();
+        inputs[offset + 1] = (float) state.getTrailingLight();
+        inputs[offset + 2] = (float) state.getLeadingUltrasonic();
+        inputs[offset + 3] = (float) state.getTrailingUltrasonic();
+        inputs[offset + 4] = (float) state.getLauncherLimit();
+        //publish the cycle to the writer
+        this.head = head + 1;
+    }
+
+    /**
+     * Write every new source and cycle to the file
+     *
+     * @param written how many sources have been written so far
+     * @return how many sources have been written now
+     */
+    private int drain(int written) throws IOException {
+        //read the head first so every source used by these cycles is already registered
+        long head = this.head, tail = this.tail;
+        int sourceCount = this.sourceCount;
+        for (; written < sourceCount; written++) {
+            output.writeByte(SOURCE);
+            output.writeShort(written);
+            output.writeUTF(names[written]);
+        }
+        for (long cycle = tail; cycle < head; cycle++) {
+            int index = (int) (cycle % capacity), offset = index * VALUES;
+            output.writeByte(CYCLE);
+            output.writeShort(sources[index]);
+            output.writeInt(segments[index]);
+            output.writeLong(timestamps[index]);
+            for (int i = 0; i < VALUES; i++) output.writeFloat(values[offset + i]);
+            output.writeLong(stateTimestamps[index]);
+            output.writeLong(encoders[index * 2]);
+            output.writeLong(encoders[index * 2 + 1]);
+            for (int i = 0; i < INPUTS; i++) output.writeFloat(inputs[index * INPUTS + i]);
+        }
+        this.tail = head;
+        output.flush();
+        return written;
+    }
+
+    /**
+     * @return how many cycles were thrown away because the buffer was full
+     */
+    public long getDropped() {
+        return dropped;
+    }
+
+    public boolean isRunning() {
+        return thread != null;
+    }
+}
@@ -0,0 +1,160 @@
+package org.ftc7244.robotcontroller.autonomous.recording;
+
+import android.support.annotation.NonNull;
+
+import org.ftc7244.robotcontroller.autonomous.Clock;
+import org.ftc7244.robotcontroller.sensor.RobotState;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a file written by ${@link ControlRecorder} one cycle at a time. The values of the current
+ * cycle are held by the reader so nothing is allocated per cycle.
+ */
+public class RecordingReader implements Closeable {
+
+    private final DataInputStream input;
+    private final List<String> names;
+    private final float[] values, inputs;
+    private short source;
+    private int segment;
+    private long timestamp, stateTimestamp, driveLeft, driveRight;
+
+    /**
+     * @param input the recording, it is closed with the reader
+     * @throws IOException if the input is not a recording
+     */
+    public RecordingReader(@NonNull InputStream input) throws IOException {
+        this.input = new DataInputStream(new BufferedInputStream(input));
+        this.names = new ArrayList<>();
+        this.values = new float[ControlRecorder.VALUES];
+        this.inputs = new float[ControlRecorder.INPUTS];
+        if (this.input.readInt() != ControlRecorder.MAGIC)
+            throw new IOException("Not a control recording");
+        short version = this.input.readShort();
+        if (version != ControlRecorder.VERSION)
+            throw new IOException("Unsupported recording version " + version);
+    }
+
+    /**
+     * Move to the next cycle in the recording
+     *
+     * @return false once the end of the recording is reached
+     * @throws IOException if the recording cannot be read
+     */
+    public boolean next() throws IOException {
+        while (true) {
+            int type = input.read();
+            switch (type) {
+                case -1:
+                    return false;
+                case ControlRecorder.SOURCE:
+                    int id = input.readShort();
+                    while (names.size() <= id) names.add(null);
+                    names.set(id, input.readUTF());
+                    break;
+                case ControlRecorder.CYCLE:
+                    try {
+                        source = input.readShort();
+                        segment = input.readInt();
+                        timestamp = input.readLong();
+                        for (int i = 0; i < values.length; i++) values[i] = input.readFloat();
+                        stateTimestamp = input.readLong();
+                        driveLeft = input.readLong();
+                        driveRight = input.readLong();
+                        for (int i = 0; i < inputs.length; i++) inputs[i] = input.readFloat();
+                    } catch (EOFException e) {
+                        //the recording was cut off in the middle of a cycle
+                        return false;
+                    }
+                    return true;
+                default:
+                    throw new IOException("Unknown entry " + type);
+            }
+        }
+    }
+
+    /**
+     * @return name of the control loop that recorded the current cycle
+     */
+    public String getSource() {
+        return source < names.size() ? names.get(source) : "source " + source;
+    }
+
+    /**
+     * @return which call of the control loop the current cycle belongs to
+     */
+    public int getSegment() {
+        return segment;
+    }
+
+    /**
+     * @return ${@link Clock#nanoTime()} when the current cycle began
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public double getTarget() {
+        return values[0];
+    }
+
+    public double getReading() {
+        return values[1];
+    }
+
+    /**
+     * @return rate of the reading per second as measured by the sensor or NaN if it has none
+     */
+    public double getRate() {
+        return values[2];
+    }
+
+    public double getProportional() {
+        return values[3];
+    }
+
+    public double getIntegral() {
+        return values[4];
+    }
+
+    public double getDerivative() {
+        return values[5];
+    }
+
+    public double getOutput() {
+        return values[6];
+    }
+
+    public double getLeftPower() {
+        return values[7];
+    }
+
+    public double getRightPower() {
+        return values[8];
+    }
+
+    /**
+     * Copy the sensors the current cycle was computed from into the state provided
+     *
+     * @param reuse the state to overwrite
+     * @return the same state that was passed in
+     */
+    @NonNull
+    public RobotState readState(@NonNull RobotState reuse) {
+        reuse.set(stateTimestamp, driveLeft, driveRight, inputs[0], inputs[1], inputs[2], inputs[3], inputs[4]);
+        return reuse;
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+}
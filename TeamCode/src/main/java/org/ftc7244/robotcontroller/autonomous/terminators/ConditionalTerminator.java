@@ -1,13 +1,34 @@
 package org.ftc7244.robotcontroller.autonomous.terminators;
 
+import android.support.annotation.NonNull;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
 /**
  * Is a way of mixing and matching terminators so that they can be conditional and allowing for
  * more than one terminator.
+ * <p>
+ * The terminators are checked from the lowest ${@link Terminator#getCost()} to the highest and the
+ * check stops as soon as the result is known, so an expensive terminator is skipped whenever a cheap
+ * one already decides it. Terminators with the same cost keep the order they were given in. A
+ * terminator with a ${@link Terminator#getPeriod()} is only checked that often and its last result is
+ * used in between. Every terminator still receives every ${@link #terminated(boolean)} call even if
+ * it was not checked that cycle.
  */
 public class ConditionalTerminator extends Terminator {
 
+    private static final Comparator<Terminator> CHEAPEST_FIRST = new Comparator<Terminator>() {
+        @Override
+        public int compare(Terminator first, Terminator second) {
+            return first.getCost() < second.getCost() ? -1 : first.getCost() == second.getCost() ? 0 : 1;
+        }
+    };
+
     private TerminationMode mode;
     private Terminator[] terminators;
+    private final boolean[] results;
+    private final long[] checked, evaluations, evaluationTimes;
 
     /**
      * It by default uses ${@link TerminationMode#OR} and allows for a dynmaic amount of terminators
@@ -25,33 +46,106 @@ public class ConditionalTerminator extends Terminator {
      * There are different supported modes:
      * ${@link TerminationMode#OR} will end if any are true
      * ${@link TerminationMode#AND} will end if ONLY if all true
+     * <p>
+     * The order of checking is decided here so the costs have to be set before.
      *
      * @param mode        the mode to use
      * @param terminators dynamic amount of terminators
      */
     public ConditionalTerminator(TerminationMode mode, Terminator... terminators) {
         this.mode = mode;
-        this.terminators = terminators;
+        this.terminators = terminators.clone();
+        //the sort is stable so equal costs keep their order
+        Arrays.sort(this.terminators, CHEAPEST_FIRST);
+        this.results = new boolean[terminators.length];
+        this.checked = new long[terminators.length];
+        this.evaluations = new long[terminators.length];
+        this.evaluationTimes = new long[terminators.length];
+        Arrays.fill(checked, -1);
     }
 
     @Override
-    public boolean shouldTerminate() {
+    public boolean shouldTerminate(@NonNull TerminationContext context) {
         switch (mode) {
             case OR:
-                for (Terminator terminator : terminators)
-                    if (terminator.shouldTerminate()) return true;
+                for (int i = 0; i < terminators.length; i++)
+                    if (check(i, context)) return true;
                 return false;
             case AND:
-                for (Terminator terminator : terminators)
-                    if (!terminator.shouldTerminate()) return false;
+                for (int i = 0; i < terminators.length; i++)
+                    if (!check(i, context)) return false;
                 return true;
             default:
                 return true;
         }
     }
 
+    private boolean check(int index, TerminationContext context) {
+        Terminator terminator = terminators[index];
+        long period = terminator.getPeriod(), now = context.getTimestamp();
+        if (period > 0 && checked[index] != -1 && now - checked[index] < period) return results[index];
+
+        //measured in real time since it is the processor time the loop spends
+        long start = System.nanoTime();
+        boolean result = terminator.shouldTerminate(context);
+        evaluationTimes[index] += System.nanoTime() - start;
+        evaluations[index]++;
+        results[index] = result;
+        checked[index] = now;
+        return result;
+    }
+
+    @Override
+    public void start(@NonNull TerminationContext context) {
+        for (Terminator terminator : terminators) terminator.start(context);
+    }
+
     @Override
     public void terminated(boolean status) {
         for (Terminator terminator : terminators) terminator.terminated(status);
+        //the next loop starts with a fresh check of every terminator
+        if (status) Arrays.fill(checked, -1);
+    }
+
+    /**
+     * Unless set the cost is the sum of the terminators since in the worst case all are checked
+     */
+    @Override
+    protected int getDefaultCost() {
+        int cost = 0;
+        for (Terminator terminator : terminators) cost += terminator.getCost();
+        return cost;
+    }
+
+    /**
+     * @return the terminators in the order they are checked
+     */
+    @NonNull
+    public Terminator[] getTerminators() {
+        return terminators.clone();
+    }
+
+    /**
+     * @param index position of the terminator in ${@link #getTerminators()}
+     * @return how many times the terminator was checked since the statistics were reset
+     */
+    public long getEvaluations(int index) {
+        return evaluations[index];
+    }
+
+    /**
+     * @param index position of the terminator in ${@link #getTerminators()}
+     * @return total time spent checking the terminator in nanoseconds since the statistics were reset
+     */
+    public long getEvaluationTime(int index) {
+        return evaluationTimes[index];
+    }
+
+    /**
+     * Clear the evaluation counts and times of every terminator
+     */
+    public void resetStatistics() {
+        Arrays.fill(evaluations, 0);
+        Arrays.fill(evaluationTimes, 0);
     }
 }
@@ -0,0 +1,128 @@
+package org.ftc7244.robotcontroller.autonomous.terminators;
+
+import android.support.annotation.NonNull;
+
+import org.ftc7244.robotcontroller.sensor.RobotState;
+import org.ftc7244.robotcontroller.sensor.SensorAcquisition;
+import org.ftc7244.robotcontroller.sensor.StateListener;
+
+/**
+ * A terminator that checks every state the ${@link SensorAcquisition} polls instead of only the one
+ * read each cycle. While a control loop runs it listens to the sensors and the moment
+ * ${@link #check(RobotState)} passes it wakes the loop through the ${@link TerminationContext} so an
+ * edge such as crossing a line is acted on as soon as it is seen instead of up to a cycle later.
+ * The timestamp and encoder position of the state that fired are kept so the exact point of the
+ * trigger is known even though the loop only stops after it.
+ * <p>
+ * The state of each cycle is checked as well so it still works when the states are not polled by
+ * the ${@link SensorAcquisition}, such as during a replay. States no newer than the last one checked
+ * are skipped so each is only checked once and always in order.
+ * <p>
+ * A trigger is only kept until the loop has checked a cycle that includes it. If the loop keeps
+ * going after that, for example because another terminator in a ${@link TerminationMode#AND} did
+ * not pass or was checked first and stopped the check, the trigger is dropped so it cannot end the
+ * loop later on.
+ */
+public abstract class EventTerminator extends Terminator implements StateListener {
+
+    private final SensorAcquisition sensors;
+    private TerminationContext context;
+    private boolean fired, checkedCycle;
+    private long triggerTimestamp, checkedTimestamp;
+    private long triggerPosition;
+
+    /**
+     * @param sensors where to listen for states while the control loop runs
+     */
+    protected EventTerminator(@NonNull SensorAcquisition sensors) {
+        this.sensors = sensors;
+        this.triggerTimestamp = -1;
+    }
+
+    /**
+     * Decide if the state fulfills the condition of the terminator. It is usually called from the
+     * thread of the ${@link SensorAcquisition} so it has to be quick and it is always called while
+     * holding the lock of the terminator.
+     *
+     * @param state the sensors that were just polled
+     * @return if the control loop should end
+     */
+    protected abstract boolean check(@NonNull RobotState state);
+
+    /**
+     * Called when the control loop kept going after a cycle that included the trigger, after this the
+     * terminator waits for the condition again. This is optional and should reset anything
+     * ${@link #check(RobotState)} tracks.
+     */
+    protected void ignored() {
+    }
+
+    @Override
+    public void start(@NonNull TerminationContext context) {
+        synchronized (this) {
+            this.context = context;
+            this.fired = false;
+            this.checkedCycle = false;
+            this.triggerTimestamp = -1;
+            this.checkedTimestamp = Long.MIN_VALUE;
+        }
+        sensors.addListener(this);
+    }
+
+    @Override
+    public synchronized void onState(@NonNull RobotState state) {
+        if (fired || state.getTimestamp() <= checkedTimestamp) return;
+        checkedTimestamp = state.getTimestamp();
+        if (!check(state)) return;
+        fired = true;
+        triggerTimestamp = state.getTimestamp();
+        triggerPosition = state.getDriveAverage();
+        if (context != null) context.wake();
+    }
+
+    @Override
+    public synchronized boolean shouldTerminate(@NonNull TerminationContext context) {
+        onState(context.getState());
+        return fired;
+    }
+
+    @Override
+    public void terminated(boolean status) {
+        if (status) {
+            sensors.removeListener(this);
+            synchronized (this) {
+                context = null;
+            }
+            return;
+        }
+
+        synchronized (this) {
+            //the first call comes before any cycle was checked
+            if (!checkedCycle) {
+                checkedCycle = true;
+                return;
+            }
+            //a trigger newer than the state of the cycle that was just checked has not been seen yet
+            if (!fired || context == null || triggerTimestamp > context.getState().getTimestamp()) return;
+            fired = false;
+            triggerTimestamp = -1;
+            ignored();
+        }
+    }
+
+    /**
+     * @return when the state that triggered the terminator was polled in nanoseconds from
+     * ${@link org.ftc7244.robotcontroller.autonomous.Clock#nanoTime()} or -1 if it has not triggered
+     */
+    public synchronized long getTriggerTimestamp() {
+        return triggerTimestamp;
+    }
+
+    /**
+     * @return the average position of the drive encoders when the terminator triggered, only valid
+     * if ${@link #getTriggerTimestamp()} is not -1
+     */
+    public synchronized long getTriggerPosition() {
+        return triggerPosition;
+    }
+}
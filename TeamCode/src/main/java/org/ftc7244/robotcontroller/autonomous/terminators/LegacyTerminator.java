@@ -0,0 +1,33 @@
+package org.ftc7244.robotcontroller.autonomous.terminators;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Adapter for terminators written before the ${@link TerminationContext} existed. They read their
+ * own values in ${@link #shouldTerminate()} and the context of the cycle is ignored, so they cost a
+ * round trip to the hardware every time they are checked and should be moved over to
+ * ${@link Terminator#shouldTerminate(TerminationContext)} when possible.
+ */
+public abstract class LegacyTerminator extends Terminator {
+
+    /**
+     * This will tell the PIDDriveControl if the PID can stop executing since the robot has
+     * reached a state that would be considered "completed".
+     *
+     * @return if the PID should end
+     */
+    public abstract boolean shouldTerminate();
+
+    @Override
+    public final boolean shouldTerminate(@NonNull TerminationContext context) {
+        return shouldTerminate();
+    }
+
+    /**
+     * Reading the hardware is the most expensive thing a terminator can do
+     */
+    @Override
+    protected int getDefaultCost() {
+        return HIGH_COST;
+    }
+}
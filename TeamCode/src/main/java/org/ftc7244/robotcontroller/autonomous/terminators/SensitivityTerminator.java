@@ -1,9 +1,11 @@
 package org.ftc7244.robotcontroller.autonomous.terminators;
 
+import android.support.annotation.NonNull;
+
 import com.qualcomm.robotcore.util.RobotLog;
 
 import org.ftc7244.robotcontroller.Debug;
-import org.ftc7244.robotcontroller.autonomous.controllers.PIDDriveControl;
+import org.ftc7244.robotcontroller.autonomous.controllers.PIDController;
 
 /**
  * Once the PID has reached a certain level of accuracy the sensitivity terminator will trigger
@@ -13,35 +15,46 @@ import org.ftc7244.robotcontroller.autonomous.controllers.PIDDriveControl;
 public class SensitivityTerminator extends Terminator {
 
     private long timestamp, successDuration;
-    private double maximumError, target;
-    private PIDDriveControl context;
+    private double maximumError, target, range;
+
+    /**
+     * Uses the reading of the control loop to know if the values are in the target value and if
+     * they are within a maximum amount of error kill the PID.
+     *
+     * @param target          the target value of the PID
+     * @param maximumError    the absolute value of error the PID can have
+     * @param successDuration how long after the target value must the target value retain before terminating
+     */
+    public SensitivityTerminator(double target, double maximumError, long successDuration) {
+        this(target, maximumError, successDuration, 0);
+    }
 
     /**
-     * Requires the PID context to know if the values are in the target value and if they are within
-     * a maximum amount of error kill the PID.
+     * Same as ${@link #SensitivityTerminator(double, double, long)} for readings that wrap around
+     * such as a heading, the error is measured the short way round.
      *
-     * @param context         the PID being used in the ${@link PIDDriveControl}
      * @param target          the target value of the PID
      * @param maximumError    the absolute value of error the PID can have
      * @param successDuration how long after the target value must the target value retain before terminating
+     * @param range           size of the range the reading wraps around in, such as 360 for degrees
      */
-    public SensitivityTerminator(PIDDriveControl context, double target, double maximumError, long successDuration) {
+    public SensitivityTerminator(double target, double maximumError, long successDuration, double range) {
         this.target = target;
+        this.range = range;
         this.maximumError = maximumError;
         this.successDuration = successDuration;
-        this.context = context;
 
         this.timestamp = -1;
     }
 
     @Override
-    public boolean shouldTerminate() {
-        if (timestamp == -1 && Math.abs(context.getReading() - target) < maximumError)
-            timestamp = System.currentTimeMillis();
-        else if (Math.abs(context.getReading() - target) > maximumError) timestamp = -1;
+    public boolean shouldTerminate(@NonNull TerminationContext context) {
+        double error = Math.abs(PIDController.wrap(context.getReading() - target, range));
+        if (timestamp == -1 && error < maximumError) timestamp = context.getTimestamp();
+        else if (error > maximumError) timestamp = -1;
         if (Debug.STATUS) RobotLog.ii("STOP", context.getReading() + ":" + target);
 
-        return Math.abs(System.currentTimeMillis() - timestamp) > successDuration && timestamp != -1;
+        return Math.abs(context.getTimestamp() - timestamp) > successDuration && timestamp != -1;
     }
 
     @Override
@@ -0,0 +1,89 @@
+package org.ftc7244.robotcontroller.autonomous.terminators;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.ftc7244.robotcontroller.autonomous.CancellationToken;
+import org.ftc7244.robotcontroller.sensor.RobotState;
+
+/**
+ * Everything a ${@link Terminator} can look at for one cycle of a control loop. The control loop
+ * captures the values once and every terminator, including the ones nested inside a
+ * ${@link ConditionalTerminator}, reads the same values without touching the hardware again. The
+ * same instance is updated every cycle so it should not be kept by a terminator.
+ */
+public class TerminationContext {
+
+    private final RobotState state;
+    private double reading, target;
+    private long timestamp;
+    private volatile CancellationToken wake;
+
+    /**
+     * @param state the sensor readings the control loop refreshes every cycle
+     */
+    public TerminationContext(@NonNull RobotState state) {
+        this.state = state;
+    }
+
+    /**
+     * Update the values for a new cycle
+     *
+     * @param reading   the sensor value the control loop used this cycle
+     * @param target    the value the control loop is trying to reach
+     * @param timestamp when the cycle began in milliseconds
+     */
+    public void set(double reading, double target, long timestamp) {
+        this.reading = reading;
+        this.target = target;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Set the token the control loop waits on between cycles, ${@link #wake()} cancels it
+     *
+     * @param wake the token of the current wait or null if nothing can wake the loop
+     */
+    public void setWakeToken(@Nullable CancellationToken wake) {
+        this.wake = wake;
+    }
+
+    /**
+     * Start the next cycle of the control loop right away instead of at its deadline. This is safe to
+     * call from any thread so a terminator that sees its condition between cycles, such as an
+     * ${@link EventTerminator}, does not wait a full cycle for the loop to notice.
+     */
+    public void wake() {
+        CancellationToken token = wake;
+        if (token != null) token.cancel();
+    }
+
+    /**
+     * @return the sensor value the control loop used this cycle
+     */
+    public double getReading() {
+        return reading;
+    }
+
+    /**
+     * @return the value the control loop is trying to reach
+     */
+    public double getTarget() {
+        return target;
+    }
+
+    /**
+     * @return when the cycle began in milliseconds, only useful for measuring durations
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return encoder positions and other sensors read for this cycle
+     */
+    @NonNull
+    public RobotState getState() {
+        return state;
+    }
+}
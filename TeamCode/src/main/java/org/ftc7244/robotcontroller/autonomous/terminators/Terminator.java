@@ -1,13 +1,45 @@
 package org.ftc7244.robotcontroller.autonomous.terminators;
 
+import android.support.annotation.NonNull;
+
 public abstract class Terminator {
+
+    /**
+     * Cost of a terminator that only does arithmetic on the context
+     */
+    public static final int LOW_COST = 1;
+    /**
+     * Cost of a terminator that does not declare one
+     */
+    public static final int DEFAULT_COST = 10;
+    /**
+     * Cost of a terminator that talks to the hardware or logs while it is checked
+     */
+    public static final int HIGH_COST = 100;
+
+    private int cost = -1;
+    private long period;
+
     /**
      * This will tell the PIDDriveControl if the PID can stop executing since the robot has
-     * reached a state that would be considered "completed"
+     * reached a state that would be considered "completed". Everything needed should come from the
+     * context so a cycle never reads the same sensor twice. Terminators that read their own values
+     * can extend ${@link LegacyTerminator} instead.
      *
+     * @param context the values captured by the control loop this cycle
      * @return if the PID should end
      */
-    public abstract boolean shouldTerminate();
+    public abstract boolean shouldTerminate(@NonNull TerminationContext context);
+
+    /**
+     * Called once before the first cycle of a control loop with the context it will be checked with.
+     * This is optional and lets a terminator watch for its condition between cycles, see
+     * ${@link EventTerminator}.
+     *
+     * @param context the context the control loop updates every cycle
+     */
+    public void start(@NonNull TerminationContext context) {
+    }
 
     /**
      * Tells the robot the terminator if an outside source ended the code or the drive control
@@ -18,4 +50,60 @@ public abstract class Terminator {
      */
     public void terminated(boolean status) {
     }
+
+    /**
+     * How expensive ${@link #shouldTerminate(TerminationContext)} is compared to other terminators. A
+     * ${@link ConditionalTerminator} checks its cheapest terminators first so the expensive ones are
+     * skipped whenever the cheap ones already decide the result.
+     *
+     * @return the cost set by ${@link #setCost(int)} or ${@link #getDefaultCost()}
+     */
+    public int getCost() {
+        return cost < 0 ? getDefaultCost() : cost;
+    }
+
+    /**
+     * The cost of the terminator when none is set, subclasses that know how expensive they are
+     * override this
+     *
+     * @return ${@link #DEFAULT_COST} unless overridden
+     */
+    protected int getDefaultCost() {
+        return DEFAULT_COST;
+    }
+
+    /**
+     * Declare how expensive the terminator is, such as ${@link #LOW_COST} or ${@link #HIGH_COST}
+     *
+     * @param cost relative cost of checking the terminator
+     * @return this terminator to chain calls
+     */
+    @NonNull
+    public Terminator setCost(int cost) {
+        this.cost = cost;
+        return this;
+    }
+
+    /**
+     * How often the terminator needs to be checked. Inside a ${@link ConditionalTerminator} a
+     * terminator is only checked again once this much time has passed and the last result is used in
+     * between, so something slow to change can be checked less often than the loop runs.
+     *
+     * @return the time between checks in milliseconds, zero to check every cycle
+     */
+    public long getPeriod() {
+        return period;
+    }
+
+    /**
+     * Check the terminator less often than every cycle, see ${@link #getPeriod()}
+     *
+     * @param period the time between checks in milliseconds, zero to check every cycle
+     * @return this terminator to chain calls
+     */
+    @NonNull
+    public Terminator setPeriod(long period) {
+        this.period = Math.max(0, period);
+        return this;
+    }
 }
@@ -1,5 +1,7 @@
 package org.ftc7244.robotcontroller.autonomous.terminators;
 
+import android.support.annotation.NonNull;
+
 /**
  * After a certain duration the terminator will trigger. This acts as a psuedo timeout terminator
  * and is good if something is preventing the PID from reaching its goal
@@ -17,13 +19,18 @@ public class TimerTerminator extends Terminator {
     }
 
     @Override
-    public boolean shouldTerminate() {
-        if (start == -1 && timeout > 0) start = System.currentTimeMillis();
-        return timeout > 0 && System.currentTimeMillis() > start + timeout;
+    public boolean shouldTerminate(@NonNull TerminationContext context) {
+        if (start == -1 && timeout > 0) start = context.getTimestamp();
+        return timeout > 0 && context.getTimestamp() > start + timeout;
     }
 
     @Override
     public void terminated(boolean status) {
         if (status) start = -1;
     }
+
+    @Override
+    protected int getDefaultCost() {
+        return LOW_COST;
+    }
 }
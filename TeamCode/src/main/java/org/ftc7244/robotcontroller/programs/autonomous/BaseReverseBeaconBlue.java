@@ -2,6 +2,7 @@ package org.ftc7244.robotcontroller.programs.autonomous;
 
 import com.qualcomm.robotcore.eventloop.opmode.Autonomous;
 
+import org.ftc7244.robotcontroller.autonomous.Clock;
 import org.ftc7244.robotcontroller.autonomous.drivers.EncoderDrive;
 
 /**
@@ -17,7 +18,7 @@ public class BaseReverseBeaconBlue extends ReverseBeaconBlue {
         robot.getIntake().setPower(1);
         gyroscope.drive(0.5, 20);
         EncoderDrive.Direction direction = EncoderDrive.Direction.LEFT;
-        while (getAutonomousEnd() - (System.currentTimeMillis() + 1250) > 0) {
+        while (getAutonomousEnd() - (Clock.getDefault().millis() + 1250) > 0) {
             encoder.rotate(1, 20, direction);
             direction = direction == EncoderDrive.Direction.LEFT ? EncoderDrive.Direction.RIGHT : EncoderDrive.Direction.LEFT;
         }
@@ -4,6 +4,7 @@ import android.graphics.Color;
 
 import com.qualcomm.robotcore.eventloop.opmode.Autonomous;
 
+import org.ftc7244.robotcontroller.Westcoast;
 import org.ftc7244.robotcontroller.autonomous.PIDAutonomous;
 import org.ftc7244.robotcontroller.autonomous.drivers.GyroscopeDrive;
 
@@ -15,7 +16,7 @@ public class BeaconBlue extends PIDAutonomous {
         //drive off the wall so we do not hit it
         gyroscope.drive(.35, 3.5);
         //allow the robot to settle and then rotate a little more than parallel to the side vortex
-        sleep(500);
+        Westcoast.sleep(500);
         gyroscope.rotate(54);
         //drive to the center of the field and shoot then got the wall
         gyroscope.drive(0.35, 28);
@@ -23,16 +24,16 @@ public class BeaconBlue extends PIDAutonomous {
         gyroscope.drive(0.35, 21);
 
         //attempt to rotate using our code then use the ultrasonic sensors to re-parallelize
-        sleep(500);
+        Westcoast.sleep(500);
         gyroscope.rotate(-54);
-        sleep(100);
+        Westcoast.sleep(100);
         ultrasonic.parallelize();
-        sleep(300);
+        Westcoast.sleep(300);
         gyroscope.resetOrientation();
 
         //drive until a line is seen and drive two more inches
         gyroscope.driveUntilLine(.2, GyroscopeDrive.Sensor.Leading, 2);
-        sleep(500);
+        Westcoast.sleep(500);
         if (robot.isColor(Color.BLUE)) {
             //if it is in front of blue immediately press the button
             robot.pushBeacon();
@@ -44,7 +45,7 @@ public class BeaconBlue extends PIDAutonomous {
 
         //repreat task above but with different offsets
         gyroscope.driveUntilLine(0.2, GyroscopeDrive.Sensor.Leading, .5);
-        sleep(500);
+        Westcoast.sleep(500);
         if (robot.isColor(Color.BLUE)) {
             robot.pushBeacon();
         } else {
@@ -56,8 +57,7 @@ public class BeaconBlue extends PIDAutonomous {
         gyroscope.rotate(45);
         gyroscope.drive(-1, 40);
         //pause and push the robot onto the platform in case it was pushed off
-        long sleep = getAutonomousEnd() - (System.currentTimeMillis() + 500);
-        if (sleep > 0) sleep(sleep);
+        sleepUntilRemaining(500);
         gyroscope.drive(-.75, 10);
     }
 }
@@ -4,6 +4,7 @@ import android.graphics.Color;
 
 import com.qualcomm.robotcore.eventloop.opmode.Autonomous;
 
+import org.ftc7244.robotcontroller.Westcoast;
 import org.ftc7244.robotcontroller.autonomous.PIDAutonomous;
 import org.ftc7244.robotcontroller.autonomous.drivers.GyroscopeDrive;
 
@@ -14,7 +15,7 @@ public class BeaconRed extends PIDAutonomous {
     public void run() throws InterruptedException {
         //drive off the wall so the robot does not hit it
         gyroscope.drive(-0.35, 3);
-        sleep(500);
+        Westcoast.sleep(500);
         //rotate over the amount of being parallel with the side goals and then goto the middle and shoot
         gyroscope.rotate(-51);
         gyroscope.drive(-0.35, 14);
@@ -22,17 +23,17 @@ public class BeaconRed extends PIDAutonomous {
         gyroscope.drive(-0.35, 31);
 
         //rotate and get parallel with wall
-        sleep(500);
+        Westcoast.sleep(500);
         gyroscope.rotate(44);
-        sleep(100);
+        Westcoast.sleep(100);
         ultrasonic.parallelize();
-        sleep(300);
+        Westcoast.sleep(300);
         gyroscope.resetOrientation();
 
         //drive until a line is seen
         gyroscope.drive(.2, 2);
         gyroscope.driveUntilLine(-0.2, GyroscopeDrive.Sensor.Trailing, 1.5);
-        sleep(500);
+        Westcoast.sleep(500);
         //the robot has passed the beacon but drive backwards to compensate
         if (robot.isColor(Color.RED)) {
             robot.pushBeacon();
@@ -44,7 +45,7 @@ public class BeaconRed extends PIDAutonomous {
 
         //repeat above
         gyroscope.driveUntilLine(-0.2, GyroscopeDrive.Sensor.Trailing, 1.5, 30, 60);
-        sleep(500);
+        Westcoast.sleep(500);
         if (robot.isColor(Color.RED)) {
             robot.pushBeacon();
         } else {
@@ -56,8 +57,7 @@ public class BeaconRed extends PIDAutonomous {
         gyroscope.rotate(-45);
         gyroscope.drive(1, 45);
         //wait and then drive more forward to ensure its on the stand
-        long sleep = getAutonomousEnd() - (System.currentTimeMillis() + 500);
-        if (sleep > 0) sleep(sleep);
+        sleepUntilRemaining(500);
         gyroscope.drive(.75, 10);
     }
 }
@@ -2,6 +2,7 @@ package org.ftc7244.robotcontroller.programs.autonomous;
 
 import com.qualcomm.robotcore.eventloop.opmode.Autonomous;
 
+import org.ftc7244.robotcontroller.Westcoast;
 import org.ftc7244.robotcontroller.autonomous.PIDAutonomous;
 
 @Autonomous(name = "Corner Blue", group = "Blue")
@@ -9,7 +10,7 @@ public class CornerBlue extends PIDAutonomous {
 
     @Override
     public void run() throws InterruptedException {
-        sleep(5000);
+        Westcoast.sleep(5000);
         //Move off the wall and head in the direction of the line
         gyroscope.drive(.5, 5);
         gyroscope.rotate(45);
@@ -19,7 +20,7 @@ public class CornerBlue extends PIDAutonomous {
         gyroscope.rotate(100);
         //shoot two balls
         robot.shootLoop(2, 1500);
-        sleep(5000);
+        Westcoast.sleep(5000);
         robot.shoot(0);
         //rotate backwards
         gyroscope.rotate(-95);
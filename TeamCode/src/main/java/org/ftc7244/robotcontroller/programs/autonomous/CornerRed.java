@@ -2,6 +2,7 @@ package org.ftc7244.robotcontroller.programs.autonomous;
 
 import com.qualcomm.robotcore.eventloop.opmode.Autonomous;
 
+import org.ftc7244.robotcontroller.Westcoast;
 import org.ftc7244.robotcontroller.autonomous.PIDAutonomous;
 
 @Autonomous(name = "Corner Red", group = "Red")
@@ -9,7 +10,7 @@ public class CornerRed extends PIDAutonomous {
 
     @Override
     public void run() throws InterruptedException {
-        sleep(5000);
+        Westcoast.sleep(5000);
         //Move off the wall and head in the direction of the line
         gyroscope.drive(-0.5, 5);
         gyroscope.rotate(-45);
@@ -18,9 +19,9 @@ public class CornerRed extends PIDAutonomous {
         //rotate so that the shooter is facing the vortex
         gyroscope.rotate(-90);
         //shoot two balls
-        sleep(1000);
+        Westcoast.sleep(1000);
         robot.shootLoop(2, 1500);
-        sleep(5000);
+        Westcoast.sleep(5000);
         robot.shoot(0);
         //rotate back and drive onto the base
         gyroscope.rotate(90);
@@ -20,11 +20,7 @@ public class DisrupterBlue extends PIDAutonomous {
         //shoot two balls
         robot.shootLoop(2, 500);
 
-        long currentDiff;
-        do {
-            currentDiff = getAutonomousEnd() - System.currentTimeMillis();
-            idle();
-        } while (currentDiff > 19500);
+        sleepUntilRemaining(19500);
 
         //rotate back and drive onto the base
         gyroscope.drive(-1, 23);
@@ -32,11 +28,7 @@ public class DisrupterBlue extends PIDAutonomous {
         gyroscope.resetOrientation();
         gyroscope.drive(1, 90);
 
-        long diff;
-        do {
-            diff = getAutonomousEnd() - System.currentTimeMillis();
-            idle();
-        } while (diff > 2000);
+        sleepUntilRemaining(2000);
 
         gyroscope.drive(-1, 40);
     }
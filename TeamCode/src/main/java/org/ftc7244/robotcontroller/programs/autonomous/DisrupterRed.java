@@ -20,11 +20,7 @@ public class DisrupterRed extends PIDAutonomous {
         //shoot two balls
         robot.shootLoop(2, 500);
 
-        long currentDiff;
-        do {
-            currentDiff = getAutonomousEnd() - System.currentTimeMillis();
-            idle();
-        } while (currentDiff > 19500);
+        sleepUntilRemaining(19500);
 
         //rotate back and drive onto the base
         gyroscope.drive(1, 20);
@@ -32,11 +28,7 @@ public class DisrupterRed extends PIDAutonomous {
         gyroscope.resetOrientation();
         gyroscope.drive(-1, 70);
 
-        long diff;
-        do {
-            diff = getAutonomousEnd() - System.currentTimeMillis();
-            idle();
-        } while (diff > 2000);
+        sleepUntilRemaining(2000);
 
         gyroscope.drive(1, 30);
 
@@ -2,6 +2,7 @@ package org.ftc7244.robotcontroller.programs.autonomous;
 
 import android.graphics.Color;
 
+import org.ftc7244.robotcontroller.Westcoast;
 import org.ftc7244.robotcontroller.autonomous.PIDAutonomous;
 import org.ftc7244.robotcontroller.autonomous.drivers.GyroscopeDrive;
 
@@ -13,13 +14,13 @@ public class ReverseBeaconBlue extends PIDAutonomous {
     @Override
     public void run() throws InterruptedException {
         gyroscope.drive(0.75, 90, 40);
-        sleep(500);
+        Westcoast.sleep(500);
         gyroscope.rotate(-24);
         ultrasonic.parallelize();
-        sleep(300);
+        Westcoast.sleep(300);
         gyroscope.resetOrientation();
         gyroscope.driveUntilLine(0.2, GyroscopeDrive.Sensor.Leading, 5);
-        sleep(150);
+        Westcoast.sleep(150);
         if (robot.isColor(Color.BLUE)) {
             //if it is in front of blue immediately press the button
             robot.pushBeacon();
@@ -30,7 +31,7 @@ public class ReverseBeaconBlue extends PIDAutonomous {
         }
 
         gyroscope.driveUntilLine(-0.25, GyroscopeDrive.Sensor.Trailing, 0.5, 35, 55);
-        sleep(500);
+        Westcoast.sleep(500);
         if (robot.isColor(Color.BLUE)) {
             //if it is in front of blue immediately press the button
             robot.pushBeacon();
@@ -4,6 +4,7 @@ import android.graphics.Color;
 
 import com.qualcomm.robotcore.eventloop.opmode.Autonomous;
 
+import org.ftc7244.robotcontroller.Westcoast;
 import org.ftc7244.robotcontroller.autonomous.PIDAutonomous;
 import org.ftc7244.robotcontroller.autonomous.drivers.GyroscopeDrive;
 
@@ -15,13 +16,13 @@ public class ReverseBeaconRed extends PIDAutonomous {
     @Override
     public void run() throws InterruptedException {
         gyroscope.drive(-0.75, 90, -38);
-        sleep(500);
+        Westcoast.sleep(500);
         gyroscope.rotate(38);
         ultrasonic.parallelize();
-        sleep(300);
+        Westcoast.sleep(300);
         gyroscope.resetOrientation();
         gyroscope.driveUntilLine(-0.2, GyroscopeDrive.Sensor.Trailing);
-        sleep(150);
+        Westcoast.sleep(150);
         if (robot.isColor(Color.RED)) {
             //if it is in front of blue immediately press the button
             robot.pushBeacon();
@@ -32,7 +33,7 @@ public class ReverseBeaconRed extends PIDAutonomous {
         }
 
         gyroscope.driveUntilLine(0.25, GyroscopeDrive.Sensor.Leading, 0, 35, 55);
-        sleep(500);
+        Westcoast.sleep(500);
         if (robot.isColor(Color.RED)) {
             //if it is in front of blue immediately press the button
             robot.pushBeacon();
@@ -0,0 +1,69 @@
+package org.ftc7244.robotcontroller.programs.debug;
+
+import android.support.annotation.NonNull;
+
+import org.ftc7244.robotcontroller.autonomous.PIDAutonomous;
+import org.ftc7244.robotcontroller.autonomous.Status;
+import org.ftc7244.robotcontroller.autonomous.controllers.GainFile;
+import org.ftc7244.robotcontroller.autonomous.controllers.PIDDriveControl;
+import org.ftc7244.robotcontroller.autonomous.controllers.RelayController;
+import org.ftc7244.robotcontroller.autonomous.controllers.TuningRule;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Tunes the PID of a driver with a relay feedback experiment and saves the gains to the
+ * ${@link GainFile#getDefault() default gain file} so every autonomous loads them from then on. The
+ * gains of every ${@link TuningRule} are saved under the name of the rule so a different rule can be
+ * tried by copying its gains over the ones in use.
+ */
+public abstract class BaseAutoTune extends PIDAutonomous {
+
+    /**
+     * The rule whose gains are used by the drivers
+     */
+    private static final TuningRule RULE = TuningRule.SOME_OVERSHOOT;
+    private static final int CYCLES = 5;
+    private static final long TIMEOUT = 15000;
+
+    /**
+     * Run the experiment and save the result. The result is left on the telemetry until stop is
+     * pressed.
+     *
+     * @param drive      the driver to tune
+     * @param name       the name the gains are saved under
+     * @param target     the value to oscillate around
+     * @param amplitude  output while the relay is on
+     * @param hysteresis how far the error has to cross zero before the relay flips
+     * @throws InterruptedException if the code fails to end on finish request
+     */
+    protected void tune(@NonNull PIDDriveControl drive, @NonNull String name, double target, double amplitude, double hysteresis) throws InterruptedException {
+        telemetry.addLine("Tuning " + name + "...");
+        telemetry.update();
+        RelayController relay = drive.autoTune(target, amplitude, hysteresis, CYCLES, TIMEOUT);
+        double ultimateGain = relay.getUltimateGain(), ultimatePeriod = relay.getUltimatePeriod();
+
+        if (!relay.isFinished() || Double.isNaN(ultimateGain)) {
+            telemetry.addLine("Only measured " + relay.getMeasured() + " of " + CYCLES + " oscillations, nothing saved");
+        } else {
+            telemetry.addLine(String.format(Locale.US, "Ultimate gain %.5f period %.0f ms", ultimateGain, ultimatePeriod));
+            GainFile gains = GainFile.getDefault();
+            for (TuningRule rule : TuningRule.values()) {
+                double kP = rule.getProportional(ultimateGain), kI = rule.getIntegral(ultimateGain, ultimatePeriod),
+                        kD = rule.getDerivative(ultimateGain, ultimatePeriod);
+                gains.put(name + "." + rule.name(), kP, kI, kD);
+                if (rule == RULE) gains.put(name, kP, kI, kD);
+                telemetry.addLine(String.format(Locale.US, "%s P %.5f I %.7f D %.4f", rule.name(), kP, kI, kD));
+            }
+            try {
+                gains.save(String.format(Locale.US, "%s ultimate gain %f period %f ms, using %s", name, ultimateGain, ultimatePeriod, RULE.name()));
+                telemetry.addLine("Saved to " + gains.getFile());
+            } catch (IOException e) {
+                telemetry.addLine("Unable to save: " + e.getMessage());
+            }
+        }
+        telemetry.update();
+        Status.getToken().await();
+    }
+}
@@ -0,0 +1,18 @@
+package org.ftc7244.robotcontroller.programs.debug;
+
+import com.qualcomm.robotcore.eventloop.opmode.Autonomous;
+
+import org.ftc7244.robotcontroller.autonomous.drivers.GyroscopeDrive;
+
+/**
+ * Tunes the heading PID of the ${@link GyroscopeDrive} by rocking the robot in place, it needs about
+ * a foot of room to every side
+ */
+@Autonomous(name = "Gyroscope Auto Tune")
+public class GyroscopeAutoTune extends BaseAutoTune {
+
+    @Override
+    public void run() throws InterruptedException {
+        tune(gyroscope, GyroscopeDrive.class.getSimpleName(), 0, 0.3, 1);
+    }
+}
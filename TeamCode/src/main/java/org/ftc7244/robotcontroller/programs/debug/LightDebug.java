@@ -1,7 +1,7 @@
 package org.ftc7244.robotcontroller.programs.debug;
 
-import com.qualcomm.hardware.hitechnic.HiTechnicNxtLightSensor;
 import com.qualcomm.robotcore.eventloop.opmode.Autonomous;
+import com.qualcomm.robotcore.hardware.LightSensor;
 
 import org.ftc7244.robotcontroller.autonomous.PIDAutonomous;
 
@@ -12,8 +12,8 @@ import org.ftc7244.robotcontroller.autonomous.PIDAutonomous;
 public class LightDebug extends PIDAutonomous {
     @Override
     public void run() throws InterruptedException {
-        HiTechnicNxtLightSensor trailing = robot.getTrailingLight();
-        HiTechnicNxtLightSensor leading = robot.getLeadingLight();
+        LightSensor trailing = robot.getTrailingLight();
+        LightSensor leading = robot.getLeadingLight();
         leading.enableLed(true);
         trailing.enableLed(true);
         leading.enableLed(true);
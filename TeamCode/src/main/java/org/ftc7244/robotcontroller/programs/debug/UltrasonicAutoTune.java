@@ -0,0 +1,18 @@
+package org.ftc7244.robotcontroller.programs.debug;
+
+import com.qualcomm.robotcore.eventloop.opmode.Autonomous;
+
+import org.ftc7244.robotcontroller.autonomous.drivers.UltrasonicDrive;
+
+/**
+ * Tunes the PID of the ${@link UltrasonicDrive} by rocking the robot while it faces along the wall,
+ * start it parallel to the wall a few inches away
+ */
+@Autonomous(name = "Ultrasonic Auto Tune")
+public class UltrasonicAutoTune extends BaseAutoTune {
+
+    @Override
+    public void run() throws InterruptedException {
+        tune(ultrasonic, UltrasonicDrive.class.getSimpleName(), 0, 0.1, 0.05);
+    }
+}
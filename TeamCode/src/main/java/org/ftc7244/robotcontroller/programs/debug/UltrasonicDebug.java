@@ -2,7 +2,9 @@ package org.ftc7244.robotcontroller.programs.debug;
 
 import com.qualcomm.robotcore.eventloop.opmode.Autonomous;
 
+import org.ftc7244.robotcontroller.autonomous.Clock;
 import org.ftc7244.robotcontroller.autonomous.PIDAutonomous;
+import org.ftc7244.robotcontroller.autonomous.Status;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -19,7 +21,7 @@ public class UltrasonicDebug extends PIDAutonomous {
     @Override
     public void run() throws InterruptedException {
         double oldLeading = 0, oldTrailing = 0;
-        while (!isStopRequested() && (getAutonomousEnd() - System.currentTimeMillis()) > 15000) {
+        while (!isStopRequested() && (getAutonomousEnd() - Clock.getDefault().millis()) > 15000) {
             double leading = robot.getLeadingUltrasonic().getUltrasonicLevel(), trailing = robot.getTrailingUltrasonic().getUltrasonicLevel();
             if (oldLeading != leading || trailing != oldTrailing) {
                 oldLeading = leading;
@@ -45,7 +47,7 @@ public class UltrasonicDebug extends PIDAutonomous {
         telemetry.addLine("Total Records = " + combined.size() / 2);
         telemetry.update();
 
-        while (!isStopRequested()) idle();
+        Status.getToken().await();
 
     }
 
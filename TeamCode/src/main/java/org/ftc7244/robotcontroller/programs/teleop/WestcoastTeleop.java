@@ -5,13 +5,12 @@ import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
 import com.qualcomm.robotcore.util.RobotLog;
 
 import org.ftc7244.robotcontroller.Westcoast;
+import org.ftc7244.robotcontroller.actions.ActionFuture;
 import org.ftc7244.robotcontroller.core.Button;
 import org.ftc7244.robotcontroller.core.ButtonType;
 import org.ftc7244.robotcontroller.core.PressButton;
 import org.ftc7244.robotcontroller.sensor.SickUltrasonic;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 @TeleOp(name = "Westcoast Drive")
@@ -23,7 +22,6 @@ public class WestcoastTeleop extends OpMode {
     private Button aButton, triggerL, triggerR, xButton, yButton, bButton;
     private Button driverBButton, driverYButton;
     private AtomicBoolean runningLauncher, flicker;
-    private ExecutorService service;
 
     @Override
     public void init() {
@@ -39,7 +37,6 @@ public class WestcoastTeleop extends OpMode {
         driverYButton = new PressButton(gamepad1, ButtonType.Y);
 
         runningLauncher = new AtomicBoolean(false);
-        service = Executors.newCachedThreadPool();
 
         robot.init();
     }
@@ -68,14 +65,10 @@ public class WestcoastTeleop extends OpMode {
         //Run the automatic shoot system
         if (aButton.isPressed() && !runningLauncher.get()) {
             runningLauncher.set(true);
-            service.execute(new Runnable() {
+            robot.shootAsync(50).onComplete(new ActionFuture.Callback() {
                 @Override
-                public void run() {
-                    try {
-                        robot.shoot(50);
-                    } catch (InterruptedException e) {
-                        RobotLog.e("Shooting was stopped early");
-                    }
+                public void onComplete(ActionFuture future) {
+                    if (future.isCancelled()) RobotLog.e("Shooting was stopped early");
                     runningLauncher.set(false);
                 }
             });
@@ -108,6 +101,6 @@ public class WestcoastTeleop extends OpMode {
 
     @Override
     public void stop() {
-        service.shutdown();
+        robot.getActions().stop();
     }
 }
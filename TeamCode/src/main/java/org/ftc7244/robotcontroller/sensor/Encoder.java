@@ -0,0 +1,71 @@
+package org.ftc7244.robotcontroller.sensor;
+
+import android.support.annotation.NonNull;
+
+import com.qualcomm.robotcore.hardware.DcMotor;
+
+/**
+ * Counts the ticks of a motor in software so the encoder can be zeroed without touching the
+ * hardware. Resetting only moves the software zero which takes effect immediately, unlike
+ * ${@link DcMotor.RunMode#STOP_AND_RESET_ENCODER} which needs round trips to the motor controller and
+ * a mode switch. Ticks are accumulated into a long from the change between readings so the count
+ * keeps going even if the position of the hardware overflows.
+ */
+public class Encoder {
+
+    private final DcMotor motor;
+    private volatile long ticks, zero;
+    private int lastPosition;
+    private boolean started;
+
+    /**
+     * @param motor the motor with the encoder, it keeps its current run mode
+     */
+    public Encoder(@NonNull DcMotor motor) {
+        this.motor = motor;
+    }
+
+    /**
+     * Read the hardware and add the ticks since the last read
+     *
+     * @return ticks since the last ${@link #reset()}
+     */
+    public synchronized long update() {
+        int position = motor.getCurrentPosition();
+        if (!started) {
+            started = true;
+            ticks = position;
+        } else {
+            //the subtraction wraps the same way the hardware does so an overflow still gives the right change
+            ticks += position - lastPosition;
+        }
+        lastPosition = position;
+        return ticks - zero;
+    }
+
+    /**
+     * Make the current position zero. This does not read or change the hardware so it should be
+     * called after the last ${@link #update()} that should count.
+     */
+    public void reset() {
+        zero = ticks;
+    }
+
+    /**
+     * @return ticks since the last ${@link #reset()} as of the last ${@link #update()}
+     */
+    public long getPosition() {
+        return ticks - zero;
+    }
+
+    /**
+     * @return ticks counted since the encoder was first read, this is not affected by ${@link #reset()}
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    public DcMotor getMotor() {
+        return motor;
+    }
+}
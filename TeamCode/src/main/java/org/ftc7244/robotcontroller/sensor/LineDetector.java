@@ -0,0 +1,219 @@
+package org.ftc7244.robotcontroller.sensor;
+
+/**
+ * Finds a line of tape under a light sensor without a fixed threshold. While the sensor is over the
+ * carpet it learns how bright the carpet is with a streaming percentile estimate and how much the
+ * readings vary around it. A line starts once a reading rises far enough above the carpet and ends
+ * once a reading falls back below a lower threshold so noise at the edge cannot toggle it.
+ * <p>
+ * The readings are only taken every few milliseconds so the edge of the line is almost never exactly
+ * on a reading. Instead of using the position of the first reading past the threshold the position
+ * where the threshold was crossed is interpolated between that reading and the one before it, so
+ * the line is found at the same position no matter how fast the robot drives or when the readings
+ * happen to be taken.
+ */
+public class LineDetector {
+
+    /**
+     * Which percentile of the carpet readings is used as the baseline
+     */
+    private static final double PERCENTILE = 0.5;
+    /**
+     * How far the baseline moves per reading compared to the spread of the readings
+     */
+    private static final double LEARNING_RATE = 0.05;
+    /**
+     * Smoothing of the variance, the weight of the newest reading
+     */
+    private static final double VARIANCE_SMOOTHING = 0.05;
+    /**
+     * How many standard deviations above the baseline a reading has to be to start a line
+     */
+    private static final double DEVIATIONS = 6;
+    /**
+     * Where the falling threshold sits between the baseline and the rising threshold
+     */
+    private static final double HYSTERESIS = 0.5;
+    /**
+     * Amount of readings used to learn the carpet before a line can be found
+     */
+    private static final int WARMUP = 10;
+
+    private final double contrast;
+    private double baseline, variance, lastLight, lastPosition;
+    private double entryPosition, exitPosition;
+    private long lastTimestamp, entryTimestamp, exitTimestamp;
+    private int samples;
+    private boolean onLine, seen;
+
+    /**
+     * @param contrast the least amount the line reads brighter than the carpet from 0 to 1, it is used
+     *                 when the readings of the carpet are too steady to give a threshold
+     */
+    public LineDetector(double contrast) {
+        this.contrast = contrast;
+        reset();
+    }
+
+    /**
+     * Forget everything including the carpet, the next readings are used to learn it again
+     */
+    public void reset() {
+        samples = 0;
+        baseline = 0;
+        variance = 0;
+        onLine = false;
+        seen = false;
+        entryTimestamp = -1;
+        exitTimestamp = -1;
+    }
+
+    /**
+     * Forget the line that was found but keep what was learned about the carpet. If the sensor is
+     * still over the line it counts as found until it leaves.
+     */
+    public void resetLine() {
+        seen = onLine;
+        if (!onLine) entryTimestamp = -1;
+        exitTimestamp = -1;
+    }
+
+    /**
+     * Add a reading of the light sensor
+     *
+     * @param light     the reading from 0 to 1
+     * @param position  the position of the robot when it was read, such as the average drive encoder
+     * @param timestamp when it was read in nanoseconds
+     * @return if the sensor entered or left the line with this reading
+     */
+    public boolean update(double light, double position, long timestamp) {
+        boolean edge = false;
+        if (samples >= WARMUP) {
+            if (!onLine && light >= getRisingThreshold()) {
+                double fraction = crossing(getRisingThreshold(), light);
+                entryPosition = lastPosition + fraction * (position - lastPosition);
+                entryTimestamp = lastTimestamp + (long) (fraction * (timestamp - lastTimestamp));
+                exitTimestamp = -1;
+                onLine = true;
+                seen = true;
+                edge = true;
+            } else if (onLine && light <= getFallingThreshold()) {
+                double fraction = crossing(getFallingThreshold(), light);
+                exitPosition = lastPosition + fraction * (position - lastPosition);
+                exitTimestamp = lastTimestamp + (long) (fraction * (timestamp - lastTimestamp));
+                onLine = false;
+                edge = true;
+            }
+        }
+        //the line itself must never be learned as carpet
+        if (!onLine && !edge) learn(light);
+
+        lastLight = light;
+        lastPosition = position;
+        lastTimestamp = timestamp;
+        return edge;
+    }
+
+    private void learn(double light) {
+        samples++;
+        if (samples <= WARMUP) {
+            //the mean and variance of the first readings give the estimate a starting point
+            double delta = light - baseline;
+            baseline += delta / samples;
+            variance += (delta * (light - baseline) - variance) / samples;
+            return;
+        }
+
+        //move the percentile estimate a step towards the reading scaled to the spread of the readings
+        double step = LEARNING_RATE * Math.max(getDeviation(), contrast / DEVIATIONS);
+        baseline += light > baseline ? step * PERCENTILE : -step * (1 - PERCENTILE);
+        double deviation = light - baseline;
+        variance += VARIANCE_SMOOTHING * (deviation * deviation - variance);
+    }
+
+    /**
+     * @return fraction of the way from the last reading to the current one where the threshold was crossed
+     */
+    private double crossing(double threshold, double light) {
+        double change = light - lastLight;
+        if (change == 0) return 1;
+        return Math.max(0, Math.min(1, (threshold - lastLight) / change));
+    }
+
+    /**
+     * @return the learned brightness of the carpet
+     */
+    public double getBaseline() {
+        return baseline;
+    }
+
+    /**
+     * @return the standard deviation of the carpet readings around the baseline
+     */
+    public double getDeviation() {
+        return Math.sqrt(Math.max(0, variance));
+    }
+
+    /**
+     * @return the reading a line starts at
+     */
+    public double getRisingThreshold() {
+        return baseline + Math.max(contrast, DEVIATIONS * getDeviation());
+    }
+
+    /**
+     * @return the reading a line ends at once it has started
+     */
+    public double getFallingThreshold() {
+        return baseline + HYSTERESIS * (getRisingThreshold() - baseline);
+    }
+
+    /**
+     * @return if enough readings were taken to know what the carpet looks like
+     */
+    public boolean isReady() {
+        return samples >= WARMUP;
+    }
+
+    /**
+     * @return if the sensor is over the line
+     */
+    public boolean isOnLine() {
+        return onLine;
+    }
+
+    /**
+     * @return if a line was found since the last reset
+     */
+    public boolean hasSeenLine() {
+        return seen;
+    }
+
+    /**
+     * @return interpolated position where the sensor entered the line, only valid if ${@link #getEntryTimestamp()} is not -1
+     */
+    public double getEntryPosition() {
+        return entryPosition;
+    }
+
+    /**
+     * @return interpolated time when the sensor entered the line in nanoseconds or -1 if it has not
+     */
+    public long getEntryTimestamp() {
+        return entryTimestamp;
+    }
+
+    /**
+     * @return interpolated position where the sensor left the line, only valid if ${@link #getExitTimestamp()} is not -1
+     */
+    public double getExitPosition() {
+        return exitPosition;
+    }
+
+    /**
+     * @return interpolated time when the sensor left the line in nanoseconds or -1 if it has not
+     */
+    public long getExitTimestamp() {
+        return exitTimestamp;
+    }
+}
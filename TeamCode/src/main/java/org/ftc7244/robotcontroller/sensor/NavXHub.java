@@ -0,0 +1,314 @@
+package org.ftc7244.robotcontroller.sensor;
+
+import android.support.annotation.NonNull;
+
+import com.kauailabs.navx.AHRSProtocol;
+import com.kauailabs.navx.IMURegisters;
+import com.kauailabs.navx.ftc.AHRS;
+import com.kauailabs.navx.ftc.IDataArrivalSubscriber;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+import com.qualcomm.robotcore.util.RobotLog;
+
+import org.ftc7244.robotcontroller.Westcoast;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Owns the one connection to the NavX and shares it between every provider that reads from it. Each
+ * update is decoded once into a ${@link NavXSample} on the thread of the NavX and then handed to
+ * every subscriber so adding another provider never adds bus traffic. The NavX library only allows
+ * one connection for the life of the app so it is opened by the first subscriber and kept open,
+ * the hub just stops listening while nobody is subscribed.
+ * <p>
+ * The library does not pass the packet to the callback, only the type of data, but it calls back on
+ * its own thread right after decoding the packet into its ${@link AHRSProtocol.AHRSPosUpdate}. The
+ * hub reads that structure directly instead of going through the getters of ${@link AHRS} so every
+ * value comes from the same packet. Captured register bytes can be fed through
+ * ${@link #update(byte[], int, long)} to decode them the same way without a NavX.
+ */
+public class NavXHub implements IDataArrivalSubscriber {
+
+    /**
+     * The structure of ${@link AHRS} the library decodes every packet into or null if this version of
+     * the library does not have it
+     */
+    private static final Field UPDATE_FIELD = findUpdateField();
+
+    private static final NavXHub INSTANCE = new NavXHub();
+
+    /**
+     * How much longer than the expected period the gap between two updates can be before the
+     * updates in between are counted as dropped
+     */
+    private static final double DROPPED_GAP = 1.5;
+
+    /**
+     * How fast the estimated offset between the clock of the NavX and the phone is allowed to grow in
+     * milliseconds per update. It shrinks immediately so the offset follows the updates that arrived
+     * with the least delay while still following the two clocks drifting apart.
+     */
+    private static final double CLOCK_DRIFT = 0.01;
+
+    private final CopyOnWriteArrayList<Listener> listeners;
+    private final NavXSample sample;
+    private final AHRSProtocol.AHRSPosUpdate replayUpdate;
+    private AHRS navxDevice;
+    private AHRSProtocol.AHRSPosUpdate update;
+    private boolean registered;
+
+    private long lastSensorTimestamp, windowStart;
+    private double clockOffset;
+    private int windowSamples;
+    private volatile long samples, dropped;
+    private volatile double updateRate;
+
+    private NavXHub() {
+        listeners = new CopyOnWriteArrayList<>();
+        sample = new NavXSample();
+        replayUpdate = new AHRSProtocol.AHRSPosUpdate();
+        reset();
+    }
+
+    /**
+     * @return the hub shared by the whole app
+     */
+    @NonNull
+    public static NavXHub getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Start delivering updates to a listener. The connection to the NavX is opened by the first
+     * subscriber.
+     *
+     * @param map      the hardware map with the "navx" device
+     * @param listener what to call on every update
+     */
+    public synchronized void subscribe(@NonNull HardwareMap map, @NonNull Listener listener) {
+        if (navxDevice == null) {
+            navxDevice = Westcoast.getNavX(map);
+            update = findUpdate(navxDevice);
+        }
+        listeners.addIfAbsent(listener);
+        if (!registered) {
+            reset();
+            registered = navxDevice.registerCallback(this);
+        }
+    }
+
+    /**
+     * Start delivering updates to a listener without opening the connection to the NavX, such as to
+     * receive the updates fed through ${@link #update(byte[], int, long)}.
+     *
+     * @param listener what to call on every update
+     */
+    public void subscribe(@NonNull Listener listener) {
+        listeners.addIfAbsent(listener);
+    }
+
+    /**
+     * Stop delivering updates to a listener. Once nothing is subscribed the hub stops listening to
+     * the NavX.
+     *
+     * @param listener the listener to remove
+     */
+    public synchronized void unsubscribe(@NonNull Listener listener) {
+        listeners.remove(listener);
+        if (listeners.isEmpty() && registered) {
+            navxDevice.deregisterCallback(this);
+            registered = false;
+        }
+    }
+
+    /**
+     * Set the current yaw of the NavX to zero. This affects every subscriber.
+     */
+    public synchronized void zeroYaw() {
+        if (navxDevice != null) navxDevice.zeroYaw();
+    }
+
+    @Override
+    public void untimestampedDataReceived(long systemTimestamp, Object o) {
+    }
+
+    @Override
+    public void timestampedDataReceived(long systemTimestamp, long sensorTimestamp, Object o) {
+        AHRS navxDevice = this.navxDevice;
+        if (navxDevice == null) return;
+        AHRSProtocol.AHRSPosUpdate update = this.update;
+        if (update == null) {
+            //the structure could not be found so copy the getters into one instead
+            update = replayUpdate;
+            update.yaw = navxDevice.getYaw();
+            update.pitch = navxDevice.getPitch();
+            update.roll = navxDevice.getRoll();
+            update.linear_accel_x = navxDevice.getWorldLinearAccelX();
+            update.linear_accel_y = navxDevice.getWorldLinearAccelY();
+            update.linear_accel_z = navxDevice.getWorldLinearAccelZ();
+            update.sensor_status = navxDevice.isMoving() ? AHRSProtocol.NAVX_SENSOR_STATUS_MOVING : 0;
+            update.cal_status = navxDevice.isCalibrating() ? 0 : AHRSProtocol.NAVX_CAL_STATUS_IMU_CAL_COMPLETE;
+        }
+        decode(update, sensorTimestamp, systemTimestamp);
+    }
+
+    /**
+     * Decode a block of processed data registers and deliver it to the subscribers as if it came
+     * from the NavX. This is meant for replaying captured bytes.
+     *
+     * @param registers       the bytes read from the NavX
+     * @param first           the register the bytes start at
+     * @param systemTimestamp when the bytes arrived in milliseconds
+     */
+    public synchronized void update(@NonNull byte[] registers, int first, long systemTimestamp) {
+        long sensorTimestamp = decodeRegisters(registers, first, replayUpdate);
+        decode(replayUpdate, sensorTimestamp, systemTimestamp);
+    }
+
+    /**
+     * Decode a block of processed data registers into an update structure. This matches the layout
+     * the NavX library reads when streaming processed data.
+     *
+     * @param registers the bytes read from the NavX
+     * @param first     the register the bytes start at
+     * @param into      the structure to overwrite
+     * @return the timestamp of the NavX in milliseconds
+     */
+    public static long decodeRegisters(@NonNull byte[] registers, int first, @NonNull AHRSProtocol.AHRSPosUpdate into) {
+        into.sensor_status = registers[IMURegisters.NAVX_REG_SENSOR_STATUS_L - first];
+        //the library reads the calibration state from the byte after the sensor status
+        into.cal_status = registers[IMURegisters.NAVX_REG_SENSOR_STATUS_H - first];
+        into.yaw = AHRSProtocol.decodeProtocolSignedHundredthsFloat(registers, IMURegisters.NAVX_REG_YAW_L - first);
+        into.pitch = AHRSProtocol.decodeProtocolSignedHundredthsFloat(registers, IMURegisters.NAVX_REG_PITCH_L - first);
+        into.roll = AHRSProtocol.decodeProtocolSignedHundredthsFloat(registers, IMURegisters.NAVX_REG_ROLL_L - first);
+        into.linear_accel_x = AHRSProtocol.decodeProtocolSignedThousandthsFloat(registers, IMURegisters.NAVX_REG_LINEAR_ACC_X_L - first);
+        into.linear_accel_y = AHRSProtocol.decodeProtocolSignedThousandthsFloat(registers, IMURegisters.NAVX_REG_LINEAR_ACC_Y_L - first);
+        into.linear_accel_z = AHRSProtocol.decodeProtocolSignedThousandthsFloat(registers, IMURegisters.NAVX_REG_LINEAR_ACC_Z_L - first);
+        return AHRSProtocol.decodeBinaryUint32(registers, IMURegisters.NAVX_REG_TIMESTAMP_L_L - first) & 0xFFFFFFFFL;
+    }
+
+    private void decode(AHRSProtocol.AHRSPosUpdate update, long sensorTimestamp, long systemTimestamp) {
+        double yaw = update.yaw, pitch = update.pitch, roll = update.roll;
+
+        //rates come from the previous update since the processed data does not include them
+        double yawRate = 0, pitchRate = 0, rollRate = 0;
+        long gap = sensorTimestamp - lastSensorTimestamp;
+        if (lastSensorTimestamp != 0 && gap > 0) {
+            yawRate = wrap(yaw - sample.getYaw()) * 1000 / gap;
+            pitchRate = wrap(pitch - sample.getPitch()) * 1000 / gap;
+            rollRate = wrap(roll - sample.getRoll()) * 1000 / gap;
+
+            double period = 1000d / Westcoast.NAVX_DEVICE_UPDATE_RATE_HZ;
+            if (gap > period * DROPPED_GAP) dropped += Math.round(gap / period) - 1;
+        }
+        lastSensorTimestamp = sensorTimestamp;
+
+        //place the time the NavX measured the update on the clock of the phone
+        double offset = systemTimestamp - sensorTimestamp;
+        clockOffset = Double.isNaN(clockOffset) ? offset : Math.min(clockOffset + CLOCK_DRIFT, offset);
+
+        sample.set(yaw, pitch, roll, yawRate, pitchRate, rollRate,
+                update.linear_accel_x, update.linear_accel_y, update.linear_accel_z,
+                (update.sensor_status & AHRSProtocol.NAVX_SENSOR_STATUS_MOVING) != 0,
+                (update.cal_status & AHRSProtocol.NAVX_CAL_STATUS_IMU_CAL_STATE_MASK) != AHRSProtocol.NAVX_CAL_STATUS_IMU_CAL_COMPLETE,
+                sensorTimestamp, Math.round(sensorTimestamp + clockOffset));
+        samples++;
+
+        //measure the rate over windows of a second
+        if (windowSamples++ == 0) windowStart = systemTimestamp;
+        else if (systemTimestamp - windowStart >= 1000) {
+            updateRate = (windowSamples - 1) * 1000d / (systemTimestamp - windowStart);
+            windowStart = systemTimestamp;
+            windowSamples = 1;
+        }
+
+        for (Listener listener : listeners) listener.onUpdate(sample);
+    }
+
+    private void reset() {
+        lastSensorTimestamp = 0;
+        windowStart = 0;
+        windowSamples = 0;
+        clockOffset = Double.NaN;
+        samples = 0;
+        dropped = 0;
+        updateRate = 0;
+    }
+
+    @Override
+    public void yawReset() {
+    }
+
+    /**
+     * Find the structure the NavX library decodes every packet into. It is not exposed by the library
+     * so it is looked up once here instead of calling a getter for every value on every update.
+     *
+     * @param navxDevice the connection to the NavX
+     * @return the structure or null if this version of the library does not have it
+     */
+    private static AHRSProtocol.AHRSPosUpdate findUpdate(AHRS navxDevice) {
+        if (UPDATE_FIELD == null) return null;
+        try {
+            return (AHRSProtocol.AHRSPosUpdate) UPDATE_FIELD.get(navxDevice);
+        } catch (IllegalAccessException e) {
+            RobotLog.w("NavX update structure unavailable, using getters: " + e);
+            return null;
+        }
+    }
+
+    private static Field findUpdateField() {
+        try {
+            Field field = AHRS.class.getDeclaredField("curr_data");
+            if (!AHRSProtocol.AHRSPosUpdate.class.equals(field.getType()))
+                throw new NoSuchFieldException("curr_data is a " + field.getType().getName());
+            field.setAccessible(true);
+            return field;
+        } catch (NoSuchFieldException | SecurityException e) {
+            RobotLog.w("NavX update structure unavailable, using getters: " + e);
+            return null;
+        }
+    }
+
+    /**
+     * @return if the updates are read straight from the structure the NavX library decodes packets
+     * into, otherwise they are copied out of the getters of ${@link AHRS}
+     */
+    public static boolean readsUpdateStructure() {
+        return UPDATE_FIELD != null;
+    }
+
+    private static double wrap(double degrees) {
+        return ((degrees + 540) % 360) - 180;
+    }
+
+    /**
+     * @return updates per second that actually arrived over the last full second
+     */
+    public double getUpdateRate() {
+        return updateRate;
+    }
+
+    /**
+     * @return updates received since the first subscriber
+     */
+    public long getSamples() {
+        return samples;
+    }
+
+    /**
+     * @return updates the NavX measured that never arrived judging by the gaps in its timestamps
+     */
+    public long getDropped() {
+        return dropped;
+    }
+
+    public interface Listener {
+        /**
+         * Called on the thread of the NavX for every update. The sample is reused for the next
+         * update so copy anything that is needed later.
+         *
+         * @param sample the decoded update
+         */
+        void onUpdate(NavXSample sample);
+    }
+}
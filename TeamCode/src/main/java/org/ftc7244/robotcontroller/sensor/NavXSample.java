@@ -0,0 +1,126 @@
+package org.ftc7244.robotcontroller.sensor;
+
+/**
+ * One update from the NavX decoded by ${@link NavXHub}. Every value comes from the same update so
+ * subscribers never mix the yaw of one packet with the roll of another. The hub overwrites the same
+ * instance on every update so subscribers have to copy what they need before returning.
+ */
+public class NavXSample {
+
+    private double yaw, pitch, roll, yawRate, pitchRate, rollRate;
+    private double linearAccelX, linearAccelY, linearAccelZ;
+    private boolean moving, calibrating;
+    private long sensorTimestamp, timestamp;
+
+    /**
+     * Overwrite all the values of the sample at once
+     */
+    void set(double yaw, double pitch, double roll, double yawRate, double pitchRate, double rollRate,
+             double linearAccelX, double linearAccelY, double linearAccelZ, boolean moving,
+             boolean calibrating, long sensorTimestamp, long timestamp) {
+        this.yaw = yaw;
+        this.pitch = pitch;
+        this.roll = roll;
+        this.yawRate = yawRate;
+        this.pitchRate = pitchRate;
+        this.rollRate = rollRate;
+        this.linearAccelX = linearAccelX;
+        this.linearAccelY = linearAccelY;
+        this.linearAccelZ = linearAccelZ;
+        this.moving = moving;
+        this.calibrating = calibrating;
+        this.sensorTimestamp = sensorTimestamp;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * @return yaw from -180 to 180 degrees
+     */
+    public double getYaw() {
+        return yaw;
+    }
+
+    /**
+     * @return pitch from -180 to 180 degrees
+     */
+    public double getPitch() {
+        return pitch;
+    }
+
+    /**
+     * @return roll from -180 to 180 degrees
+     */
+    public double getRoll() {
+        return roll;
+    }
+
+    /**
+     * @return change of the yaw since the previous update in degrees per second
+     */
+    public double getYawRate() {
+        return yawRate;
+    }
+
+    /**
+     * @return change of the pitch since the previous update in degrees per second
+     */
+    public double getPitchRate() {
+        return pitchRate;
+    }
+
+    /**
+     * @return change of the roll since the previous update in degrees per second
+     */
+    public double getRollRate() {
+        return rollRate;
+    }
+
+    /**
+     * @return acceleration along the x axis of the field without gravity in g
+     */
+    public double getLinearAccelX() {
+        return linearAccelX;
+    }
+
+    /**
+     * @return acceleration along the y axis of the field without gravity in g
+     */
+    public double getLinearAccelY() {
+        return linearAccelY;
+    }
+
+    /**
+     * @return acceleration along the z axis of the field without gravity in g
+     */
+    public double getLinearAccelZ() {
+        return linearAccelZ;
+    }
+
+    /**
+     * @return if the NavX senses that the robot is moving
+     */
+    public boolean isMoving() {
+        return moving;
+    }
+
+    /**
+     * @return if the NavX has not finished calibrating
+     */
+    public boolean isCalibrating() {
+        return calibrating;
+    }
+
+    /**
+     * @return the clock of the NavX when it measured the update in milliseconds
+     */
+    public long getSensorTimestamp() {
+        return sensorTimestamp;
+    }
+
+    /**
+     * @return when the NavX measured the update on the clock of the phone in milliseconds
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+}
@@ -0,0 +1,71 @@
+package org.ftc7244.robotcontroller.sensor;
+
+import org.ftc7244.robotcontroller.autonomous.Clock;
+
+/**
+ * Where the robot is on the field as estimated by the ${@link PoseEstimator}. The heading is in
+ * degrees and clockwise positive like the gyroscope, at a heading of zero the robot faces along the
+ * x axis and the y axis is to its right. It is mutable so the same instance can be reused through
+ * ${@link PoseEstimator#readPose(Pose)} without allocating.
+ */
+public class Pose {
+
+    private double x, y, heading;
+    private long timestamp;
+
+    /**
+     * Overwrite all the values of the pose at once
+     */
+    void set(double x, double y, double heading, long timestamp) {
+        this.x = x;
+        this.y = y;
+        this.heading = heading;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * @return x position in inches
+     */
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * @return y position in inches
+     */
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * @return heading from -180 to 180 degrees, clockwise positive
+     */
+    public double getHeading() {
+        return heading;
+    }
+
+    /**
+     * @return ${@link Clock#nanoTime()} of the ${@link RobotState} the pose was last updated from
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @param x x position of the point in inches
+     * @param y y position of the point in inches
+     * @return distance to the point in inches
+     */
+    public double distanceTo(double x, double y) {
+        return Math.hypot(x - this.x, y - this.y);
+    }
+
+    /**
+     * @param x x position of the point in inches
+     * @param y y position of the point in inches
+     * @return field heading that faces the point in degrees
+     */
+    public double bearingTo(double x, double y) {
+        return Math.toDegrees(Math.atan2(y - this.y, x - this.x));
+    }
+}
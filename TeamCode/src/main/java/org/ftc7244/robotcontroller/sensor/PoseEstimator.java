@@ -0,0 +1,200 @@
+package org.ftc7244.robotcontroller.sensor;
+
+import android.support.annotation.NonNull;
+
+import org.ftc7244.robotcontroller.Westcoast;
+import org.ftc7244.robotcontroller.autonomous.Clock;
+import org.ftc7244.robotcontroller.autonomous.Status;
+import org.ftc7244.robotcontroller.autonomous.controllers.FixedRateScheduler;
+import org.ftc7244.robotcontroller.sensor.gyroscope.GyroscopeProvider;
+import org.ftc7244.robotcontroller.sensor.gyroscope.OrientationSample;
+
+/**
+ * Keeps track of where the robot is on the field by integrating the distance driven by the encoders
+ * along the heading of the gyroscope. The encoders are counted by the ${@link SensorAcquisition} so
+ * integrating does not add any round trips to the hardware. It runs on its own thread at the sensor
+ * rate and publishes each ${@link Pose} through a sequence lock.
+ * <p>
+ * Resetting the encoders or the orientation of the gyroscope does not move the pose. The ticks are
+ * taken from ${@link Encoder#getTicks()} which ignores resets and the heading is tracked from the
+ * gyroscope without its offset.
+ */
+public class PoseEstimator {
+
+    /**
+     * Counter used as a sequence lock so the whole pose is published at once. It is odd while a pose
+     * is being written which tells readers to try again.
+     */
+    private volatile int sequence;
+    private volatile double x, y, heading;
+    private volatile long timestamp;
+
+    private final Westcoast robot;
+    private final FixedRateScheduler scheduler;
+    private final RobotState state;
+    private final OrientationSample sample;
+    private GyroscopeProvider gyroProvider;
+    private volatile Thread thread;
+
+    private boolean initialized;
+    private long lastLeft, lastRight;
+    private long lastTimestamp;
+    private double lastYaw;
+
+    /**
+     * @param robot        the robot with the drive encoders
+     * @param gyroProvider the gyroscope to take the heading from
+     * @param rate         how many times a second to update the pose
+     */
+    public PoseEstimator(@NonNull Westcoast robot, @NonNull GyroscopeProvider gyroProvider, double rate) {
+        this.robot = robot;
+        this.gyroProvider = gyroProvider;
+        this.scheduler = new FixedRateScheduler(1000 / rate);
+        this.state = new RobotState();
+        this.sample = new OrientationSample();
+    }
+
+    /**
+     * Begin updating the pose on a background thread. The thread ends once ${@link #stop()} is called
+     * or stop is requested.
+     */
+    public synchronized void start() {
+        if (thread != null) return;
+        thread = Clock.getDefault().newThread(new Runnable() {
+            @Override
+            public void run() {
+                Thread current = Thread.currentThread();
+                scheduler.start();
+                while (thread == current && !Status.isStopRequested()) {
+                    scheduler.awaitNextCycle();
+                    update();
+                }
+                synchronized (PoseEstimator.this) {
+                    if (thread == current) thread = null;
+                }
+            }
+        }, "PoseEstimator");
+        thread.start();
+    }
+
+    /**
+     * Stop updating in the background. Reads after this update on the calling thread.
+     */
+    public synchronized void stop() {
+        thread = null;
+    }
+
+    public boolean isRunning() {
+        return thread != null;
+    }
+
+    /**
+     * Move the robot to a new place on the field, such as its starting position
+     *
+     * @param x       x position in inches
+     * @param y       y position in inches
+     * @param heading heading in degrees, clockwise positive
+     */
+    public synchronized void setPose(double x, double y, double heading) {
+        initialized = false;
+        publish(x, y, normalize(heading), this.timestamp);
+    }
+
+    /**
+     * Copy the latest pose into the one provided. This does not lock or allocate unless the thread is
+     * stopped, then it updates the pose first.
+     *
+     * @param reuse the pose to overwrite
+     * @return the same pose that was passed in
+     */
+    @NonNull
+    public Pose readPose(@NonNull Pose reuse) {
+        if (!isRunning()) update();
+        int sequence;
+        double x, y, heading;
+        long timestamp;
+        do {
+            sequence = this.sequence;
+            x = this.x;
+            y = this.y;
+            heading = this.heading;
+            timestamp = this.timestamp;
+            //retry if a write was in progress or finished while reading
+        } while ((sequence & 1) != 0 || sequence != this.sequence);
+        reuse.set(x, y, heading, timestamp);
+        return reuse;
+    }
+
+    /**
+     * Change the gyroscope the heading comes from
+     *
+     * @param gyroProvider base way to read gyroscope values
+     */
+    public synchronized void setGyroProvider(@NonNull GyroscopeProvider gyroProvider) {
+        this.gyroProvider = gyroProvider;
+        initialized = false;
+    }
+
+    /**
+     * Integrate the distance driven since the last update. It is synchronized so there is only ever
+     * one writer even when the thread and a reader update at the same time.
+     */
+    private synchronized void update() {
+        robot.getSensors().readState(state);
+        double yaw = readYaw();
+        long left = ticks(robot.getDriveLeftEncoder()), right = ticks(robot.getDriveRightEncoder());
+        long timestamp = state.getTimestamp();
+        if (!initialized) {
+            initialized = true;
+        } else if (timestamp != lastTimestamp) {
+            double distance = (left - lastLeft + right - lastRight) / 2d / Westcoast.COUNTS_PER_INCH;
+
+            //drive along the heading halfway through the turn
+            double turn = normalize(yaw - lastYaw), heading = this.heading;
+            double middle = Math.toRadians(heading + turn / 2);
+            publish(x + distance * Math.cos(middle), y + distance * Math.sin(middle), normalize(heading + turn), timestamp);
+        } else return;
+        lastLeft = left;
+        lastRight = right;
+        lastYaw = yaw;
+        lastTimestamp = timestamp;
+    }
+
+    private static long ticks(Encoder encoder) {
+        return encoder == null ? 0 : encoder.getTicks();
+    }
+
+    /**
+     * @return the heading of the gyroscope without the offset so resetting the orientation does not
+     * look like a turn
+     */
+    private double readYaw() {
+        double offset;
+        do {
+            offset = gyroProvider.getZOffset();
+            gyroProvider.readSnapshot(sample);
+        } while (offset != gyroProvider.getZOffset());
+        return normalize(sample.getZ() + offset);
+    }
+
+    private void publish(double x, double y, double heading, long timestamp) {
+        int sequence = this.sequence;
+        this.sequence = sequence + 1;
+        this.x = x;
+        this.y = y;
+        this.heading = heading;
+        this.timestamp = timestamp;
+        this.sequence = sequence + 2;
+    }
+
+    /**
+     * @param degrees any angle
+     * @return the same angle from -180 to 180 degrees
+     */
+    public static double normalize(double degrees) {
+        degrees %= 360;
+        if (degrees >= 180) degrees -= 360;
+        else if (degrees < -180) degrees += 360;
+        return degrees;
+    }
+}
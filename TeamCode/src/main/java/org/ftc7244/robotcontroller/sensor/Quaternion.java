@@ -38,38 +38,60 @@ public class Quaternion {
     }
 
     /**
-     * Multiply this quaternion by the input quaternion and store the result in the out quaternion
+     * Reset the quaternion to the identity rotation
+     */
+    public void reset() {
+        this.points[0] = 0;
+        this.points[1] = 0;
+        this.points[2] = 0;
+        this.points[3] = 1;
+    }
+
+    /**
+     * Multiply this quaternion by the input quaternion and store the result in the out quaternion.
+     * Every term is calculated before the output is written so the input, output and this quaternion
+     * are allowed to be the same instance without allocating a temporary copy.
      *
      * @param input  the quaternion to multiply with
      * @param output the quaternion where the values are saved
      */
     public void multiplyByQuat(@NonNull Quaternion input, @NonNull Quaternion output) {
+        float x1 = points[0], y1 = points[1], z1 = points[2], w1 = points[3];
+        float x2 = input.points[0], y2 = input.points[1], z2 = input.points[2], w2 = input.points[3];
+
+        //getW = w1w2 - x1x2 - y1y2 - z1z2
+        output.points[3] = w1 * w2 - x1 * x2 - y1 * y2 - z1 * z2;
+        //getX = w1x2 + x1w2 + y1z2 - z1y2
+        output.points[0] = w1 * x2 + x1 * w2 + y1 * z2 - z1 * y2;
+        //setY = w1y2 + y1w2 + z1x2 - x1z2
+        output.points[1] = w1 * y2 + y1 * w2 + z1 * x2 - x1 * z2;
+        //setZ = w1z2 + z1w2 + x1y2 - y1x2
+        output.points[2] = w1 * z2 + z1 * w2 + x1 * y2 - y1 * x2;
+    }
 
-        if (input != output) {
-            //getW = w1w2 - x1x2 - y1y2 - z1z2
-            output.points[3] = (points[3] * input.points[3] - points[0] * input.points[0] - points[1] * input.points[1] - points[2] * input.points[2]);
-            //getX = w1x2 + x1w2 + y1z2 - z1y2
-            output.points[0] = (points[3] * input.points[0] + points[0] * input.points[3] + points[1] * input.points[2] - points[2] * input.points[1]);
-            //setY = w1y2 + y1w2 + z1x2 - x1z2
-            output.points[1] = (points[3] * input.points[1] + points[1] * input.points[3] + points[2] * input.points[0] - points[0] * input.points[2]);
-            //setZ = w1z2 + z1w2 + x1y2 - y1x2
-            output.points[2] = (points[3] * input.points[2] + points[2] * input.points[3] + points[0] * input.points[1] - points[1] * input.points[0]);
-        } else {
-            Quaternion tmpVector = new Quaternion();
-            tmpVector.points[0] = input.points[0];
-            tmpVector.points[1] = input.points[1];
-            tmpVector.points[2] = input.points[2];
-            tmpVector.points[3] = input.points[3];
-
-            //getW = w1w2 - x1x2 - y1y2 - z1z2
-            output.points[3] = (points[3] * tmpVector.points[3] - points[0] * tmpVector.points[0] - points[1] * tmpVector.points[1] - points[2] * tmpVector.points[2]);
-            //getX = w1x2 + x1w2 + y1z2 - z1y2
-            output.points[0] = (points[3] * tmpVector.points[0] + points[0] * tmpVector.points[3] + points[1] * tmpVector.points[2] - points[2] * tmpVector.points[1]);
-            //setY = w1y2 + y1w2 + z1x2 - x1z2
-            output.points[1] = (points[3] * tmpVector.points[1] + points[1] * tmpVector.points[3] + points[2] * tmpVector.points[0] - points[0] * tmpVector.points[2]);
-            //setZ = w1z2 + z1w2 + x1y2 - y1x2
-            output.points[2] = (points[3] * tmpVector.points[2] + points[2] * tmpVector.points[3] + points[0] * tmpVector.points[1] - points[1] * tmpVector.points[0]);
-        }
+    /**
+     * Computes the same azimuth, pitch and roll as passing this quaternion through
+     * {@code SensorManager.getRotationMatrixFromVector} and then {@code SensorManager.getOrientation}
+     * but only calculates the three matrix elements that are needed instead of building the matrix.
+     *
+     * @param output array of at least three values to store azimuth, pitch and roll in radians
+     * @return the same array that was passed in
+     */
+    @NonNull
+    public float[] getOrientation(@NonNull float[] output) {
+        float x = points[0], y = points[1], z = points[2], w = points[3];
+
+        //the rotation matrix elements used by SensorManager.getOrientation
+        float r1 = 2 * x * y - 2 * z * w;
+        float r5 = 1 - 2 * x * x - 2 * z * z;
+        float r8 = 2 * x * z - 2 * y * w;
+        float r9 = 2 * y * z + 2 * x * w;
+        float r10 = 1 - 2 * x * x - 2 * y * y;
+
+        output[0] = (float) Math.atan2(r1, r5);
+        output[1] = (float) Math.asin(-r9);
+        output[2] = (float) Math.atan2(-r8, r10);
+        return output;
     }
 
     /**
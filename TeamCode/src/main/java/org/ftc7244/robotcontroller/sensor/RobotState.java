@@ -0,0 +1,95 @@
+package org.ftc7244.robotcontroller.sensor;
+
+import org.ftc7244.robotcontroller.autonomous.Clock;
+
+/**
+ * Every sensor reading the control loops use taken during a single poll of the ${@link SensorAcquisition}.
+ * It is mutable so a control loop can reuse the same instance through
+ * ${@link SensorAcquisition#readState(RobotState)} without allocating every cycle. Devices that are
+ * missing from the robot read as zero.
+ */
+public class RobotState {
+
+    private long timestamp;
+    private long driveLeft, driveRight;
+    private double leadingLight, trailingLight, leadingUltrasonic, trailingUltrasonic, launcherLimit;
+
+    /**
+     * Overwrite all the values of the state at once. This is done by ${@link SensorAcquisition} and
+     * by replays feeding recorded states back into the control loops.
+     */
+    public void set(long timestamp, long driveLeft, long driveRight, double leadingLight, double trailingLight,
+             double leadingUltrasonic, double trailingUltrasonic, double launcherLimit) {
+        this.timestamp = timestamp;
+        this.driveLeft = driveLeft;
+        this.driveRight = driveRight;
+        this.leadingLight = leadingLight;
+        this.trailingLight = trailingLight;
+        this.leadingUltrasonic = leadingUltrasonic;
+        this.trailingUltrasonic = trailingUltrasonic;
+        this.launcherLimit = launcherLimit;
+    }
+
+    /**
+     * @return ${@link Clock#nanoTime()} when the poll that produced this state began
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return position of the left drive encoder in ticks
+     */
+    public long getDriveLeft() {
+        return driveLeft;
+    }
+
+    /**
+     * @return position of the right drive encoder in ticks
+     */
+    public long getDriveRight() {
+        return driveRight;
+    }
+
+    /**
+     * @return average position of both drive encoders in ticks
+     */
+    public long getDriveAverage() {
+        return (driveLeft + driveRight) / 2;
+    }
+
+    /**
+     * @return light detected by the leading light sensor from 0 to 1
+     */
+    public double getLeadingLight() {
+        return leadingLight;
+    }
+
+    /**
+     * @return light detected by the trailing light sensor from 0 to 1
+     */
+    public double getTrailingLight() {
+        return trailingLight;
+    }
+
+    /**
+     * @return distance from the leading ultrasonic in the units of its ${@link SickUltrasonic.Mode}
+     */
+    public double getLeadingUltrasonic() {
+        return leadingUltrasonic;
+    }
+
+    /**
+     * @return distance from the trailing ultrasonic in the units of its ${@link SickUltrasonic.Mode}
+     */
+    public double getTrailingUltrasonic() {
+        return trailingUltrasonic;
+    }
+
+    /**
+     * @return voltage of the limit switch on the launcher cam
+     */
+    public double getLauncherLimit() {
+        return launcherLimit;
+    }
+}
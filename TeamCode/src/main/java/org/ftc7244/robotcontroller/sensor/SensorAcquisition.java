@@ -0,0 +1,250 @@
+package org.ftc7244.robotcontroller.sensor;
+
+import android.support.annotation.NonNull;
+
+import com.qualcomm.robotcore.hardware.AnalogInput;
+import com.qualcomm.robotcore.hardware.LightSensor;
+import com.qualcomm.robotcore.util.RobotLog;
+
+import org.ftc7244.robotcontroller.Westcoast;
+import org.ftc7244.robotcontroller.autonomous.CancellationToken;
+import org.ftc7244.robotcontroller.autonomous.Clock;
+import org.ftc7244.robotcontroller.autonomous.Status;
+import org.ftc7244.robotcontroller.autonomous.controllers.FixedRateScheduler;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Reads every sensor on the ${@link Westcoast} the control loops depend on from one background thread
+ * at a fixed rate and publishes the result as a ${@link RobotState}. Control loops and terminators
+ * read the latest state instead of making their own round trips to the device modules so the
+ * speed of a loop no longer depends on how many sensors it looks at.
+ * <p>
+ * If the thread is not running every read polls the hardware on the calling thread instead so code
+ * outside of an autonomous keeps working.
+ * <p>
+ * Anything that has to react to a sensor faster than a control loop reads it can add a
+ * ${@link StateListener} which is handed every state the moment it is polled.
+ */
+public class SensorAcquisition {
+
+    /**
+     * Counter used as a sequence lock so the whole state is published at once. It is odd while a
+     * state is being written which tells readers to try again.
+     */
+    private volatile int sequence;
+    private volatile long timestamp;
+    private volatile long driveLeft, driveRight;
+    private volatile double leadingLight, trailingLight, leadingUltrasonic, trailingUltrasonic, launcherLimit;
+
+    private final Westcoast robot;
+    private final FixedRateScheduler scheduler;
+    private final List<StateListener> listeners;
+    private final RobotState sample;
+    private final Object publishLock;
+    /**
+     * Cancelled by the next publish to wake ${@link #awaitState(RobotState)}, null if nothing waits
+     */
+    private CancellationToken published;
+    private volatile Thread thread;
+
+    /**
+     * @param robot the robot with the sensors to read after ${@link Westcoast#init()}
+     * @param rate  how many times a second to poll the sensors
+     */
+    public SensorAcquisition(@NonNull Westcoast robot, double rate) {
+        this.robot = robot;
+        this.scheduler = new FixedRateScheduler(1000 / rate);
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.sample = new RobotState();
+        this.publishLock = new Object();
+    }
+
+    /**
+     * Begin polling on a background thread. The thread ends once ${@link #stop()} is called or stop
+     * is requested.
+     */
+    public synchronized void start() {
+        if (thread != null) return;
+        thread = Clock.getDefault().newThread(new Runnable() {
+            @Override
+            public void run() {
+                Thread current = Thread.currentThread();
+                scheduler.start();
+                while (thread == current && !Status.isStopRequested()) {
+                    scheduler.awaitNextCycle();
+                    poll();
+                }
+                synchronized (SensorAcquisition.this) {
+                    if (thread == current) thread = null;
+                }
+            }
+        }, "SensorAcquisition");
+        thread.start();
+    }
+
+    /**
+     * Stop polling in the background. Reads after this poll on the calling thread.
+     */
+    public synchronized void stop() {
+        thread = null;
+        //anything waiting for the thread to publish polls on its own instead
+        notifyPublished();
+    }
+
+    /**
+     * @return if the sensors are being polled by the background thread
+     */
+    public boolean isRunning() {
+        return thread != null;
+    }
+
+    /**
+     * Hand every state polled from now on to a listener
+     *
+     * @param listener what to call after each poll
+     */
+    public void addListener(@NonNull StateListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Stop handing states to a listener
+     *
+     * @param listener a listener added by ${@link #addListener(StateListener)}
+     */
+    public void removeListener(@NonNull StateListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Copy the latest state into the one provided. This does not lock or allocate unless the thread is
+     * stopped, then it polls the sensors first.
+     *
+     * @param reuse the state to overwrite
+     * @return the same state that was passed in
+     */
+    @NonNull
+    public RobotState readState(@NonNull RobotState reuse) {
+        if (!isRunning()) poll();
+        return copy(reuse);
+    }
+
+    /**
+     * Waits for a poll that started after this was called and copies it into the state provided. Use
+     * this after changing the hardware, such as resetting an encoder, to avoid reading the state
+     * from before the change.
+     *
+     * @param reuse the state to overwrite
+     * @return the same state that was passed in
+     */
+    @NonNull
+    public RobotState awaitState(@NonNull RobotState reuse) {
+        long requested = Clock.getDefault().nanoTime();
+        try {
+            while (isRunning() && !Status.isStopRequested()) {
+                CancellationToken next = nextPublish();
+                //checked after taking the token so a publish in between still ends the wait
+                if (copy(reuse).getTimestamp() >= requested) return reuse;
+                next.await();
+            }
+        } catch (InterruptedException e) {
+            //keep the flag so the caller sees it
+            Thread.currentThread().interrupt();
+        }
+        poll();
+        return copy(reuse);
+    }
+
+    private RobotState copy(RobotState reuse) {
+        int sequence;
+        long timestamp, driveLeft, driveRight;
+        double leadingLight, trailingLight, leadingUltrasonic, trailingUltrasonic, launcherLimit;
+        do {
+            sequence = this.sequence;
+            timestamp = this.timestamp;
+            driveLeft = this.driveLeft;
+            driveRight = this.driveRight;
+            leadingLight = this.leadingLight;
+            trailingLight = this.trailingLight;
+            leadingUltrasonic = this.leadingUltrasonic;
+            trailingUltrasonic = this.trailingUltrasonic;
+            launcherLimit = this.launcherLimit;
+            //retry if a write was in progress or finished while reading
+        } while ((sequence & 1) != 0 || sequence != this.sequence);
+        reuse.set(timestamp, driveLeft, driveRight, leadingLight, trailingLight, leadingUltrasonic, trailingUltrasonic, launcherLimit);
+        return reuse;
+    }
+
+    /**
+     * Read every sensor once and publish the result. It is synchronized so there is only ever one
+     * writer even when the background thread and a caller poll at the same time.
+     */
+    private synchronized void poll() {
+        long timestamp = Clock.getDefault().nanoTime();
+        long driveLeft = position(robot.getDriveLeftEncoder()), driveRight = position(robot.getDriveRightEncoder());
+        double leadingLight = light(robot.getLeadingLight()), trailingLight = light(robot.getTrailingLight());
+        double leadingUltrasonic = distance(robot.getLeadingUltrasonic()), trailingUltrasonic = distance(robot.getTrailingUltrasonic());
+        double launcherLimit = voltage(robot.getLauncherLimit());
+
+        int sequence = this.sequence;
+        this.sequence = sequence + 1;
+        this.timestamp = timestamp;
+        this.driveLeft = driveLeft;
+        this.driveRight = driveRight;
+        this.leadingLight = leadingLight;
+        this.trailingLight = trailingLight;
+        this.leadingUltrasonic = leadingUltrasonic;
+        this.trailingUltrasonic = trailingUltrasonic;
+        this.launcherLimit = launcherLimit;
+        this.sequence = sequence + 2;
+        notifyPublished();
+
+        if (listeners.isEmpty()) return;
+        copy(sample);
+        for (StateListener listener : listeners) {
+            try {
+                listener.onState(sample);
+            } catch (RuntimeException e) {
+                //a broken listener must not stop the sensors from being polled
+                RobotLog.e("State listener failed: " + e);
+            }
+        }
+    }
+
+    /**
+     * @return a token that is cancelled once the next state is published or stop is requested
+     */
+    private CancellationToken nextPublish() {
+        synchronized (publishLock) {
+            if (published == null) published = Status.getToken().newChild();
+            return published;
+        }
+    }
+
+    private void notifyPublished() {
+        CancellationToken published;
+        synchronized (publishLock) {
+            published = this.published;
+            this.published = null;
+        }
+        if (published != null) published.cancel();
+    }
+
+    private static long position(Encoder encoder) {
+        return encoder == null ? 0 : encoder.update();
+    }
+
+    private static double light(LightSensor sensor) {
+        return sensor == null ? 0 : sensor.getLightDetected();
+    }
+
+    private static double distance(SickUltrasonic sensor) {
+        return sensor == null ? 0 : sensor.getUltrasonicLevel();
+    }
+
+    private static double voltage(AnalogInput input) {
+        return input == null ? 0 : input.getVoltage();
+    }
+}
@@ -0,0 +1,18 @@
+package org.ftc7244.robotcontroller.sensor;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Receives every ${@link RobotState} the ${@link SensorAcquisition} polls as soon as it is published,
+ * instead of waiting for the next cycle of a control loop to read it.
+ */
+public interface StateListener {
+
+    /**
+     * Called on the thread that polled the sensors so it has to return quickly. The state is reused
+     * for the next poll and should not be kept.
+     *
+     * @param state the sensors that were just polled
+     */
+    void onState(@NonNull RobotState state);
+}
@@ -1,23 +1,20 @@
 package org.ftc7244.robotcontroller.sensor.accerometer;
 
 import android.support.annotation.NonNull;
-import android.support.annotation.Nullable;
 
-import com.kauailabs.navx.ftc.AHRS;
-import com.kauailabs.navx.ftc.IDataArrivalSubscriber;
 import com.qualcomm.robotcore.hardware.HardwareMap;
 
-import org.ftc7244.robotcontroller.Westcoast;
+import org.ftc7244.robotcontroller.sensor.NavXHub;
+import org.ftc7244.robotcontroller.sensor.NavXSample;
 
 /**
  * Uses the NavX-Micro and depends on the navx to determine if the robot is moved or rotated. The
- * login behind if it is moving or not is outsourced to its arm processor.
+ * login behind if it is moving or not is outsourced to its arm processor. Updates come from the
+ * shared ${@link NavXHub}.
  */
-public class NavXAccelerometerProvider extends AccelerometerProvider implements IDataArrivalSubscriber {
+public class NavXAccelerometerProvider extends AccelerometerProvider implements NavXHub.Listener {
 
-    @Nullable
-    private AHRS navxDevice;
-    private boolean moving;
+    private volatile boolean moving;
 
     @NonNull
     @Override
@@ -28,29 +25,16 @@ public class NavXAccelerometerProvider extends AccelerometerProvider implements
     @Override
     public void start(HardwareMap map) {
         moving = false;
-        navxDevice = Westcoast.getNavX(map);
-        navxDevice.zeroYaw();
-        navxDevice.registerCallback(this);
+        NavXHub.getInstance().subscribe(map, this);
     }
 
     @Override
     public void stop() {
-        navxDevice.deregisterCallback(this);
-        navxDevice = null;
+        NavXHub.getInstance().unsubscribe(this);
     }
 
     @Override
-    public void untimestampedDataReceived(long l, Object o) {
-
-    }
-
-    @Override
-    public void timestampedDataReceived(long l, long l1, Object o) {
-        moving = navxDevice.isMoving();
-    }
-
-    @Override
-    public void yawReset() {
-
+    public void onUpdate(NavXSample sample) {
+        moving = sample.isMoving();
     }
 }
@@ -0,0 +1,179 @@
+package org.ftc7244.robotcontroller.sensor.gyroscope;
+
+import org.ftc7244.robotcontroller.sensor.Quaternion;
+
+/**
+ * Integrates raw angular rates from a gyroscope into an orientation. All of the working memory is
+ * allocated once in the constructor so each sample can be processed without creating garbage, which
+ * matters when samples arrive at several hundred hertz. It has no dependency on Android so the same
+ * math can be exercised on a desktop.
+ */
+public class GyroscopeIntegrator {
+
+    /**
+     * Constant specifying the factor between a Nano-second and a second
+     */
+    private static final float NS2S = 1.0f / 1000000000.0f;
+
+    /**
+     * The quaternion that stores the difference that is obtained by the gyroscope.
+     * Basically it contains a rotational difference encoded into a quaternion.
+     * <p>
+     * To obtain the absolute orientation one must add this into an initial position by
+     * multiplying it with another quaternion
+     */
+    private final Quaternion correctedQuaternion, currentOrientationQuaternion, deltaQuaternion;
+
+    /**
+     * Scratch space for the azimuth, pitch and roll of the last sample in radians
+     */
+    private final float[] orientation;
+
+    private float errorX, errorY, errorZ, errorCount;
+
+    /**
+     * This is a filter-threshold for discarding Gyroscope measurements that are below a certain level and
+     * potentially are only noise and not real motion. Values from the gyroscope are usually between 0 (stop) and
+     * 10 (rapid rotation), so 0.1 seems to be a reasonable threshold to filter noise (usually smaller than 0.1) and
+     * real motion (usually > 0.1). Note that there is a chance of missing real motion, if the use is turning the
+     * device really slowly, so this value has to find a balance between accepting noise (threshold = 0) and missing
+     * slow user-action (threshold > 0.5). 0.1 seems to work fine for most applications.
+     */
+    private float epsilon;
+
+    /**
+     * Timestamp of the previous sample in nanoseconds
+     */
+    private long timestamp;
+
+    public GyroscopeIntegrator() {
+        correctedQuaternion = new Quaternion();
+        currentOrientationQuaternion = new Quaternion();
+        deltaQuaternion = new Quaternion();
+        orientation = new float[3];
+        reset();
+    }
+
+    /**
+     * Forget the orientation and the calibration error without allocating new objects
+     */
+    public void reset() {
+        correctedQuaternion.reset();
+        currentOrientationQuaternion.reset();
+        deltaQuaternion.reset();
+        orientation[0] = 0;
+        orientation[1] = 0;
+        orientation[2] = 0;
+        errorX = 0;
+        errorY = 0;
+        errorZ = 0;
+        errorCount = 0;
+        timestamp = 0;
+    }
+
+    /**
+     * Average the sample into the offset that is later removed from every integrated sample
+     *
+     * @param axisX     angular rate around x in radians per second
+     * @param axisY     angular rate around y in radians per second
+     * @param axisZ     angular rate around z in radians per second
+     * @param timestamp time of the sample in nanoseconds
+     */
+    public void calibrate(float axisX, float axisY, float axisZ, long timestamp) {
+        float newErrorCount = errorCount + 1;
+        errorX = ((errorX * errorCount) + Math.abs(axisX)) / newErrorCount;
+        errorY = ((errorY * errorCount) + Math.abs(axisY)) / newErrorCount;
+        errorZ = ((errorZ * errorCount) + Math.abs(axisZ)) / newErrorCount;
+        errorCount = newErrorCount;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Rotate the current orientation by the angular rates over the time since the previous sample.
+     * The first sample only records the timestamp since there is no time step yet.
+     *
+     * @param axisX     angular rate around x in radians per second
+     * @param axisY     angular rate around y in radians per second
+     * @param axisZ     angular rate around z in radians per second
+     * @param timestamp time of the sample in nanoseconds
+     * @return if the orientation was updated
+     */
+    public boolean integrate(float axisX, float axisY, float axisZ, long timestamp) {
+        long previous = this.timestamp;
+        this.timestamp = timestamp;
+        if (previous == 0) return false;
+
+        final float dT = (timestamp - previous) * NS2S;
+        // Axis of the rotation sample, not normalized yet.
+        axisX = axisX + (axisX > 0 ? -errorX : errorX);
+        axisY = axisY + (axisY > 0 ? -errorY : errorY);
+        axisZ = axisZ + (axisZ > 0 ? -errorZ : errorZ);
+
+        // Calculate the angular speed of the sample
+        double gyroscopeRotationVelocity = Math.sqrt(axisX * axisX + axisY * axisY + axisZ * axisZ);
+
+        // Normalize the rotation vector if it's big enough to get the axis
+        if (gyroscopeRotationVelocity > epsilon) {
+            axisX /= gyroscopeRotationVelocity;
+            axisY /= gyroscopeRotationVelocity;
+            axisZ /= gyroscopeRotationVelocity;
+        }
+
+        // Integrate around this axis with the angular speed by the timestep
+        // in order to get a delta rotation from this sample over the timestep
+        float thetaOverTwo = (float) (gyroscopeRotationVelocity * dT / 2.0f);
+        float sinThetaOverTwo = (float) Math.sin(thetaOverTwo);
+        float cosThetaOverTwo = (float) Math.cos(thetaOverTwo);
+        deltaQuaternion.setX(sinThetaOverTwo * axisX);
+        deltaQuaternion.setY(sinThetaOverTwo * axisY);
+        deltaQuaternion.setZ(sinThetaOverTwo * axisZ);
+        deltaQuaternion.setW(-cosThetaOverTwo);
+
+        // Move current gyro orientation in place
+        deltaQuaternion.multiplyByQuat(currentOrientationQuaternion, currentOrientationQuaternion);
+
+        correctedQuaternion.set(currentOrientationQuaternion);
+        // We inverted getW in the deltaQuaternion, because currentOrientationQuaternion required it.
+        // Before converting it back to angles, we need to revert this process
+        correctedQuaternion.setW(-correctedQuaternion.getW());
+
+        correctedQuaternion.getOrientation(orientation);
+        return true;
+    }
+
+    /**
+     * @return azimuth of the last integrated sample in degrees
+     */
+    public double getAzimuth() {
+        return Math.toDegrees(orientation[0]);
+    }
+
+    /**
+     * @return pitch of the last integrated sample in degrees
+     */
+    public double getPitch() {
+        return Math.toDegrees(orientation[1]);
+    }
+
+    /**
+     * @return roll of the last integrated sample in degrees
+     */
+    public double getRoll() {
+        return Math.toDegrees(orientation[2]);
+    }
+
+    /**
+     * @return timestamp of the previous sample in nanoseconds
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public float getEpsilon() {
+        return epsilon;
+    }
+
+    public void setEpsilon(float epsilon) {
+        this.epsilon = epsilon;
+    }
+}
@@ -1,9 +1,11 @@
 package org.ftc7244.robotcontroller.sensor.gyroscope;
 
 import android.hardware.Sensor;
+import android.support.annotation.NonNull;
 
 import com.qualcomm.robotcore.hardware.HardwareMap;
 
+import org.ftc7244.robotcontroller.autonomous.Clock;
 import org.ftc7244.robotcontroller.sensor.SensorProvider;
 
 /**
@@ -12,12 +14,32 @@ import org.ftc7244.robotcontroller.sensor.SensorProvider;
  * only a relative measurement starting from the point where it started.
  */
 public abstract class GyroscopeProvider extends SensorProvider {
+    /**
+     * Counter used as a sequence lock so all the axes and the timestamp are published as one sample.
+     * It is odd while a sample is being written which tells readers to try again.
+     */
+    private volatile int sequence;
+
     /**
      * The time-stamp being used to record the time when the last gyroscope event occurred.
      */
-    private long timestamp;
+    private volatile long timestamp;
+
+    /**
+     * When the last sample was measured in ${@link Clock#nanoTime()} so its age can be compared to
+     * the time of the control loop
+     */
+    private volatile long measured;
 
-    private volatile double x, y, z;
+    private volatile double x, y, z, zRate;
+
+    /**
+     * The z axis with every change since the first sample added up the short way round so it keeps
+     * counting past the seam at 180 degrees instead of jumping to the other side.
+     */
+    private volatile double unwrappedZ;
+
+    private volatile boolean published;
 
     /**
      * Will offset the value of the gyroscope by the value specified which can be used as a way of
@@ -31,7 +53,12 @@ public abstract class GyroscopeProvider extends SensorProvider {
         x = 0;
         y = 0;
         z = 0;
+        zRate = 0;
+        unwrappedZ = 0;
+        published = false;
         timestamp = 0;
+        measured = 0;
+        sequence = 0;
     }
 
 
@@ -67,11 +94,7 @@ public abstract class GyroscopeProvider extends SensorProvider {
      * @return value of in degrees
      */
     public double getX() {
-        return offsetNumber(x, zOffset);
-    }
-
-    protected synchronized void setX(double x) {
-        this.x = x;
+        return offsetNumber(x, xOffset);
     }
 
     /**
@@ -84,10 +107,6 @@ public abstract class GyroscopeProvider extends SensorProvider {
         return y;
     }
 
-    protected synchronized void setY(double y) {
-        this.y = y;
-    }
-
     /**
      * Get the current value of the Y with the offset specified in ${@link #setZOffset(double)}
      *
@@ -97,8 +116,25 @@ public abstract class GyroscopeProvider extends SensorProvider {
         return offsetNumber(z, zOffset);
     }
 
-    protected synchronized void setZ(double z) {
-        this.z = z;
+    /**
+     * Get the current value of the Z with the offset specified in ${@link #setZOffset(double)} but
+     * counting every full turn since the sensor started instead of wrapping around. Wrapping it back
+     * into -180 to 180 degrees gives the same heading as ${@link #getZ()}.
+     *
+     * @return value in degrees
+     */
+    public double getUnwrappedZ() {
+        return unwrappedZ - zOffset;
+    }
+
+    /**
+     * How fast the z axis was turning when the last sample was measured. Providers that do not measure
+     * it get the change between their last two samples instead.
+     *
+     * @return rate in degrees per second
+     */
+    public double getZRate() {
+        return zRate;
     }
 
     /**
@@ -111,12 +147,92 @@ public abstract class GyroscopeProvider extends SensorProvider {
     }
 
     /**
-     * Set the timestamp in milliseconds
+     * @return ${@link Clock#nanoTime()} when the last sample was measured
+     */
+    public long getMeasured() {
+        return measured;
+    }
+
+    /**
+     * Copies every axis and the timestamp from the same update into the sample provided. This does
+     * not lock or allocate so it is safe to call from the control loop while the sensor thread is
+     * publishing new values.
+     *
+     * @param reuse the sample to overwrite
+     * @return the same sample that was passed in
+     */
+    @NonNull
+    public OrientationSample readSnapshot(@NonNull OrientationSample reuse) {
+        int sequence;
+        double x, y, z, zRate, unwrappedZ;
+        long timestamp, measured;
+        do {
+            sequence = this.sequence;
+            x = this.x;
+            y = this.y;
+            z = this.z;
+            zRate = this.zRate;
+            unwrappedZ = this.unwrappedZ;
+            timestamp = this.timestamp;
+            measured = this.measured;
+            //retry if a write was in progress or finished while reading
+        } while ((sequence & 1) != 0 || sequence != this.sequence);
+        double zOffset = this.zOffset;
+        reuse.set(offsetNumber(x, xOffset), y, offsetNumber(z, zOffset), zRate, unwrappedZ - zOffset, timestamp, measured);
+        return reuse;
+    }
+
+    /**
+     * Publish all the axes and the timestamp as a single sample. This should only be called from the
+     * thread that receives the sensor updates. The sample is treated as measured right now and the
+     * rate of the z axis comes from the change since the previous sample.
+     *
+     * @param x         value of the x axis in degrees
+     * @param y         value of the y axis in degrees
+     * @param z         value of the z axis in degrees
+     * @param timestamp when the values were measured
+     */
+    protected void publish(double x, double y, double z, long timestamp) {
+        long measured = Clock.getDefault().nanoTime(), previous = this.measured;
+        double zRate = previous == 0 || measured <= previous ? 0 : offsetNumber(z - this.z, 0) * 1e9 / (measured - previous);
+        publish(x, y, z, zRate, timestamp, measured);
+    }
+
+    /**
+     * Same as ${@link #publish(double, double, double, long)} for sensors that measure their own
+     * rate and know how long ago the sample was taken
      *
-     * @param timestamp new timestamp in milliseconds
+     * @param x         value of the x axis in degrees
+     * @param y         value of the y axis in degrees
+     * @param z         value of the z axis in degrees
+     * @param zRate     rate of the z axis in degrees per second
+     * @param timestamp when the values were measured
+     * @param measured  ${@link Clock#nanoTime()} when the values were measured
      */
-    protected synchronized void setTimestamp(long timestamp) {
+    protected void publish(double x, double y, double z, double zRate, long timestamp, long measured) {
+        //the sensor wraps around so only the short way between samples is added to the total
+        double unwrappedZ = published ? this.unwrappedZ + offsetNumber(z - this.z, 0) : z;
+        published = true;
+        int sequence = this.sequence;
+        this.sequence = sequence + 1;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.zRate = zRate;
+        this.unwrappedZ = unwrappedZ;
         this.timestamp = timestamp;
+        this.measured = measured;
+        this.sequence = sequence + 2;
+    }
+
+    /**
+     * Publish a new timestamp without changing the orientation. This should only be called from the
+     * thread that receives the sensor updates.
+     *
+     * @param timestamp new timestamp
+     */
+    protected void setTimestamp(long timestamp) {
+        publish(x, y, z, zRate, timestamp, measured);
     }
 
     /**
@@ -1,35 +1,31 @@
 package org.ftc7244.robotcontroller.sensor.gyroscope;
 
-import android.support.annotation.Nullable;
+import android.os.SystemClock;
 
-import com.kauailabs.navx.ftc.AHRS;
-import com.kauailabs.navx.ftc.IDataArrivalSubscriber;
 import com.qualcomm.robotcore.hardware.HardwareMap;
 
-import org.ftc7244.robotcontroller.Westcoast;
+import org.ftc7244.robotcontroller.autonomous.Clock;
+import org.ftc7244.robotcontroller.sensor.NavXHub;
+import org.ftc7244.robotcontroller.sensor.NavXSample;
 
 /**
  * Utilizes the NavX-Micro to get an orientatio and prevents code from executing until it
- * has been fully calibrated.
+ * has been fully calibrated. Updates come from the shared ${@link NavXHub}.
  */
-public class NavXGyroscopeProvider extends GyroscopeProvider implements IDataArrivalSubscriber {
+public class NavXGyroscopeProvider extends GyroscopeProvider implements NavXHub.Listener {
 
-
-    @Nullable
-    private AHRS navxDevice;
-    private boolean calibrating;
+    private volatile boolean calibrating;
 
     @Override
     public void start(HardwareMap map) {
-        navxDevice = Westcoast.getNavX(map);
-        navxDevice.zeroYaw();
-        navxDevice.registerCallback(this);
         calibrating = false;
+        NavXHub.getInstance().subscribe(map, this);
+        NavXHub.getInstance().zeroYaw();
     }
 
     @Override
     public void calibrate() {
-        navxDevice.zeroYaw();
+        NavXHub.getInstance().zeroYaw();
     }
 
     @Override
@@ -39,26 +35,15 @@ public class NavXGyroscopeProvider extends GyroscopeProvider implements IDataArr
 
     @Override
     public void stop() {
-        navxDevice.close();
-        navxDevice = null;
+        NavXHub.getInstance().unsubscribe(this);
     }
 
     @Override
-    public void untimestampedDataReceived(long l, Object o) {
-    }
-
-    @Override
-    public void timestampedDataReceived(long systemTimestamp, long sensorTimestamp, Object o) {
-        setX(navxDevice.getRoll() - 180);
-        setY(navxDevice.getPitch() - 180);
-        setZ(navxDevice.getYaw() - 180);
-        setTimestamp(systemTimestamp);
-        calibrating = navxDevice.isCalibrating();
-
-    }
-
-    @Override
-    public void yawReset() {
-
+    public void onUpdate(NavXSample sample) {
+        //the sample was measured on the clock of the phone a while ago so move that onto the clock of the control loop
+        long measured = Clock.getDefault().nanoTime() - (SystemClock.elapsedRealtime() - sample.getTimestamp()) * 1000000;
+        publish(sample.getRoll() - 180, sample.getPitch() - 180, sample.getYaw() - 180, sample.getYawRate(),
+                sample.getTimestamp(), measured);
+        calibrating = sample.isCalibrating();
     }
 }
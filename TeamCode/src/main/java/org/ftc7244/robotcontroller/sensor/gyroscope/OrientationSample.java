@@ -0,0 +1,94 @@
+package org.ftc7244.robotcontroller.sensor.gyroscope;
+
+import org.ftc7244.robotcontroller.autonomous.Clock;
+
+/**
+ * A single reading from a ${@link GyroscopeProvider} where every axis and the timestamp were
+ * published together. It is mutable so the same instance can be reused by a control loop through
+ * ${@link GyroscopeProvider#readSnapshot(OrientationSample)} without allocating every cycle.
+ */
+public class OrientationSample {
+
+    private double x, y, z, zRate, unwrappedZ;
+    private long timestamp, measured;
+
+    /**
+     * Overwrite all the values of the sample at once
+     *
+     * @param x          value of the x axis in degrees
+     * @param y          value of the y axis in degrees
+     * @param z          value of the z axis in degrees
+     * @param zRate      rate of the z axis in degrees per second
+     * @param unwrappedZ value of the z axis in degrees counting every full turn
+     * @param timestamp  when the values were measured
+     * @param measured   ${@link Clock#nanoTime()} when the values were measured
+     */
+    void set(double x, double y, double z, double zRate, double unwrappedZ, long timestamp, long measured) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.zRate = zRate;
+        this.unwrappedZ = unwrappedZ;
+        this.timestamp = timestamp;
+        this.measured = measured;
+    }
+
+    /**
+     * @return x axis in degrees with the offset of the provider applied
+     */
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * @return y axis in degrees
+     */
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * @return z axis in degrees with the offset of the provider applied
+     */
+    public double getZ() {
+        return z;
+    }
+
+    /**
+     * @return z axis in degrees with the offset of the provider applied without wrapping around
+     */
+    public double getUnwrappedZ() {
+        return unwrappedZ;
+    }
+
+    /**
+     * @return rate of the z axis in degrees per second
+     */
+    public double getZRate() {
+        return zRate;
+    }
+
+    /**
+     * @return the timestamp of the provider when the sample was published
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return ${@link Clock#nanoTime()} when the sample was measured
+     */
+    public long getMeasured() {
+        return measured;
+    }
+
+    /**
+     * How old the sample is at a point in time
+     *
+     * @param now ${@link Clock#nanoTime()} to compare against
+     * @return age in nanoseconds
+     */
+    public long getAge(long now) {
+        return now - measured;
+    }
+}